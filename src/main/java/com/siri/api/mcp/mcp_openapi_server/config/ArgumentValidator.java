@@ -0,0 +1,383 @@
+package com.siri.api.mcp.mcp_openapi_server.config;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Checks tool call arguments against the input schema of an operation before the upstream API is called.
+ * <p>
+ * The schema is compiled once into a tree of checks covering types, required properties, enums, numeric
+ * and length bounds, patterns, array sizes, closed objects and {@code $defs} references. Top-level
+ * parameters are checked leniently, since they are sent as strings: {@code "5"} is accepted for an integer.
+ * The request body is checked strictly.
+ */
+class ArgumentValidator {
+
+    private static final int MAX_ERRORS = 10;
+    private static final String REQUEST_BODY = "requestBody";
+
+    private final Node root;
+    private final LongAdder validated = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private ArgumentValidator(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Compile the validator of a tool input schema
+     */
+    static ArgumentValidator compile(Map<String, Object> inputSchema) {
+        return new ArgumentValidator(new Compiler(inputSchema).compileRoot());
+    }
+
+    /**
+     * @throws IllegalArgumentException describing every violation found, up to a limit
+     */
+    void check(String operationId, Map<String, Object> arguments) {
+        validated.increment();
+        List<String> errors = new ArrayList<>();
+        root.validate(arguments != null ? arguments : Map.of(), "", errors);
+        if (!errors.isEmpty()) {
+            rejected.increment();
+            throw new IllegalArgumentException("Invalid arguments for " + operationId + ": " + String.join("; ", errors));
+        }
+    }
+
+    long validated() {
+        return validated.sum();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    private static final class Compiler {
+
+        private final Map<String, Object> inputSchema;
+        private final Map<String, Node> definitions = new HashMap<>();
+
+        Compiler(Map<String, Object> inputSchema) {
+            this.inputSchema = inputSchema;
+        }
+
+        Node compileRoot() {
+            // Definitions are created before they are filled so recursive references resolve to the same node
+            if (inputSchema.get(SchemaBudget.DEFS) instanceof Map<?, ?> defs) {
+                defs.keySet().forEach(name -> definitions.put(String.valueOf(name), new Node(false)));
+                defs.forEach((name, definition) -> {
+                    if (definition instanceof Map<?, ?> schema) {
+                        fill(definitions.get(String.valueOf(name)), schema, false);
+                    }
+                });
+            }
+
+            Node root = new Node(false);
+            root.types = Set.of("object");
+            root.required = stringList(inputSchema.get("required"));
+            if (inputSchema.get("properties") instanceof Map<?, ?> properties) {
+                root.properties = new LinkedHashMap<>();
+                properties.forEach((name, property) -> {
+                    if (property instanceof Map<?, ?> schema) {
+                        // Parameters are converted to strings, only the request body keeps its JSON types
+                        root.properties.put(String.valueOf(name), compile(schema, !REQUEST_BODY.equals(name)));
+                    }
+                });
+            }
+            return root;
+        }
+
+        private Node compile(Map<?, ?> schema, boolean lenient) {
+            if (schema.get("$ref") instanceof String ref && ref.startsWith(SchemaBudget.DEFS_PREFIX)) {
+                Node definition = definitions.get(SchemaBudget.definitionName(ref));
+                if (definition != null) {
+                    return definition;
+                }
+            }
+            Node node = new Node(lenient);
+            fill(node, schema, lenient);
+            return node;
+        }
+
+        private void fill(Node node, Map<?, ?> schema, boolean lenient) {
+            if (schema.get("type") instanceof String type) {
+                node.types = Set.of(type);
+            }
+            if (schema.get("enum") instanceof List<?> values && !values.isEmpty()) {
+                node.enumValues = new HashSet<>();
+                values.forEach(value -> node.enumValues.add(canonical(value)));
+            }
+            node.required = stringList(schema.get("required"));
+            node.minimum = decimal(schema.get("minimum"));
+            node.maximum = decimal(schema.get("maximum"));
+            // OpenAPI 3.0 marks the bounds as exclusive with a flag, JSON Schema gives the bound itself
+            if (schema.get("exclusiveMinimum") instanceof Boolean exclusive) {
+                node.exclusiveMinimum = exclusive;
+            } else if (decimal(schema.get("exclusiveMinimum")) != null) {
+                node.minimum = decimal(schema.get("exclusiveMinimum"));
+                node.exclusiveMinimum = true;
+            }
+            if (schema.get("exclusiveMaximum") instanceof Boolean exclusive) {
+                node.exclusiveMaximum = exclusive;
+            } else if (decimal(schema.get("exclusiveMaximum")) != null) {
+                node.maximum = decimal(schema.get("exclusiveMaximum"));
+                node.exclusiveMaximum = true;
+            }
+            node.minLength = integer(schema.get("minLength"));
+            node.maxLength = integer(schema.get("maxLength"));
+            if (schema.get("pattern") instanceof String pattern) {
+                try {
+                    node.pattern = Pattern.compile(pattern);
+                } catch (Exception e) {
+                    // ECMA-262 syntax not understood by java.util.regex; leave it to the upstream API
+                }
+            }
+            node.minItems = integer(schema.get("minItems"));
+            node.maxItems = integer(schema.get("maxItems"));
+            node.uniqueItems = Boolean.TRUE.equals(schema.get("uniqueItems"));
+
+            if (schema.get("properties") instanceof Map<?, ?> properties) {
+                node.properties = new LinkedHashMap<>();
+                properties.forEach((name, property) -> {
+                    if (property instanceof Map<?, ?> propertySchema) {
+                        node.properties.put(String.valueOf(name), compile(propertySchema, lenient));
+                    }
+                });
+            }
+            if (schema.get("items") instanceof Map<?, ?> items) {
+                node.items = compile(items, lenient);
+            }
+            if (schema.get("additionalProperties") instanceof Map<?, ?> additional) {
+                node.additionalProperties = compile(additional, lenient);
+            } else if (Boolean.FALSE.equals(schema.get("additionalProperties"))) {
+                node.closed = true;
+            }
+            if (schema.get("$ref") instanceof String ref && ref.startsWith(SchemaBudget.DEFS_PREFIX)) {
+                node.reference = definitions.get(SchemaBudget.definitionName(ref));
+            }
+        }
+    }
+
+    /**
+     * The checks of one schema node; every constraint is optional
+     */
+    private static final class Node {
+
+        private final boolean lenient;
+        private Set<String> types;
+        private Set<String> enumValues;
+        private List<String> required;
+        private BigDecimal minimum;
+        private BigDecimal maximum;
+        private boolean exclusiveMinimum;
+        private boolean exclusiveMaximum;
+        private Integer minLength;
+        private Integer maxLength;
+        private Pattern pattern;
+        private Integer minItems;
+        private Integer maxItems;
+        private boolean uniqueItems;
+        private Map<String, Node> properties;
+        private Node items;
+        private Node additionalProperties;
+        private boolean closed;
+        private Node reference;
+
+        Node(boolean lenient) {
+            this.lenient = lenient;
+        }
+
+        void validate(Object value, String path, List<String> errors) {
+            if (errors.size() >= MAX_ERRORS) {
+                return;
+            }
+            if (reference != null) {
+                reference.validate(value, path, errors);
+            }
+            if (value == null) {
+                if (types != null) {
+                    errors.add(label(path) + "must not be null");
+                }
+                return;
+            }
+            if (types != null && types.stream().noneMatch(type -> matches(type, value))) {
+                errors.add(label(path) + "expected " + String.join(" or ", types) + " but got " + describe(value));
+                return;
+            }
+            if (enumValues != null && !enumValues.contains(canonical(value))) {
+                errors.add(label(path) + "must be one of " + enumValues.stream().sorted().toList() + " but was " + canonical(value));
+            }
+
+            BigDecimal number = decimal(value, lenient);
+            if (number != null && !(value instanceof Boolean)) {
+                validateBounds(number, path, errors);
+            }
+            if (value instanceof String text) {
+                validateText(text, path, errors);
+            }
+            if (value instanceof List<?> list) {
+                validateArray(list, path, errors);
+            }
+            if (value instanceof Map<?, ?> map) {
+                validateObject(map, path, errors);
+            }
+        }
+
+        private void validateBounds(BigDecimal number, String path, List<String> errors) {
+            if (minimum != null && (exclusiveMinimum ? number.compareTo(minimum) <= 0 : number.compareTo(minimum) < 0)) {
+                errors.add(label(path) + "must be " + (exclusiveMinimum ? "greater than " : "at least ") + minimum.toPlainString());
+            }
+            if (maximum != null && (exclusiveMaximum ? number.compareTo(maximum) >= 0 : number.compareTo(maximum) > 0)) {
+                errors.add(label(path) + "must be " + (exclusiveMaximum ? "less than " : "at most ") + maximum.toPlainString());
+            }
+        }
+
+        private void validateText(String text, String path, List<String> errors) {
+            int length = text.codePointCount(0, text.length());
+            if (minLength != null && length < minLength) {
+                errors.add(label(path) + "must be at least " + minLength + " characters long");
+            }
+            if (maxLength != null && length > maxLength) {
+                errors.add(label(path) + "must be at most " + maxLength + " characters long");
+            }
+            if (pattern != null && !pattern.matcher(text).find()) {
+                errors.add(label(path) + "must match pattern " + pattern.pattern());
+            }
+        }
+
+        private void validateArray(List<?> list, String path, List<String> errors) {
+            if (minItems != null && list.size() < minItems) {
+                errors.add(label(path) + "must have at least " + minItems + " items");
+            }
+            if (maxItems != null && list.size() > maxItems) {
+                errors.add(label(path) + "must have at most " + maxItems + " items");
+            }
+            if (uniqueItems && new HashSet<>(list).size() < list.size()) {
+                errors.add(label(path) + "must not contain duplicate items");
+            }
+            if (items != null) {
+                for (int i = 0; i < list.size(); i++) {
+                    items.validate(list.get(i), path + "[" + i + "]", errors);
+                }
+            }
+        }
+
+        private void validateObject(Map<?, ?> map, String path, List<String> errors) {
+            if (required != null) {
+                for (String name : required) {
+                    if (!map.containsKey(name)) {
+                        errors.add(label(child(path, name)) + "is required");
+                    }
+                }
+            }
+            map.forEach((key, child) -> {
+                String name = String.valueOf(key);
+                Node property = properties != null ? properties.get(name) : null;
+                if (property != null) {
+                    property.validate(child, child(path, name), errors);
+                } else if (additionalProperties != null) {
+                    additionalProperties.validate(child, child(path, name), errors);
+                } else if (closed && errors.size() < MAX_ERRORS) {
+                    errors.add(label(child(path, name)) + "is not allowed");
+                }
+            });
+        }
+
+        private boolean matches(String type, Object value) {
+            return switch (type) {
+                case "string" -> value instanceof String || (lenient && (value instanceof Number || value instanceof Boolean));
+                case "integer" -> isInteger(decimal(value, lenient));
+                case "number" -> decimal(value, lenient) != null;
+                case "boolean" -> value instanceof Boolean
+                    || (lenient && value instanceof String text && ("true".equals(text) || "false".equals(text)));
+                case "object" -> value instanceof Map;
+                case "array" -> value instanceof List;
+                default -> true;
+            };
+        }
+    }
+
+    private static boolean isInteger(BigDecimal number) {
+        return number != null && (number.signum() == 0 || number.stripTrailingZeros().scale() <= 0);
+    }
+
+    private static BigDecimal decimal(Object value, boolean lenient) {
+        if (value instanceof Number) {
+            return decimal(value);
+        }
+        if (lenient && value instanceof String text) {
+            try {
+                return new BigDecimal(text.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static BigDecimal decimal(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        if (value instanceof Number number) {
+            try {
+                return new BigDecimal(number.toString());
+            } catch (NumberFormatException e) {
+                // NaN or infinity
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static Integer integer(Object value) {
+        return value instanceof Number number ? number.intValue() : null;
+    }
+
+    /**
+     * Enum values compare by their text, with numbers in canonical form so 1, 1.0 and "1" are equal
+     */
+    private static String canonical(Object value) {
+        BigDecimal number = value instanceof Boolean ? null : decimal(value);
+        return number != null ? number.stripTrailingZeros().toPlainString() : String.valueOf(value);
+    }
+
+    private static List<String> stringList(Object value) {
+        if (!(value instanceof List<?> list) || list.isEmpty()) {
+            return null;
+        }
+        return list.stream().map(String::valueOf).toList();
+    }
+
+    private static String describe(Object value) {
+        if (value instanceof String text) {
+            return "string \"" + (text.length() > 40 ? text.substring(0, 40) + "…" : text) + "\"";
+        }
+        if (value instanceof Boolean) {
+            return "boolean";
+        }
+        if (value instanceof Number) {
+            return "number " + value;
+        }
+        if (value instanceof List) {
+            return "array";
+        }
+        return value instanceof Map ? "object" : value.getClass().getSimpleName();
+    }
+
+    private static String child(String path, String name) {
+        return path.isEmpty() ? name : path + "." + name;
+    }
+
+    private static String label(String path) {
+        return path.isEmpty() ? "" : path + ": ";
+    }
+}
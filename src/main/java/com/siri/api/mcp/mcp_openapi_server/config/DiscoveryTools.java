@@ -0,0 +1,115 @@
+package com.siri.api.mcp.mcp_openapi_server.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
+import com.siri.api.mcp.mcp_openapi_server.service.OpenApiDefinitionService;
+import com.siri.api.mcp.mcp_openapi_server.service.OperationSearchIndex;
+import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The two meta-tools listed in discovery mode: {@code search_operations} finds operations in the
+ * {@link OperationSearchIndex} and returns their input schemas, {@code invoke_operation} calls one by ID.
+ * The operations themselves are registered unlisted, so calls go through the same validation and lazy
+ * compilation as direct tool calls.
+ */
+class DiscoveryTools {
+
+    static final String SEARCH_OPERATIONS = "search_operations";
+    static final String INVOKE_OPERATION = "invoke_operation";
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+
+    private final OpenApiDefinitionService openApiDefinitionService;
+    private final McpToolRegistry toolRegistry;
+    private final ObjectMapper objectMapper;
+
+    DiscoveryTools(OpenApiDefinitionService openApiDefinitionService, McpToolRegistry toolRegistry,
+                   ObjectMapper objectMapper) {
+        this.openApiDefinitionService = openApiDefinitionService;
+        this.toolRegistry = toolRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    List<SyncToolSpecification> specifications() {
+        McpSchema.Tool search = new McpSchema.Tool(SEARCH_OPERATIONS,
+            "Search the available API operations by keywords, such as a resource, action or parameter name. " +
+                "Returns the best matches with the input schema to use with " + INVOKE_OPERATION + ".",
+            new McpSchema.JsonSchema("object", Map.of(
+                "query", Map.of("type", "string", "description", "Keywords describing the operation"),
+                "limit", Map.of("type", "integer", "minimum", 1, "maximum", MAX_LIMIT,
+                    "description", "Maximum number of operations to return, " + DEFAULT_LIMIT + " by default")),
+                List.of("query"), null, null, null));
+        McpSchema.Tool invoke = new McpSchema.Tool(INVOKE_OPERATION,
+            "Invoke an API operation found with " + SEARCH_OPERATIONS + ".",
+            new McpSchema.JsonSchema("object", Map.of(
+                "operationId", Map.of("type", "string", "description", "The operation ID returned by the search"),
+                "arguments", Map.of("type", "object", "description", "Arguments matching the operation's input schema")),
+                List.of("operationId"), null, null, null));
+        return List.of(new SyncToolSpecification(search, (exchange, arguments) -> search(arguments)),
+            new SyncToolSpecification(invoke, this::invoke));
+    }
+
+    McpSchema.CallToolResult search(Map<String, Object> arguments) {
+        Object query = arguments != null ? arguments.get("query") : null;
+        if (!(query instanceof String text) || text.isBlank()) {
+            return error("query is required");
+        }
+        int limit = DEFAULT_LIMIT;
+        if (arguments.get("limit") instanceof Number number) {
+            limit = Math.max(1, Math.min(MAX_LIMIT, number.intValue()));
+        }
+
+        List<Map<String, Object>> operations = new ArrayList<>();
+        for (OperationSearchIndex.Hit hit : openApiDefinitionService.getSearchIndex().search(text, limit)) {
+            OpenApiDefinitionService.ApiOperation apiOperation =
+                openApiDefinitionService.getOperation(hit.operationId()).orElse(null);
+            SyncToolSpecification tool = toolRegistry.find(hit.operationId()).orElse(null);
+            if (apiOperation == null || tool == null) {
+                continue;
+            }
+            Map<String, Object> operation = new LinkedHashMap<>();
+            operation.put("operationId", hit.operationId());
+            operation.put("method", apiOperation.httpMethod().name());
+            operation.put("path", apiOperation.path());
+            operation.put("description", tool.tool().description());
+            operation.put("inputSchema", tool.tool().inputSchema());
+            operations.add(operation);
+        }
+
+        try {
+            String result = objectMapper.writeValueAsString(Map.of("operations", operations));
+            return new McpSchema.CallToolResult(List.of(new McpSchema.TextContent(result)), false);
+        } catch (JsonProcessingException e) {
+            return error(e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    McpSchema.CallToolResult invoke(McpSyncServerExchange exchange, Map<String, Object> arguments) {
+        Object operationId = arguments != null ? arguments.get("operationId") : null;
+        if (!(operationId instanceof String id) || SEARCH_OPERATIONS.equals(id) || INVOKE_OPERATION.equals(id)) {
+            return error("operationId must name an operation returned by " + SEARCH_OPERATIONS);
+        }
+        Object operationArguments = arguments.get("arguments");
+        if (operationArguments != null && !(operationArguments instanceof Map)) {
+            return error("arguments must be an object");
+        }
+        return toolRegistry.find(id)
+            .map(tool -> tool.call().apply(exchange,
+                operationArguments != null ? (Map<String, Object>) operationArguments : Map.of()))
+            .orElseGet(() -> error("Unknown operation: " + id + ". Use " + SEARCH_OPERATIONS + " to find operations"));
+    }
+
+    private static McpSchema.CallToolResult error(String message) {
+        return new McpSchema.CallToolResult(List.of(new McpSchema.TextContent(message)), true);
+    }
+}
@@ -0,0 +1,36 @@
+package com.siri.api.mcp.mcp_openapi_server.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
+import com.siri.api.mcp.mcp_openapi_server.mcp.ToolRoutingSseTransportProvider;
+import org.springframework.ai.mcp.server.autoconfigure.McpServerProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+
+/**
+ * Replaces the auto-configured WebFlux SSE transport with one that answers tool requests
+ * from the {@link McpToolRegistry}.
+ */
+@Configuration
+public class McpTransportConfiguration {
+
+    @Bean
+    public ToolRoutingSseTransportProvider toolRoutingTransport(ObjectProvider<ObjectMapper> objectMapperProvider,
+                                                                McpServerProperties serverProperties,
+                                                                McpToolRegistry toolRegistry) {
+        return new ToolRoutingSseTransportProvider(
+            objectMapperProvider.getIfAvailable(ObjectMapper::new),
+            serverProperties.getBaseUrl(),
+            serverProperties.getSseMessageEndpoint(),
+            serverProperties.getSseEndpoint(),
+            toolRegistry);
+    }
+
+    // The auto-configuration backs off entirely once a transport is defined, including its routes
+    @Bean
+    public RouterFunction<?> toolRoutingTransportRoutes(ToolRoutingSseTransportProvider toolRoutingTransport) {
+        return toolRoutingTransport.getRouterFunction();
+    }
+}
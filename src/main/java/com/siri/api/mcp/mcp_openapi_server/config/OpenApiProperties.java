@@ -3,7 +3,9 @@ package com.siri.api.mcp.mcp_openapi_server.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
@@ -12,6 +14,14 @@ import java.util.List;
 public class OpenApiProperties {
 
     private List<Document> documents;
+    private Tools tools = new Tools();
+    private Snapshot snapshot = new Snapshot();
+    private SpecCache specCache = new SpecCache();
+    private Loading loading = new Loading();
+    private Watch watch = new Watch();
+    private Refresh refresh = new Refresh();
+    private Uploads uploads = new Uploads();
+    private Journal journal = new Journal();
 
     public List<Document> getDocuments() {
         return documents;
@@ -21,11 +31,81 @@ public class OpenApiProperties {
         this.documents = documents;
     }
 
+    public Tools getTools() {
+        return tools;
+    }
+
+    public void setTools(Tools tools) {
+        this.tools = tools;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public SpecCache getSpecCache() {
+        return specCache;
+    }
+
+    public void setSpecCache(SpecCache specCache) {
+        this.specCache = specCache;
+    }
+
+    public Loading getLoading() {
+        return loading;
+    }
+
+    public void setLoading(Loading loading) {
+        this.loading = loading;
+    }
+
+    public Watch getWatch() {
+        return watch;
+    }
+
+    public void setWatch(Watch watch) {
+        this.watch = watch;
+    }
+
+    public Refresh getRefresh() {
+        return refresh;
+    }
+
+    public void setRefresh(Refresh refresh) {
+        this.refresh = refresh;
+    }
+
+    public Uploads getUploads() {
+        return uploads;
+    }
+
+    public void setUploads(Uploads uploads) {
+        this.uploads = uploads;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
     @Data
     public static class Document {
         private String name;
         private String location;
         private String overrideUrl;
+        // Only operations matching these rules become tools; no rules keeps every operation
+        private OperationRules include;
+        // Operations matching any of these rules are skipped, even when included
+        private OperationRules exclude;
+        // How often the document is read again and its changes applied, none to never refresh it
+        private Duration refreshInterval;
 
         public String getName() {
             return name;
@@ -50,5 +130,319 @@ public class OpenApiProperties {
         public void setOverrideUrl(String overrideUrl) {
             this.overrideUrl = overrideUrl;
         }
+
+        public OperationRules getInclude() {
+            return include;
+        }
+
+        public void setInclude(OperationRules include) {
+            this.include = include;
+        }
+
+        public OperationRules getExclude() {
+            return exclude;
+        }
+
+        public void setExclude(OperationRules exclude) {
+            this.exclude = exclude;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    /**
+     * Criteria selecting operations of a document. A criterion matches when any of its values does;
+     * empty criteria are ignored.
+     */
+    @Data
+    public static class OperationRules {
+        // Operation tags, compared exactly
+        private List<String> tags = List.of();
+        // Ant-style path globs such as /pets/** or /store/*
+        private List<String> paths = List.of();
+        // HTTP methods, case-insensitive
+        private List<String> methods = List.of();
+        // Regular expressions that must match the whole operation ID
+        private List<String> operationIds = List.of();
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public List<String> getOperationIds() {
+            return operationIds;
+        }
+
+        public void setOperationIds(List<String> operationIds) {
+            this.operationIds = operationIds;
+        }
+    }
+
+    @Data
+    public static class Tools {
+        // Number of tools per pre-serialized tools/list page chunk, 0 to keep only the full list
+        private int listPageSize = 0;
+        // Threads used to compile tool schemas, 0 for one per available processor
+        private int compileParallelism = 0;
+        // How referenced component schemas appear in tool input schemas
+        private SchemaMode schemaMode = SchemaMode.INLINE;
+        // Serialized size limit of each tool input schema in bytes, 0 for no limit
+        private int maxSchemaBytes = 0;
+        // Register tools by name and description only and compile each on first listing or call
+        private boolean lazy = false;
+        // List only the search_operations and invoke_operation meta-tools instead of every operation
+        private boolean discovery = false;
+
+        public int getListPageSize() {
+            return listPageSize;
+        }
+
+        public void setListPageSize(int listPageSize) {
+            this.listPageSize = listPageSize;
+        }
+
+        public int getCompileParallelism() {
+            return compileParallelism;
+        }
+
+        public void setCompileParallelism(int compileParallelism) {
+            this.compileParallelism = compileParallelism;
+        }
+
+        public SchemaMode getSchemaMode() {
+            return schemaMode;
+        }
+
+        public void setSchemaMode(SchemaMode schemaMode) {
+            this.schemaMode = schemaMode;
+        }
+
+        public int getMaxSchemaBytes() {
+            return maxSchemaBytes;
+        }
+
+        public void setMaxSchemaBytes(int maxSchemaBytes) {
+            this.maxSchemaBytes = maxSchemaBytes;
+        }
+
+        public boolean isLazy() {
+            return lazy;
+        }
+
+        public void setLazy(boolean lazy) {
+            this.lazy = lazy;
+        }
+
+        public boolean isDiscovery() {
+            return discovery;
+        }
+
+        public void setDiscovery(boolean discovery) {
+            this.discovery = discovery;
+        }
+    }
+
+    @Data
+    public static class Snapshot {
+        // File of the registry snapshot restored at startup and rewritten after ingestion, none to disable it
+        private String path;
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+    }
+
+    @Data
+    public static class SpecCache {
+        // Directory caching remote documents for conditional requests and offline starts, none to disable it
+        private String directory;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+    }
+
+    @Data
+    public static class Loading {
+        public static final int DEFAULT_PARALLELISM = 4;
+        public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(60);
+
+        // Documents read and parsed at the same time during startup
+        private int parallelism = DEFAULT_PARALLELISM;
+        // Time limit of each document from when it starts loading, 0 for none
+        private Duration timeout = DEFAULT_TIMEOUT;
+        // Start without waiting for documents and publish the tools of each one as soon as it is loaded
+        private boolean background = false;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public boolean isBackground() {
+            return background;
+        }
+
+        public void setBackground(boolean background) {
+            this.background = background;
+        }
+    }
+
+    @Data
+    public static class Watch {
+        public static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(500);
+
+        // Reload documents stored in local files when the files change
+        private boolean enabled = false;
+        // Time a changed file must stay unchanged before it is reloaded
+        private Duration debounce = DEFAULT_DEBOUNCE;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getDebounce() {
+            return debounce;
+        }
+
+        public void setDebounce(Duration debounce) {
+            this.debounce = debounce;
+        }
+    }
+
+    @Data
+    public static class Refresh {
+        public static final int DEFAULT_PARALLELISM = 2;
+        public static final double DEFAULT_JITTER = 0.1;
+
+        // Documents refreshed at the same time
+        private int parallelism = DEFAULT_PARALLELISM;
+        // Largest random change of each refresh delay, as a fraction of the document's interval
+        private double jitter = DEFAULT_JITTER;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public double getJitter() {
+            return jitter;
+        }
+
+        public void setJitter(double jitter) {
+            this.jitter = jitter;
+        }
+    }
+
+    @Data
+    public static class Uploads {
+        public static final String DEFAULT_DIRECTORY = "uploads";
+        public static final DataSize DEFAULT_MAX_SIZE = DataSize.ofMegabytes(10);
+
+        // Where uploaded documents are stored, named by the hash of their content
+        private String directory = DEFAULT_DIRECTORY;
+        // Largest document accepted by an upload
+        private DataSize maxSize = DEFAULT_MAX_SIZE;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    @Data
+    public static class Journal {
+        public static final int DEFAULT_COMPACTION_THRESHOLD = 100;
+
+        // File recording the documents added and removed at runtime, replayed at startup; none to disable it
+        private String path;
+        // Entries superseded by later ones that trigger rewriting the journal with only the live documents
+        private int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public int getCompactionThreshold() {
+            return compactionThreshold;
+        }
+
+        public void setCompactionThreshold(int compactionThreshold) {
+            this.compactionThreshold = compactionThreshold;
+        }
+    }
+
+    public enum SchemaMode {
+        // Expand every reference in place
+        INLINE,
+        // Emit each referenced component schema once under $defs and point to it with local references
+        DEFS
     }
 }
@@ -0,0 +1,202 @@
+package com.siri.api.mcp.mcp_openapi_server.config;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Shrinks a tool input schema until its serialized form fits a byte budget.
+ * <p>
+ * Descriptions are shortened first, in steps, and dropped as a last resort. If that is not enough, nesting
+ * is cut at decreasing depths: a schema below the cut keeps only its declared type, and one without a
+ * type, such as a reference or a composition, accepts any value. Definitions under {@code $defs}
+ * that are no longer referenced are removed. The top-level properties are always kept.
+ */
+class SchemaBudget {
+
+    static final String DEFS = "$defs";
+    static final String DEFS_PREFIX = "#/" + DEFS + "/";
+
+    private static final int[] DESCRIPTION_LIMITS = {256, 128, 64, 32, 0};
+
+    private final int maxBytes;
+    private final ToIntFunction<Map<String, Object>> size;
+
+    /**
+     * @param maxBytes The budget per schema
+     * @param size Computes the serialized size of a schema in bytes
+     */
+    SchemaBudget(int maxBytes, ToIntFunction<Map<String, Object>> size) {
+        this.maxBytes = maxBytes;
+        this.size = size;
+    }
+
+    /**
+     * @return The schema itself if it fits, otherwise the largest truncation that fits, or the most
+     *         truncated form if none does
+     */
+    Map<String, Object> fit(Map<String, Object> schema) {
+        if (size.applyAsInt(schema) <= maxBytes) {
+            return schema;
+        }
+
+        Map<String, Object> candidate = schema;
+        for (int limit : DESCRIPTION_LIMITS) {
+            candidate = asMap(truncateDescriptions(schema, limit));
+            if (size.applyAsInt(candidate) <= maxBytes) {
+                return candidate;
+            }
+        }
+
+        Map<String, Object> withoutDescriptions = candidate;
+        for (int depth = depth(withoutDescriptions) - 1; depth >= 1; depth--) {
+            candidate = pruneDefinitions(asMap(truncateDepth(withoutDescriptions, depth, 0)));
+            if (size.applyAsInt(candidate) <= maxBytes) {
+                return candidate;
+            }
+        }
+        return candidate;
+    }
+
+    private static Object truncateDescriptions(Object node, int limit) {
+        if (node instanceof Map<?, ?> map) {
+            Map<String, Object> copy = new HashMap<>(map.size());
+            map.forEach((key, value) -> {
+                if ("description".equals(key) && value instanceof String description) {
+                    if (limit > 0) {
+                        copy.put("description", description.length() > limit ?
+                            description.substring(0, limit - 1) + "…" : description);
+                    }
+                } else {
+                    copy.put(String.valueOf(key), truncateDescriptions(value, limit));
+                }
+            });
+            return copy;
+        }
+        if (node instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(element -> copy.add(truncateDescriptions(element, limit)));
+            return copy;
+        }
+        return node;
+    }
+
+    /**
+     * Cut nested schemas below a depth. The root is at depth 0; its properties and definitions at depth 1.
+     */
+    private static Object truncateDepth(Map<?, ?> schema, int maxDepth, int depth) {
+        if (depth >= maxDepth && depth > 0) {
+            Object type = schema.get("type");
+            return type != null ? Map.of("type", type) : Map.of();
+        }
+        Map<String, Object> copy = new HashMap<>(schema.size());
+        schema.forEach((key, value) -> {
+            if (("properties".equals(key) || DEFS.equals(key)) && value instanceof Map<?, ?> children) {
+                Map<String, Object> truncated = new HashMap<>(children.size());
+                children.forEach((name, child) -> truncated.put(String.valueOf(name),
+                    child instanceof Map<?, ?> childSchema ? truncateDepth(childSchema, maxDepth, depth + 1) : child));
+                copy.put(String.valueOf(key), truncated);
+            } else if (("items".equals(key) || "additionalProperties".equals(key)) && value instanceof Map<?, ?> child) {
+                copy.put(String.valueOf(key), truncateDepth(child, maxDepth, depth + 1));
+            } else {
+                copy.put(String.valueOf(key), value);
+            }
+        });
+        return copy;
+    }
+
+    private static int depth(Map<String, Object> schema) {
+        int maxDepth = 0;
+        Deque<Object[]> pending = new ArrayDeque<>();
+        pending.push(new Object[]{schema, 0});
+        while (!pending.isEmpty()) {
+            Object[] entry = pending.pop();
+            Map<?, ?> node = (Map<?, ?>) entry[0];
+            int depth = (Integer) entry[1];
+            maxDepth = Math.max(maxDepth, depth);
+            node.forEach((key, value) -> {
+                if (("properties".equals(key) || DEFS.equals(key)) && value instanceof Map<?, ?> children) {
+                    children.values().forEach(child -> {
+                        if (child instanceof Map<?, ?>) {
+                            pending.push(new Object[]{child, depth + 1});
+                        }
+                    });
+                } else if (("items".equals(key) || "additionalProperties".equals(key)) && value instanceof Map<?, ?>) {
+                    pending.push(new Object[]{value, depth + 1});
+                }
+            });
+        }
+        return maxDepth;
+    }
+
+    /**
+     * Remove definitions that are no longer reachable from the schema outside {@code $defs}
+     */
+    private static Map<String, Object> pruneDefinitions(Map<String, Object> schema) {
+        if (!(schema.get(DEFS) instanceof Map<?, ?> definitions)) {
+            return schema;
+        }
+
+        Map<String, Object> root = new HashMap<>(schema);
+        root.remove(DEFS);
+        Set<String> reachable = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>(references(root));
+        while (!pending.isEmpty()) {
+            String name = pending.pop();
+            if (reachable.add(name) && definitions.get(name) != null) {
+                pending.addAll(references(definitions.get(name)));
+            }
+        }
+
+        Map<String, Object> kept = new HashMap<>();
+        definitions.forEach((name, definition) -> {
+            if (reachable.contains(String.valueOf(name))) {
+                kept.put(String.valueOf(name), definition);
+            }
+        });
+        if (!kept.isEmpty()) {
+            root.put(DEFS, kept);
+        }
+        return root;
+    }
+
+    private static List<String> references(Object root) {
+        List<String> names = new ArrayList<>();
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Object node = pending.pop();
+            if (node instanceof Map<?, ?> map) {
+                if (map.get("$ref") instanceof String ref && ref.startsWith(DEFS_PREFIX)) {
+                    names.add(definitionName(ref));
+                }
+                map.values().forEach(pending::push);
+            } else if (node instanceof List<?> list) {
+                list.forEach(pending::push);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @return The local reference to a definition, escaped as a JSON pointer token
+     */
+    static String definitionRef(String name) {
+        return DEFS_PREFIX + name.replace("~", "~0").replace("/", "~1");
+    }
+
+    static String definitionName(String ref) {
+        return ref.substring(DEFS_PREFIX.length()).replace("~1", "/").replace("~0", "~");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object value) {
+        return (Map<String, Object>) value;
+    }
+}
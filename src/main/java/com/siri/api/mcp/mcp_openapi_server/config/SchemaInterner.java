@@ -0,0 +1,156 @@
+package com.siri.api.mcp.mcp_openapi_server.config;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Canonicalizes compiled JSON schema fragments.
+ * <p>
+ * Fragments are frozen bottom-up into immutable maps and lists with a precomputed structural hash and
+ * looked up in a weak pool, so structurally equal fragments (pagination parameters, error envelopes,
+ * shared request bodies) are represented by a single shared instance across all tools. Entries disappear
+ * from the pool once no tool references them any more.
+ */
+class SchemaInterner {
+
+    private final Map<Object, WeakReference<Object>> pool = new WeakHashMap<>();
+
+    /**
+     * Return the canonical immutable instance of a schema fragment
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> intern(Map<String, Object> schema) {
+        return (Map<String, Object>) internValue(schema);
+    }
+
+    public int size() {
+        synchronized (pool) {
+            return pool.size();
+        }
+    }
+
+    private Object internValue(Object value) {
+        if (value instanceof FrozenMap || value instanceof FrozenList) {
+            return value;
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> entries = new LinkedHashMap<>(map.size());
+            map.forEach((key, child) -> entries.put(String.valueOf(key), internValue(child)));
+            return canonical(new FrozenMap(entries));
+        }
+        if (value instanceof List<?> list) {
+            List<Object> elements = new ArrayList<>(list.size());
+            list.forEach(element -> elements.add(internValue(element)));
+            return canonical(new FrozenList(elements));
+        }
+        return value;
+    }
+
+    private Object canonical(Object frozen) {
+        synchronized (pool) {
+            WeakReference<Object> existing = pool.get(frozen);
+            Object shared = existing != null ? existing.get() : null;
+            if (shared != null) {
+                return shared;
+            }
+            pool.put(frozen, new WeakReference<>(frozen));
+            return frozen;
+        }
+    }
+
+    /**
+     * Immutable map with a cached structural hash
+     */
+    static final class FrozenMap extends AbstractMap<String, Object> {
+        private final Map<String, Object> entries;
+        private final int hash;
+
+        private FrozenMap(Map<String, Object> entries) {
+            this.entries = Collections.unmodifiableMap(entries);
+            this.hash = entries.hashCode();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return entries.entrySet();
+        }
+
+        @Override
+        public Object get(Object key) {
+            return entries.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return entries.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (o instanceof FrozenMap other && other.hash != hash) {
+                return false;
+            }
+            return super.equals(o);
+        }
+    }
+
+    /**
+     * Immutable list with a cached structural hash
+     */
+    static final class FrozenList extends AbstractList<Object> {
+        private final List<Object> elements;
+        private final int hash;
+
+        private FrozenList(List<Object> elements) {
+            this.elements = Collections.unmodifiableList(elements);
+            this.hash = elements.hashCode();
+        }
+
+        @Override
+        public Object get(int index) {
+            return elements.get(index);
+        }
+
+        @Override
+        public int size() {
+            return elements.size();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (o instanceof FrozenList other && other.hash != hash) {
+                return false;
+            }
+            return super.equals(o);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.siri.api.mcp.mcp_openapi_server.config;
+
+import com.siri.api.mcp.mcp_openapi_server.service.ComponentIndex;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reference graph between the component schemas and parameters of one document.
+ * <p>
+ * Every component is a node, with an edge for each reference reached from it along the branches that
+ * schema conversion follows (object properties, array items and additional properties). Nodes are grouped
+ * into strongly connected components so the converter can tell which references may be part of a cycle.
+ */
+class SchemaReferenceGraph {
+
+    static final String SCHEMAS = "#/components/schemas/";
+    static final String PARAMETERS = "#/components/parameters/";
+
+    private final Map<String, Integer> nodes;
+    private final int[] component;
+    private final boolean[] cyclic;
+
+    private SchemaReferenceGraph(Map<String, Integer> nodes, int[] component, boolean[] cyclic) {
+        this.nodes = nodes;
+        this.component = component;
+        this.cyclic = cyclic;
+    }
+
+    /**
+     * Build the graph of a document's components
+     */
+    static SchemaReferenceGraph of(ComponentIndex index) {
+        Map<String, Integer> nodes = new HashMap<>();
+        List<Schema<?>> schemas = new ArrayList<>();
+        for (String name : index.schemaNames()) {
+            nodes.put(SCHEMAS + name, schemas.size());
+            schemas.add(index.schema(name));
+        }
+        for (String name : index.parameterNames()) {
+            Parameter parameter = index.parameter(name);
+            nodes.put(PARAMETERS + name, schemas.size());
+            schemas.add(parameter != null ? parameter.getSchema() : null);
+        }
+
+        int[][] edges = new int[schemas.size()][];
+        for (int node = 0; node < edges.length; node++) {
+            edges[node] = references(schemas.get(node), nodes);
+        }
+
+        int[] component = new int[edges.length];
+        boolean[] cyclic = stronglyConnectedComponents(edges, component);
+        return new SchemaReferenceGraph(nodes, component, cyclic);
+    }
+
+    /**
+     * @return The strongly connected component of a reference, or -1 if it does not name a component
+     */
+    int component(String ref) {
+        Integer node = nodes.get(ref);
+        return node != null ? component[node] : -1;
+    }
+
+    /**
+     * @return Whether the references of a strongly connected component form a cycle
+     */
+    boolean isCyclic(int component) {
+        return component >= 0 && cyclic[component];
+    }
+
+    /**
+     * Collect the distinct component references reachable from a schema without passing another reference
+     */
+    private static int[] references(Schema<?> root, Map<String, Integer> nodes) {
+        Set<Integer> targets = new LinkedHashSet<>();
+        Deque<Schema<?>> pending = new ArrayDeque<>();
+        if (root != null) {
+            pending.push(root);
+        }
+        while (!pending.isEmpty()) {
+            Schema<?> schema = pending.pop();
+            if (schema.get$ref() != null) {
+                Integer target = nodes.get(schema.get$ref());
+                if (target != null) {
+                    targets.add(target);
+                }
+                continue;
+            }
+            if ("object".equals(schema.getType()) && schema.getProperties() != null) {
+                for (Schema<?> property : schema.getProperties().values()) {
+                    if (property != null) {
+                        pending.push(property);
+                    }
+                }
+            }
+            if ("array".equals(schema.getType()) && schema.getItems() != null) {
+                pending.push(schema.getItems());
+            }
+            if (schema.getAdditionalProperties() instanceof Schema<?> additional) {
+                pending.push(additional);
+            }
+        }
+        return targets.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Iterative Tarjan's algorithm
+     * @param edges The adjacency list of each node
+     * @param component Receives the component number of each node
+     * @return Per component, whether it contains a cycle
+     */
+    private static boolean[] stronglyConnectedComponents(int[][] edges, int[] component) {
+        int size = edges.length;
+        int[] order = new int[size];
+        int[] low = new int[size];
+        int[] nextEdge = new int[size];
+        boolean[] onStack = new boolean[size];
+        Arrays.fill(order, -1);
+
+        int[] sccStack = new int[size];
+        int sccTop = 0;
+        int[] callStack = new int[size];
+        boolean[] cyclic = new boolean[size];
+        int counter = 0;
+        int components = 0;
+
+        for (int start = 0; start < size; start++) {
+            if (order[start] >= 0) {
+                continue;
+            }
+            int callTop = 0;
+            callStack[callTop++] = start;
+            order[start] = low[start] = counter++;
+            sccStack[sccTop++] = start;
+            onStack[start] = true;
+
+            while (callTop > 0) {
+                int node = callStack[callTop - 1];
+                if (nextEdge[node] < edges[node].length) {
+                    int target = edges[node][nextEdge[node]++];
+                    if (order[target] < 0) {
+                        order[target] = low[target] = counter++;
+                        sccStack[sccTop++] = target;
+                        onStack[target] = true;
+                        callStack[callTop++] = target;
+                    } else if (onStack[target]) {
+                        low[node] = Math.min(low[node], order[target]);
+                    }
+                    continue;
+                }
+
+                callTop--;
+                if (callTop > 0) {
+                    int parent = callStack[callTop - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+                if (low[node] == order[node]) {
+                    int members = 0;
+                    boolean selfReference = false;
+                    int member;
+                    do {
+                        member = sccStack[--sccTop];
+                        onStack[member] = false;
+                        component[member] = components;
+                        members++;
+                        for (int target : edges[member]) {
+                            selfReference |= target == member;
+                        }
+                    } while (member != node);
+                    cyclic[components++] = members > 1 || selfReference;
+                }
+            }
+        }
+        return Arrays.copyOf(cyclic, components);
+    }
+}
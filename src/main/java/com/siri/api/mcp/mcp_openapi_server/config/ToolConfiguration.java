@@ -2,9 +2,18 @@ package com.siri.api.mcp.mcp_openapi_server.config;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.dto.ValidationStats;
+import com.siri.api.mcp.mcp_openapi_server.mcp.LazyToolSpecification;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
+import com.siri.api.mcp.mcp_openapi_server.mcp.ToolBatch;
 import com.siri.api.mcp.mcp_openapi_server.service.ApiClient;
+import com.siri.api.mcp.mcp_openapi_server.service.ComponentIndex;
 import com.siri.api.mcp.mcp_openapi_server.service.OpenApiDefinitionService;
+import io.modelcontextprotocol.server.McpServerFeatures;
 import io.modelcontextprotocol.server.McpSyncServer;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.swagger.v3.oas.models.Operation;
 import io.swagger.v3.oas.models.media.Schema;
 import io.swagger.v3.oas.models.parameters.Parameter;
 import io.swagger.v3.oas.models.responses.ApiResponse;
@@ -13,21 +22,36 @@ import io.swagger.v3.oas.models.media.Content;
 import io.swagger.v3.oas.models.media.MediaType;
 import com.fasterxml.jackson.core.type.TypeReference;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ToolContext;
 import org.springframework.ai.mcp.McpToolUtils;
+import org.springframework.ai.model.ModelOptionsUtils;
 import org.springframework.ai.tool.definition.ToolDefinition;
 import org.springframework.ai.tool.execution.ToolCallResultConverter;
 import org.springframework.ai.tool.function.FunctionToolCallback;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.beans.factory.support.DefaultSingletonBeanRegistry;
 import org.springframework.context.annotation.Configuration;
 
 import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 
 @Slf4j
@@ -39,59 +63,291 @@ public class ToolConfiguration {
     private final ConfigurableBeanFactory beanFactory;
     private final ObjectMapper objectMapper;
     private final McpSyncServer mcpServer;
+    private final McpToolRegistry toolRegistry;
+    private final OpenApiProperties openApiProperties;
 
-    // Cache for resolved schema references to improve performance
-    private final Map<String, Schema<?>> schemaCache = new ConcurrentHashMap<>();
-    // Cache for converted schemas to avoid redundant conversion
-    private final Map<String, Map<String, Object>> convertedSchemaCache = new ConcurrentHashMap<>();
+    // Cache for converted schemas to avoid redundant conversion, per document and keyed by reference
+    private final Map<String, Map<String, Map<String, Object>>> convertedSchemaCache = new ConcurrentHashMap<>();
+    // Argument validators of the registered tools, by operation ID
+    private final Map<String, ArgumentValidator> argumentValidators = new ConcurrentHashMap<>();
     // Cache for response schemas to improve performance
     private final Map<String, Map<String, Object>> responseSchemaCache = new ConcurrentHashMap<>();
+    // Component schemas converted as $defs entries, per document and keyed by schema name
+    private final Map<String, Map<String, SchemaDefinition>> definitionCache = new ConcurrentHashMap<>();
+    // Reference graph of each document's components, used to detect reference cycles
+    private final Map<String, SchemaReferenceGraph> referenceGraphs = new ConcurrentHashMap<>();
+    // Shared immutable instances of structurally equal schema fragments
+    private final SchemaInterner schemaInterner = new SchemaInterner();
 
 
-    public ToolConfiguration(OpenApiDefinitionService openApiDefinitionService, ApiClient apiClient, ConfigurableBeanFactory beanFactory, ObjectMapper objectMapper, McpSyncServer server) {
+    public ToolConfiguration(OpenApiDefinitionService openApiDefinitionService, ApiClient apiClient, ConfigurableBeanFactory beanFactory, ObjectMapper objectMapper, McpSyncServer server, McpToolRegistry toolRegistry, OpenApiProperties openApiProperties) {
         this.openApiDefinitionService = openApiDefinitionService;
         this.apiClient = apiClient;
         this.beanFactory = beanFactory;
         this.objectMapper = objectMapper;
         this.mcpServer = server;
+        this.toolRegistry = toolRegistry;
+        this.openApiProperties = openApiProperties;
     }
 
     @PostConstruct
     public void registerOpenApiFunctions() {
-        openApiDefinitionService.getOperationCache().forEach((operationId, apiOperation) -> {
-            registerSingleOperation(operationId, apiOperation);
-        });
+        if (discoveryMode()) {
+            toolRegistry.registerAll(new DiscoveryTools(openApiDefinitionService, toolRegistry, objectMapper).specifications());
+            log.info("Discovery mode: listing only the {} and {} tools",
+                DiscoveryTools.SEARCH_OPERATIONS, DiscoveryTools.INVOKE_OPERATION);
+        }
+        if (openApiDefinitionService.isLoadingInBackground()) {
+            // Each document's tools are registered as soon as it is loaded, with its own tools/list change
+            openApiDefinitionService.whenLoaded(this::registerNewOperations);
+        } else {
+            registerOperations(openApiDefinitionService.getOperationCache());
+        }
+        openApiDefinitionService.whenAllLoaded(() -> openApiDefinitionService.writeSnapshot(this::compiledSchema));
+    }
+
+    /**
+     * Rewrite the registry snapshot on shutdown if tools were compiled since startup, so lazily compiled
+     * schemas are restored on the next start too
+     */
+    @PreDestroy
+    public void saveSnapshot() {
+        openApiDefinitionService.writeSnapshot(this::compiledSchema);
+    }
+
+    /**
+     * @return The serialized input schema of a compiled tool, or null if the tool is not compiled
+     */
+    private String compiledSchema(String operationId) {
+        if (!toolRegistry.isMaterialized(operationId)) {
+            return null;
+        }
+        return toolRegistry.find(operationId).map(specification -> {
+            McpSchema.JsonSchema inputSchema = specification.tool().inputSchema();
+            Map<String, Object> schema = new LinkedHashMap<>();
+            schema.put("type", inputSchema.type());
+            schema.put("properties", inputSchema.properties());
+            if (inputSchema.required() != null) {
+                schema.put("required", inputSchema.required());
+            }
+            if (inputSchema.defs() != null) {
+                schema.put(SchemaBudget.DEFS, inputSchema.defs());
+            }
+            return toJson(schema);
+        }).orElse(null);
     }
 
     public void registerNewOperations(OpenApiProperties.Document document) {
-        openApiDefinitionService.getOperationCache().entrySet().stream()
-            .filter(entry -> entry.getValue().document().getName().equals(document.getName()))
-            .forEach(entry -> {
+        registerOperations(openApiDefinitionService.getDocumentOperations(document.getName()));
+    }
+
+    public void registerSingleOperation(String operationId, OpenApiDefinitionService.ApiOperation apiOperation) {
+        registerOperations(Map.of(operationId, apiOperation));
+    }
+
+    /**
+     * Register operations as tools in stages: compile the input schemas and tool callbacks in parallel,
+     * then register all tools in operation ID order as one registry batch with a single tools/list change.
+     * Operations whose tool already exists, or that fail to compile, are skipped.
+     * In lazy and discovery modes only names and descriptions are registered, see {@link #stage}.
+     * @return The number of tools registered
+     */
+    public int registerOperations(Map<String, OpenApiDefinitionService.ApiOperation> operations) {
+        List<Map.Entry<String, OpenApiDefinitionService.ApiOperation>> pending = new ArrayList<>();
+        for (Map.Entry<String, OpenApiDefinitionService.ApiOperation> entry : operations.entrySet()) {
+            if (beanFactory.containsSingleton(entry.getKey() + "Tool") || toolRegistry.contains(entry.getKey())) {
+                log.warn("Tool with operation ID '{}' already exists, skipping registration", entry.getKey());
+            } else {
+                pending.add(entry);
+            }
+        }
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        ToolBatch batch = new ToolBatch();
+        List<CompiledTool> compiled = stage(batch, pending);
+        commit(batch, List.of(), compiled);
+        int registered = lazyTools() || discoveryMode() ? pending.size() : compiled.size();
+        log.info("Registered {} tools in {} ms", registered, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return registered;
+    }
+
+    /**
+     * Bring the tools of a reloaded document in line with its operations as one registry batch: the tools of
+     * removed operations are withdrawn, those of changed operations replaced in place and those of added
+     * operations registered, with one tools/list change. Tools of unchanged operations keep their compiled
+     * schema, validator and bean.
+     */
+    public void applyChanges(OpenApiProperties.Document document, OpenApiDefinitionService.OperationChanges changes) {
+        if (changes.componentsChanged()) {
+            evictDocument(document.getName());
+        }
+        ToolBatch batch = new ToolBatch();
+        List<String> withdrawn = new ArrayList<>(changes.removed());
+        withdrawn.addAll(changes.changed());
+        withdrawn.forEach(batch::remove);
+
+        Map<String, OpenApiDefinitionService.ApiOperation> replacements = new HashMap<>();
+        for (List<String> operationIds : List.of(changes.added(), changes.changed())) {
+            operationIds.forEach(operationId -> openApiDefinitionService.getOperation(operationId)
+                .ifPresent(apiOperation -> replacements.put(operationId, apiOperation)));
+        }
+        List<CompiledTool> compiled = stage(batch, new ArrayList<>(replacements.entrySet()));
+        commit(batch, withdrawn, compiled);
+        openApiDefinitionService.writeSnapshot(this::compiledSchema);
+    }
+
+    /**
+     * Withdraw the tools of operations as one registry batch with a single tools/list change, along with
+     * their argument validators, cached response schemas and beans
+     */
+    public void removeOperations(Collection<String> operationIds) {
+        ToolBatch batch = new ToolBatch();
+        operationIds.forEach(batch::remove);
+        commit(batch, operationIds, List.of());
+    }
+
+    /**
+     * Add the tools of operations to a batch in operation ID order. Operations are compiled in parallel, and
+     * those that fail to compile are left out. In lazy and discovery modes only names and descriptions are
+     * added, deferring the input schema, validator, callback and bean of each operation to its first
+     * listing or call; in discovery mode the tools are not listed.
+     * @return The compiled tools, whose beans and validators to register once the batch is applied
+     */
+    private List<CompiledTool> stage(ToolBatch batch,
+                                     List<Map.Entry<String, OpenApiDefinitionService.ApiOperation>> operations) {
+        if (operations.isEmpty()) {
+            return List.of();
+        }
+        operations.sort(Map.Entry.comparingByKey());
+        if (lazyTools() || discoveryMode()) {
+            boolean listed = !discoveryMode();
+            for (Map.Entry<String, OpenApiDefinitionService.ApiOperation> entry : operations) {
                 String operationId = entry.getKey();
                 OpenApiDefinitionService.ApiOperation apiOperation = entry.getValue();
-                registerSingleOperation(operationId, apiOperation);
-                log.info("Dynamically registered tool: {}", operationId);
-            });
+                batch.registerLazy(new LazyToolSpecification(operationId,
+                    description(operationId, apiOperation.operation()), () -> materialize(operationId, apiOperation)), listed);
+            }
+            return List.of();
+        }
+
+        long start = System.nanoTime();
+        int parallelism = compileParallelism(operations.size());
+        List<CompiledTool> compiled = compileAll(operations, parallelism);
+        compiled.forEach(tool -> batch.register(tool.specification()));
+        log.debug("Compiled {} tools in {} ms on {} threads", compiled.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), parallelism);
+        return compiled;
     }
 
-    public void registerSingleOperation(String operationId, OpenApiDefinitionService.ApiOperation apiOperation) {
-        String beanName = operationId + "Tool";
-        
-        if (beanFactory.containsSingleton(beanName)) {
-            log.warn("Tool with operation ID '{}' already exists, skipping registration", operationId);
-            return;
+    /**
+     * Apply a batch, then drop what belonged to the withdrawn tools, register the beans and validators of
+     * the compiled ones and notify clients once if tools/list changed
+     */
+    private void commit(ToolBatch batch, Collection<String> withdrawn, List<CompiledTool> compiled) {
+        boolean listChanged = toolRegistry.apply(batch);
+        for (String operationId : withdrawn) {
+            argumentValidators.remove(operationId);
+            responseSchemaCache.remove(operationId);
+            String beanName = operationId + "Tool";
+            if (beanFactory.containsSingleton(beanName) && beanFactory instanceof DefaultSingletonBeanRegistry registry) {
+                registry.destroySingleton(beanName);
+            }
         }
-        
-        // Create a function that delegates to ApiClient
-        BiFunction<Map<String, Object>, ToolContext, Object> function = (jsonInput, context) ->
-            apiClient.invoke(operationId, jsonInput);
+        for (CompiledTool tool : compiled) {
+            // Register as singleton bean to be discovered by Spring AI
+            beanFactory.registerSingleton(tool.beanName(), tool.callback());
+            argumentValidators.put(tool.specification().tool().name(), tool.validator());
+            log.debug("Successfully registered tool: {}", tool.specification().tool().name());
+        }
+        if (listChanged) {
+            mcpServer.notifyToolsListChanged();
+        }
+    }
 
-        // Create the tool metadata and definition
-        String description = apiOperation.operation().getSummary() != null ?
-                apiOperation.operation().getSummary() :
-                "Operation: " + operationId;
+    /**
+     * Compile a lazily registered tool. An operation that fails to compile stays listed with an empty
+     * input schema and reports the failure when called.
+     */
+    private McpServerFeatures.SyncToolSpecification materialize(String operationId,
+                                                                OpenApiDefinitionService.ApiOperation apiOperation) {
+        CompiledTool tool;
+        try {
+            tool = compileOperation(operationId, apiOperation);
+        } catch (Exception e) {
+            log.error("Failed to compile tool {}: {}", operationId, e.getMessage(), e);
+            String message = "Tool " + operationId + " is unavailable: " + e.getMessage();
+            McpSchema.Tool unavailable = new McpSchema.Tool(operationId,
+                description(operationId, apiOperation.operation()),
+                new McpSchema.JsonSchema("object", Map.of(), null, null, null, null));
+            return new McpServerFeatures.SyncToolSpecification(unavailable, (exchange, arguments) ->
+                new McpSchema.CallToolResult(List.of(new McpSchema.TextContent(message)), true));
+        }
+
+        if (!beanFactory.containsSingleton(tool.beanName())) {
+            beanFactory.registerSingleton(tool.beanName(), tool.callback());
+        }
+        argumentValidators.put(operationId, tool.validator());
+        return tool.specification();
+    }
+
+    /**
+     * Compiled form of an operation, ready to be registered
+     */
+    private record CompiledTool(String beanName,
+                                ArgumentValidator validator,
+                                FunctionToolCallback<Map<String, Object>, Object> callback,
+                                McpServerFeatures.SyncToolSpecification specification) {
+    }
 
-        String schema = convertParametersToJsonSchema(apiOperation.operation());
+    private List<CompiledTool> compileAll(List<Map.Entry<String, OpenApiDefinitionService.ApiOperation>> operations,
+                                          int parallelism) {
+        if (parallelism <= 1) {
+            return operations.stream().map(this::compileOperation).filter(Objects::nonNull).toList();
+        }
+
+        // Results keep the operation order, so registration is deterministic regardless of scheduling
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> operations.parallelStream()
+                    .map(this::compileOperation)
+                    .filter(Objects::nonNull)
+                    .toList())
+                .join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private CompiledTool compileOperation(Map.Entry<String, OpenApiDefinitionService.ApiOperation> entry) {
+        String operationId = entry.getKey();
+        OpenApiDefinitionService.ApiOperation apiOperation = entry.getValue();
+        try {
+            return compileOperation(operationId, apiOperation);
+        } catch (Exception e) {
+            log.error("Failed to compile tool {}: {}", operationId, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private CompiledTool compileOperation(String operationId, OpenApiDefinitionService.ApiOperation apiOperation) {
+        Map<String, Object> inputSchema = snapshotSchema(operationId);
+        if (inputSchema == null) {
+            inputSchema = compileInputSchema(apiOperation.document().getName(), apiOperation.operation());
+        }
+        String schema = toJson(inputSchema);
+        ArgumentValidator validator = ArgumentValidator.compile(inputSchema);
+
+        // Create a function that rejects invalid arguments before delegating to ApiClient
+        BiFunction<Map<String, Object>, ToolContext, Object> function = (jsonInput, context) -> {
+            validator.check(operationId, jsonInput);
+            return apiClient.invoke(operationId, jsonInput);
+        };
+
+        // Create the tool metadata and definition
+        String description = description(operationId, apiOperation.operation());
 
         // Create tool definition
         ToolDefinition definition = ToolDefinition.builder()
@@ -110,10 +366,66 @@ public class ToolConfiguration {
                 new SimpleToolCallResultConverter()
             );
 
-        // Register as singleton bean to be discovered by Spring AI
-        beanFactory.registerSingleton(beanName, toolCallback);
-        mcpServer.addTool(McpToolUtils.toSyncToolSpecification(toolCallback));
-        log.info("Successfully registered tool: {}", operationId);
+        // The MCP tool shares the interned schema nodes instead of re-parsing the serialized schema
+        McpSchema.Tool tool = new McpSchema.Tool(operationId, description, toJsonSchema(inputSchema));
+
+        return new CompiledTool(operationId + "Tool", validator, toolCallback,
+            new McpServerFeatures.SyncToolSpecification(tool, callHandler(toolCallback)));
+    }
+
+    /**
+     * The input schema stored in the registry snapshot for an operation restored from it, or null
+     */
+    private Map<String, Object> snapshotSchema(String operationId) {
+        String json = openApiDefinitionService.snapshotSchema(operationId);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return schemaInterner.intern(objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {}));
+        } catch (JsonProcessingException e) {
+            log.warn("Recompiling input schema of {}, the snapshot copy is invalid: {}", operationId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String description(String operationId, Operation operation) {
+        return operation.getSummary() != null ? operation.getSummary() : "Operation: " + operationId;
+    }
+
+    private int compileParallelism(int operationCount) {
+        OpenApiProperties.Tools settings = toolSettings();
+        int configured = settings != null ? settings.getCompileParallelism() : 0;
+        int parallelism = configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+        return Math.min(parallelism, operationCount);
+    }
+
+    /**
+     * Create an MCP call handler that delegates to the tool callback, equivalent to
+     * {@link McpToolUtils#toSyncToolSpecification} for text results
+     */
+    private BiFunction<McpSyncServerExchange, Map<String, Object>, McpSchema.CallToolResult> callHandler(
+            FunctionToolCallback<Map<String, Object>, Object> toolCallback) {
+        return (exchange, arguments) -> {
+            try {
+                String result = toolCallback.call(ModelOptionsUtils.toJsonString(arguments),
+                    new ToolContext(Map.of(McpToolUtils.TOOL_CONTEXT_MCP_EXCHANGE_KEY, exchange)));
+                return new McpSchema.CallToolResult(List.of(new McpSchema.TextContent(result)), false);
+            } catch (Exception e) {
+                return new McpSchema.CallToolResult(List.of(new McpSchema.TextContent(e.getMessage())), true);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private McpSchema.JsonSchema toJsonSchema(Map<String, Object> inputSchema) {
+        return new McpSchema.JsonSchema(
+            (String) inputSchema.get("type"),
+            (Map<String, Object>) inputSchema.get("properties"),
+            (List<String>) inputSchema.get("required"),
+            null,
+            (Map<String, Object>) inputSchema.get(SchemaBudget.DEFS),
+            null);
     }
 
     /**
@@ -183,7 +495,7 @@ public class ToolConfiguration {
                 }
 
                 if (mediaType != null && mediaType.getSchema() != null) {
-                    Map<String, Object> schema = convertSchemaToMap(mediaType.getSchema());
+                    Map<String, Object> schema = convertSchemaToMap(apiOperation.document().getName(), mediaType.getSchema());
                     responseSchemaCache.put(operationId, schema);
                     return schema;
                 }
@@ -196,154 +508,410 @@ public class ToolConfiguration {
         }
     }
 
+    /**
+     * Argument validation counters of the registered tools, ordered by operation ID
+     */
+    public List<ValidationStats> validationStats() {
+        return argumentValidators.entrySet().stream()
+            .map(entry -> new ValidationStats(entry.getKey(), entry.getValue().validated(), entry.getValue().rejected()))
+            .sorted(Comparator.comparing(ValidationStats::getOperationId))
+            .toList();
+    }
+
+    /**
+     * Drop the cached schema conversions of a document, e.g. when it is removed
+     */
+    public void evictDocument(String documentName) {
+        convertedSchemaCache.remove(documentName);
+        referenceGraphs.remove(documentName);
+        definitionCache.remove(documentName);
+    }
+
     /**
      * Convert a Swagger Schema object to a Map representation that can be serialized to JSON Schema
      */
-    private Map<String, Object> convertSchemaToMap(Schema<?> schema) {
-        return convertSchemaToMap(schema, new HashSet<>());
+    private Map<String, Object> convertSchemaToMap(String documentName, Schema<?> schema) {
+        return convertSchemaToMap(documentName, schema, null);
     }
 
     /**
-     * Convert a Swagger Schema object to a Map representation with circular reference detection
-     * @param schema The schema to convert
-     * @param processedRefs Set of references already processed in this branch to detect circular references
-     * @return A map representation of the schema
+     * @param definitions When not null, component schema references are converted to local {@code $defs}
+     *                    references instead of being expanded, and the referenced schema names are added here
      */
-    private Map<String, Object> convertSchemaToMap(Schema<?> schema, Set<String> processedRefs) {
-        // Handle null schema case
-        if (schema == null) {
-            Map<String, Object> result = new HashMap<>();
-            result.put("type", "object");
-            result.put("description", "No schema available");
-            return result;
+    private Map<String, Object> convertSchemaToMap(String documentName, Schema<?> schema, Set<String> definitions) {
+        return new SchemaExpansion(documentName, definitions).expand(schema);
+    }
+
+    /**
+     * A component schema converted for {@code $defs}, with the names of the definitions it references
+     */
+    private record SchemaDefinition(Map<String, Object> schema, Set<String> references) {
+    }
+
+    /**
+     * Convert the named component schemas, and all definitions they reference, into {@code $defs} entries
+     */
+    private Map<String, Object> collectDefinitions(String documentName, Set<String> names) {
+        Map<String, SchemaDefinition> documentDefinitions =
+            definitionCache.computeIfAbsent(documentName, name -> new ConcurrentHashMap<>());
+        Map<String, Object> definitions = new TreeMap<>();
+        Deque<String> pending = new ArrayDeque<>(names);
+        while (!pending.isEmpty()) {
+            String name = pending.pop();
+            if (definitions.containsKey(name)) {
+                continue;
+            }
+            SchemaDefinition definition = documentDefinitions.get(name);
+            if (definition == null) {
+                Set<String> references = new TreeSet<>();
+                Map<String, Object> schema = convertSchemaToMap(documentName, resolveComponentSchema(documentName, name), references);
+                definition = new SchemaDefinition(schema, Set.copyOf(references));
+                documentDefinitions.put(name, definition);
+            }
+            definitions.put(name, definition.schema());
+            pending.addAll(definition.references());
+        }
+        return definitions;
+    }
+
+    /**
+     * Shrink a compiled input schema to the configured byte budget, if any
+     */
+    private Map<String, Object> applySchemaBudget(String operationId, Map<String, Object> schema) {
+        OpenApiProperties.Tools settings = toolSettings();
+        int maxBytes = settings != null ? settings.getMaxSchemaBytes() : 0;
+        if (maxBytes <= 0) {
+            return schema;
         }
+        Map<String, Object> fitted = new SchemaBudget(maxBytes, this::serializedSize).fit(schema);
+        if (fitted == schema) {
+            return schema;
+        }
+        int size = serializedSize(fitted);
+        if (size > maxBytes) {
+            log.warn("Input schema of {} is {} bytes after truncation, above the budget of {} bytes", operationId, size, maxBytes);
+        } else {
+            log.debug("Truncated input schema of {} to {} bytes", operationId, size);
+        }
+        return schemaInterner.intern(fitted);
+    }
+
+    private int serializedSize(Map<String, Object> schema) {
+        try {
+            return objectMapper.writeValueAsBytes(schema).length;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error converting parameters to JSON schema", e);
+        }
+    }
+
+    private OpenApiProperties.Tools toolSettings() {
+        return openApiProperties != null ? openApiProperties.getTools() : null;
+    }
+
+    private boolean lazyTools() {
+        OpenApiProperties.Tools settings = toolSettings();
+        return settings != null && settings.isLazy();
+    }
+
+    private boolean discoveryMode() {
+        OpenApiProperties.Tools settings = toolSettings();
+        return settings != null && settings.isDiscovery();
+    }
+
+    private boolean useDefinitions() {
+        OpenApiProperties.Tools settings = toolSettings();
+        return settings != null && settings.getSchemaMode() == OpenApiProperties.SchemaMode.DEFS;
+    }
+
+    private SchemaReferenceGraph referenceGraph(String documentName) {
+        return referenceGraphs.computeIfAbsent(documentName, name -> SchemaReferenceGraph.of(componentIndex(name)));
+    }
+
+    /**
+     * Expansion of one schema tree with an explicit work stack instead of recursion.
+     * <p>
+     * A reference that is already being expanded on the current path is replaced by a circular reference
+     * marker. The expansion of a reference is cached per document unless another member of its strongly
+     * connected component is on the path: only then can the result depend on how the reference was reached,
+     * so every cached expansion is the same no matter which operation or thread produced it first.
+     * <p>
+     * Within the expansion of the reference a path entered a cyclic component through, each other member
+     * is expanded once and reused wherever it appears again, instead of once per path to it. The result
+     * only depends on the entry reference, and a recursive schema costs time linear in its references
+     * rather than exponential.
+     */
+    private final class SchemaExpansion {
+
+        private final String documentName;
+        private final Set<String> definitions;
+        private final Map<String, Map<String, Object>> documentCache;
+        private final Deque<Frame> stack = new ArrayDeque<>();
+        private final Set<String> refsOnPath = new HashSet<>();
+        private final Map<Integer, Integer> cyclesOnPath = new HashMap<>();
+        // Expansions of the members of each cyclic component on the path, by reference
+        private final Map<Integer, Map<String, Map<String, Object>>> componentCaches = new HashMap<>();
+        private SchemaReferenceGraph graph;
+
+        SchemaExpansion(String documentName, Set<String> definitions) {
+            this.documentName = documentName;
+            this.definitions = definitions;
+            this.documentCache = convertedSchemaCache.computeIfAbsent(documentName, name -> new ConcurrentHashMap<>());
+        }
+
+        Map<String, Object> expand(Schema<?> root) {
+            Map<String, Object> done = visit(root);
+            while (!stack.isEmpty()) {
+                Frame frame = stack.peek();
+                if (done != null) {
+                    frame.accept(done);
+                    done = null;
+                }
+                Frame.Child child = frame.nextChild();
+                if (child != null) {
+                    frame.pending = child;
+                    done = visit(child.schema());
+                } else {
+                    stack.pop();
+                    done = close(frame);
+                }
+            }
+            return done;
+        }
+
+        /**
+         * Convert a schema directly if it needs no expansion, otherwise push a frame for it
+         * @return The converted schema, or null if a frame was pushed
+         */
+        private Map<String, Object> visit(Schema<?> schema) {
+            // Handle null schema case
+            if (schema == null) {
+                Map<String, Object> result = new HashMap<>();
+                result.put("type", "object");
+                result.put("description", "No schema available");
+                return schemaInterner.intern(result);
+            }
 
-        // Handle $ref (referenced schemas)
-        if (schema.get$ref() != null) {
             String ref = schema.get$ref();
+            if (ref == null) {
+                stack.push(Frame.forSchema(schema));
+                return null;
+            }
+
+            // Component schemas become local references to a definition emitted once per tool
+            if (definitions != null && ref.startsWith(SchemaReferenceGraph.SCHEMAS)) {
+                String name = ref.substring(SchemaReferenceGraph.SCHEMAS.length());
+                if (resolveComponentSchema(documentName, name) != null) {
+                    definitions.add(name);
+                    return schemaInterner.intern(Map.of("$ref", SchemaBudget.definitionRef(name)));
+                }
+            }
 
             // Check for circular references
-            if (processedRefs.contains(ref)) {
-                log.warn("Detected circular reference: {}", ref);
+            if (refsOnPath.contains(ref)) {
+                log.debug("Detected circular reference: {}", ref);
                 Map<String, Object> result = new HashMap<>();
                 result.put("type", "object");
                 result.put("description", "Circular reference: " + ref);
-                return result;
+                return schemaInterner.intern(result);
             }
 
-            // Check cache first for already converted schemas
-            if (convertedSchemaCache.containsKey(ref)) {
+            int component = graph().component(ref);
+            boolean cacheable = !graph().isCyclic(component) || cyclesOnPath.getOrDefault(component, 0) == 0;
+            Map<String, Object> cached = cacheable ? documentCache.get(ref) : componentCaches.get(component).get(ref);
+            if (cached != null) {
                 log.debug("Using cached converted schema for: {}", ref);
-                return new HashMap<>(convertedSchemaCache.get(ref));
+                return cached;
             }
 
             log.debug("Processing schema reference: {}", ref);
-
-            // Add to processed refs to detect circular references
-            processedRefs.add(ref);
-
-            Map<String, Object> result = new HashMap<>();
-            result.put("$ref", ref);
-
-            // Try to resolve the reference if possible
-            Schema<?> resolvedSchema = resolveReference(ref);
-            if (resolvedSchema != null) {
-                // Merge properties from resolved schema (with circular ref detection)
-                Map<String, Object> resolvedMap = convertSchemaToMap(resolvedSchema, processedRefs);
-                result.putAll(resolvedMap);
-                log.debug("Successfully resolved reference: {}", ref);
-
-                // Cache the result for future use
-                convertedSchemaCache.put(ref, new HashMap<>(result));
-            } else {
+            Schema<?> resolvedSchema = resolveReference(documentName, ref);
+            if (resolvedSchema == null) {
                 // If we can't resolve, at least provide the reference info
+                log.warn("Unable to resolve schema reference: {}", ref);
+                Map<String, Object> result = new HashMap<>();
+                result.put("$ref", ref);
                 result.put("type", "object");
                 result.put("description", "Referenced schema: " + ref);
-                log.warn("Unable to resolve schema reference: {}", ref);
+                return schemaInterner.intern(result);
             }
 
-            // Remove from processed refs when done with this branch
-            processedRefs.remove(ref);
-            return result;
+            refsOnPath.add(ref);
+            if (graph().isCyclic(component) && cyclesOnPath.merge(component, 1, Integer::sum) == 1) {
+                componentCaches.put(component, new HashMap<>());
+            }
+            stack.push(Frame.forReference(ref, component, cacheable, resolvedSchema));
+            return null;
         }
 
-        Map<String, Object> result = new HashMap<>();
-
-        // Add basic properties
-        if (schema.getType() != null) {
-            result.put("type", schema.getType());
-        }
-        if (schema.getDescription() != null) {
-            result.put("description", schema.getDescription());
-        }
-        if (schema.getFormat() != null) {
-            result.put("format", schema.getFormat());
-        }
-        if (schema.getDefault() != null) {
-            result.put("default", schema.getDefault());
+        private Map<String, Object> close(Frame frame) {
+            Map<String, Object> interned = schemaInterner.intern(frame.result());
+            if (frame.ref != null) {
+                refsOnPath.remove(frame.ref);
+                if (frame.cacheable) {
+                    documentCache.put(frame.ref, interned);
+                } else {
+                    componentCaches.get(frame.component).put(frame.ref, interned);
+                }
+                if (graph().isCyclic(frame.component) && cyclesOnPath.merge(frame.component, -1, Integer::sum) == 0) {
+                    componentCaches.remove(frame.component);
+                }
+                log.debug("Successfully resolved reference: {}", frame.ref);
+            }
+            return interned;
         }
 
-        // Handle required properties
-        if (schema.getRequired() != null && !schema.getRequired().isEmpty()) {
-            result.put("required", schema.getRequired());
+        private SchemaReferenceGraph graph() {
+            if (graph == null) {
+                graph = referenceGraph(documentName);
+            }
+            return graph;
         }
+    }
 
-        // Handle enums
-        if (schema.getEnum() != null && !schema.getEnum().isEmpty()) {
-            result.put("enum", schema.getEnum());
-        }
+    /**
+     * A schema being converted, with the sub-schemas that still have to be converted before it is complete
+     */
+    private static final class Frame {
 
-        // Add numeric constraints
-        if (schema.getMinimum() != null) {
-            result.put("minimum", schema.getMinimum());
-        }
-        if (schema.getMaximum() != null) {
-            result.put("maximum", schema.getMaximum());
-        }
-        if (schema.getExclusiveMinimum() != null) {
-            result.put("exclusiveMinimum", schema.getExclusiveMinimum());
-        }
-        if (schema.getExclusiveMaximum() != null) {
-            result.put("exclusiveMaximum", schema.getExclusiveMaximum());
-        }
+        private enum Slot { MERGE, PROPERTY, ITEMS, ADDITIONAL_PROPERTIES }
 
-        // Add string constraints
-        if (schema.getMinLength() != null) {
-            result.put("minLength", schema.getMinLength());
+        private record Child(Slot slot, String name, Schema<?> schema) {
         }
-        if (schema.getMaxLength() != null) {
-            result.put("maxLength", schema.getMaxLength());
-        }
-        if (schema.getPattern() != null) {
-            result.put("pattern", schema.getPattern());
+
+        private final String ref;
+        private final int component;
+        private final boolean cacheable;
+        private final Map<String, Object> result = new HashMap<>();
+        private final List<Child> children = new ArrayList<>();
+        private Map<String, Object> properties;
+        private int nextChild;
+        private Child pending;
+
+        private Frame(String ref, int component, boolean cacheable) {
+            this.ref = ref;
+            this.component = component;
+            this.cacheable = cacheable;
         }
 
-        // Add array constraints
-        if (schema.getMinItems() != null) {
-            result.put("minItems", schema.getMinItems());
+        /**
+         * A reference is converted to its resolved schema, merged into a map that keeps the reference
+         */
+        static Frame forReference(String ref, int component, boolean cacheable, Schema<?> resolvedSchema) {
+            Frame frame = new Frame(ref, component, cacheable);
+            frame.result.put("$ref", ref);
+            frame.children.add(new Child(Slot.MERGE, null, resolvedSchema));
+            return frame;
         }
-        if (schema.getMaxItems() != null) {
-            result.put("maxItems", schema.getMaxItems());
+
+        static Frame forSchema(Schema<?> schema) {
+            Frame frame = new Frame(null, -1, false);
+            Map<String, Object> result = frame.result;
+
+            // Add basic properties
+            if (schema.getType() != null) {
+                result.put("type", schema.getType());
+            }
+            if (schema.getDescription() != null) {
+                result.put("description", schema.getDescription());
+            }
+            if (schema.getFormat() != null) {
+                result.put("format", schema.getFormat());
+            }
+            if (schema.getDefault() != null) {
+                result.put("default", schema.getDefault());
+            }
+
+            // Handle required properties
+            if (schema.getRequired() != null && !schema.getRequired().isEmpty()) {
+                result.put("required", schema.getRequired());
+            }
+
+            // Handle enums
+            if (schema.getEnum() != null && !schema.getEnum().isEmpty()) {
+                result.put("enum", schema.getEnum());
+            }
+
+            // Add numeric constraints
+            if (schema.getMinimum() != null) {
+                result.put("minimum", schema.getMinimum());
+            }
+            if (schema.getMaximum() != null) {
+                result.put("maximum", schema.getMaximum());
+            }
+            if (schema.getExclusiveMinimum() != null) {
+                result.put("exclusiveMinimum", schema.getExclusiveMinimum());
+            }
+            if (schema.getExclusiveMaximum() != null) {
+                result.put("exclusiveMaximum", schema.getExclusiveMaximum());
+            }
+
+            // Add string constraints
+            if (schema.getMinLength() != null) {
+                result.put("minLength", schema.getMinLength());
+            }
+            if (schema.getMaxLength() != null) {
+                result.put("maxLength", schema.getMaxLength());
+            }
+            if (schema.getPattern() != null) {
+                result.put("pattern", schema.getPattern());
+            }
+
+            // Add array constraints
+            if (schema.getMinItems() != null) {
+                result.put("minItems", schema.getMinItems());
+            }
+            if (schema.getMaxItems() != null) {
+                result.put("maxItems", schema.getMaxItems());
+            }
+            if (schema.getUniqueItems() != null && schema.getUniqueItems()) {
+                result.put("uniqueItems", true);
+            }
+
+            // Nested properties for objects
+            if ("object".equals(schema.getType()) && schema.getProperties() != null) {
+                frame.properties = new HashMap<>();
+                result.put("properties", frame.properties);
+                schema.getProperties().forEach((propName, propSchema) ->
+                    frame.children.add(new Child(Slot.PROPERTY, propName, (Schema<?>) propSchema)));
+            }
+
+            // Array items
+            if ("array".equals(schema.getType()) && schema.getItems() != null) {
+                frame.children.add(new Child(Slot.ITEMS, null, schema.getItems()));
+            }
+
+            // Additional properties
+            if (schema.getAdditionalProperties() != null) {
+                if (schema.getAdditionalProperties() instanceof Schema) {
+                    frame.children.add(new Child(Slot.ADDITIONAL_PROPERTIES, null, (Schema<?>) schema.getAdditionalProperties()));
+                } else if (schema.getAdditionalProperties() instanceof Boolean) {
+                    result.put("additionalProperties", schema.getAdditionalProperties());
+                }
+            }
+            return frame;
         }
-        if (schema.getUniqueItems() != null && schema.getUniqueItems()) {
-            result.put("uniqueItems", true);
+
+        Child nextChild() {
+            return nextChild < children.size() ? children.get(nextChild++) : null;
         }
 
-        // Handle nested properties for objects
-        if ("object".equals(schema.getType()) && schema.getProperties() != null) {
-            Map<String, Object> nestedProperties = new HashMap<>();
-            schema.getProperties().forEach((propName, propSchema) -> {
-                nestedProperties.put(propName, convertSchemaToMap((Schema<?>) propSchema, new HashSet<>(processedRefs)));
-            });
-            result.put("properties", nestedProperties);
+        void accept(Map<String, Object> converted) {
+            switch (pending.slot()) {
+                case MERGE -> result.putAll(converted);
+                case PROPERTY -> properties.put(pending.name(), converted);
+                case ITEMS -> result.put("items", primitiveItems(pending.schema(), converted));
+                case ADDITIONAL_PROPERTIES -> result.put("additionalProperties", converted);
+            }
         }
 
-        // Handle array items
-        if ("array".equals(schema.getType()) && schema.getItems() != null) {
-            Schema<?> itemsSchema = schema.getItems();
-            Map<String, Object> itemsMap = convertSchemaToMap(itemsSchema, new HashSet<>(processedRefs));
+        Map<String, Object> result() {
+            return result;
+        }
 
-            // Ensure primitive types like strings are properly typed in arrays
+        /**
+         * Ensure primitive types like strings are properly typed in arrays
+         */
+        private static Map<String, Object> primitiveItems(Schema<?> itemsSchema, Map<String, Object> itemsMap) {
             if (itemsSchema.getType() != null &&
                 ("string".equals(itemsSchema.getType()) ||
                  "integer".equals(itemsSchema.getType()) ||
@@ -351,41 +919,25 @@ public class ToolConfiguration {
                  "boolean".equals(itemsSchema.getType()))) {
                 // For primitive types, ensure the type is explicitly set
                 if (!itemsMap.containsKey("type")) {
+                    itemsMap = new HashMap<>(itemsMap);
                     itemsMap.put("type", itemsSchema.getType());
                 }
             }
-
-            result.put("items", itemsMap);
-        }
-
-        // Add any additional properties
-        if (schema.getAdditionalProperties() != null) {
-            if (schema.getAdditionalProperties() instanceof Schema) {
-                result.put("additionalProperties", convertSchemaToMap((Schema<?>) schema.getAdditionalProperties(), new HashSet<>(processedRefs)));
-            } else if (schema.getAdditionalProperties() instanceof Boolean) {
-                result.put("additionalProperties", schema.getAdditionalProperties());
-            }
+            return itemsMap;
         }
-
-        return result;
     }
 
     /**
-     * Attempt to resolve a schema reference
+     * Attempt to resolve a schema reference against the components of its document
+     * @param documentName The document containing the reference
      * @param ref The reference string (e.g., "#/components/schemas/Pet")
      * @return The resolved Schema object, or null if it cannot be resolved
      */
-    private Schema<?> resolveReference(String ref) {
+    private Schema<?> resolveReference(String documentName, String ref) {
         if (ref == null) {
             return null;
         }
 
-        // Check cache first
-        if (schemaCache.containsKey(ref)) {
-            log.debug("Using cached schema for reference: {}", ref);
-            return schemaCache.get(ref);
-        }
-
         try {
             Schema<?> resolvedSchema = null;
 
@@ -393,10 +945,10 @@ public class ToolConfiguration {
             if (ref.startsWith("#/components/schemas/")) {
                 // Extract the schema name from the reference
                 String schemaName = ref.substring("#/components/schemas/".length());
-                resolvedSchema = resolveComponentSchema(schemaName);
+                resolvedSchema = resolveComponentSchema(documentName, schemaName);
             } else if (ref.startsWith("#/components/parameters/")) {
                 String paramName = ref.substring("#/components/parameters/".length());
-                resolvedSchema = resolveParameterSchema(paramName);
+                resolvedSchema = resolveParameterSchema(documentName, paramName);
             } else if (ref.contains("#")) {
                 // Handle external references with local components
                 log.warn("External references with local paths not fully supported: {}", ref);
@@ -407,11 +959,6 @@ public class ToolConfiguration {
                 return null;
             }
 
-            // Cache result if resolved successfully
-            if (resolvedSchema != null) {
-                schemaCache.put(ref, resolvedSchema);
-            }
-
             return resolvedSchema;
         } catch (Exception e) {
             log.warn("Error resolving schema reference: " + ref, e);
@@ -433,42 +980,39 @@ public class ToolConfiguration {
     }
 
     /**
-     * Resolve a component schema by name
+     * Resolve a component schema by name within a document
      */
-    private Schema<?> resolveComponentSchema(String schemaName) {
-        // Try to find the schema in all OpenAPI specs we have loaded
-        for (OpenApiDefinitionService.ApiOperation operation : openApiDefinitionService.getOperationCache().values()) {
-            io.swagger.v3.oas.models.OpenAPI openAPI = operation.openAPI();
-            if (openAPI != null && openAPI.getComponents() != null &&
-                openAPI.getComponents().getSchemas() != null &&
-                openAPI.getComponents().getSchemas().containsKey(schemaName)) {
-
-                return openAPI.getComponents().getSchemas().get(schemaName);
-            }
-        }
-        return null;
+    private Schema<?> resolveComponentSchema(String documentName, String schemaName) {
+        return componentIndex(documentName).schema(schemaName);
     }
 
     /**
-     * Resolve a parameter schema by name
+     * Resolve a parameter schema by name within a document
      */
-    private Schema<?> resolveParameterSchema(String paramName) {
-        for (OpenApiDefinitionService.ApiOperation operation : openApiDefinitionService.getOperationCache().values()) {
-            io.swagger.v3.oas.models.OpenAPI openAPI = operation.openAPI();
-            if (openAPI != null && openAPI.getComponents() != null &&
-                openAPI.getComponents().getParameters() != null &&
-                openAPI.getComponents().getParameters().containsKey(paramName)) {
+    private Schema<?> resolveParameterSchema(String documentName, String paramName) {
+        Parameter parameter = componentIndex(documentName).parameter(paramName);
+        return parameter != null ? parameter.getSchema() : null;
+    }
 
-                return openAPI.getComponents().getParameters().get(paramName).getSchema();
-            }
-        }
-        return null;
+    private ComponentIndex componentIndex(String documentName) {
+        ComponentIndex index = openApiDefinitionService.getComponentIndex(documentName);
+        return index != null ? index : ComponentIndex.EMPTY;
+    }
+
+    public String convertParametersToJsonSchema(String documentName, io.swagger.v3.oas.models.Operation operation) {
+        return toJson(compileInputSchema(documentName, operation));
     }
 
-    public String convertParametersToJsonSchema(io.swagger.v3.oas.models.Operation operation) {
+    /**
+     * Build the tool input schema of an operation from its parameters and request body.
+     * The result and all nested fragments are interned, immutable schema nodes.
+     */
+    public Map<String, Object> compileInputSchema(String documentName, io.swagger.v3.oas.models.Operation operation) {
+        Set<String> definitions = useDefinitions() ? new TreeSet<>() : null;
         Map<String, Object> schema = new HashMap<>();
         schema.put("type", "object");
         Map<String, Object> properties = new HashMap<>();
+        List<String> required = new ArrayList<>();
         if (operation.getParameters() != null) {
             for (Parameter parameter : operation.getParameters()) {
                 Map<String, Object> property = new HashMap<>();
@@ -481,7 +1025,7 @@ public class ToolConfiguration {
 
                     if (ref.startsWith("#/components/parameters/")) {
                         String paramName = ref.substring("#/components/parameters/".length());
-                        Schema<?> resolvedParamSchema = resolveParameterSchema(paramName);
+                        Schema<?> resolvedParamSchema = resolveParameterSchema(documentName, paramName);
 
                         if (resolvedParamSchema != null) {
                             // We found the schema, use it
@@ -535,7 +1079,7 @@ public class ToolConfiguration {
                     //Handle items for arrays
                     if ("array".equals(paramSchema.getType()) && paramSchema.getItems() != null) {
                         Schema<?> itemsSchema = paramSchema.getItems();
-                        Map<String, Object> itemsMap = convertSchemaToMap(itemsSchema);
+                        Map<String, Object> itemsMap = convertSchemaToMap(documentName, itemsSchema, definitions);
                         property.put("items", itemsMap);
                         log.debug("Added items schema for array parameter {}: {}", parameter.getName(), itemsMap);
                     }
@@ -547,9 +1091,15 @@ public class ToolConfiguration {
                         parameter.getDescription() : "Parameter: " + parameter.getName());
                 }
                 properties.put(parameter.getName(), property);
+                if (Boolean.TRUE.equals(parameter.getRequired())) {
+                    required.add(parameter.getName());
+                }
             }
         }
         if (operation.getRequestBody() != null) {
+            if (Boolean.TRUE.equals(operation.getRequestBody().getRequired())) {
+                required.add("requestBody");
+            }
             // Extract detailed schema from request body instead of using a generic object
             try {
                 io.swagger.v3.oas.models.media.Content content = operation.getRequestBody().getContent();
@@ -562,7 +1112,7 @@ public class ToolConfiguration {
 
                     if (mediaType != null && mediaType.getSchema() != null) {
                         Schema<?> requestSchema = mediaType.getSchema();
-                        Map<String, Object> requestBodySchema = convertSchemaToMap(requestSchema);
+                        Map<String, Object> requestBodySchema = convertSchemaToMap(documentName, requestSchema, definitions);
                         properties.put("requestBody", requestBodySchema);
                         log.info("Added detailed schema for request body: {}", requestBodySchema);
                     } else {
@@ -580,6 +1130,16 @@ public class ToolConfiguration {
             }
         }
         schema.put("properties", properties);
+        if (!required.isEmpty()) {
+            schema.put("required", required);
+        }
+        if (definitions != null && !definitions.isEmpty()) {
+            schema.put(SchemaBudget.DEFS, collectDefinitions(documentName, definitions));
+        }
+        return applySchemaBudget(operation.getOperationId(), schemaInterner.intern(schema));
+    }
+
+    private String toJson(Map<String, Object> schema) {
         try {
             return objectMapper.writeValueAsString(schema);
         } catch (JsonProcessingException e) {
@@ -2,14 +2,23 @@ package com.siri.api.mcp.mcp_openapi_server.controller;
 
 import com.siri.api.mcp.mcp_openapi_server.dto.AddUriRequest;
 import com.siri.api.mcp.mcp_openapi_server.dto.AddFileContentRequest;
+import com.siri.api.mcp.mcp_openapi_server.dto.Readiness;
 import com.siri.api.mcp.mcp_openapi_server.dto.ToolInfo;
+import com.siri.api.mcp.mcp_openapi_server.dto.ToolPage;
+import com.siri.api.mcp.mcp_openapi_server.dto.ValidationStats;
 import com.siri.api.mcp.mcp_openapi_server.service.OpenApiManagementService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -18,6 +27,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OpenApiController {
     
+    // Buffers of an upload requested ahead of the reader
+    private static final int UPLOAD_PREFETCH = 16;
+    
     private final OpenApiManagementService openApiManagementService;
     
     @GetMapping("/tools")
@@ -31,6 +43,27 @@ public class OpenApiController {
         }
     }
     
+    @GetMapping(value = "/tools", params = "limit")
+    public ResponseEntity<?> listTools(@RequestParam int limit, @RequestParam(required = false) String cursor) {
+        try {
+            ToolPage page = openApiManagementService.listTools(cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
+    @GetMapping("/readiness")
+    public ResponseEntity<Readiness> readiness() {
+        Readiness readiness = openApiManagementService.readiness();
+        return ResponseEntity.status(readiness.isReady() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(readiness);
+    }
+    
+    @GetMapping("/tools/validation")
+    public ResponseEntity<List<ValidationStats>> validationStats() {
+        return ResponseEntity.ok(openApiManagementService.validationStats());
+    }
+    
     @PostMapping("/add-uri")
     public ResponseEntity<String> addOpenApiFromUri(@RequestBody AddUriRequest request) {
         try {
@@ -44,7 +77,8 @@ public class OpenApiController {
             openApiManagementService.addOpenApiFromUri(
                 request.getName().trim(), 
                 request.getUri().trim(), 
-                request.getOverrideUrl() != null ? request.getOverrideUrl().trim() : null
+                request.getOverrideUrl() != null ? request.getOverrideUrl().trim() : null,
+                request.getRefreshInterval()
             );
             return ResponseEntity.ok("OpenAPI spec added successfully from URI");
         } catch (Exception e) {
@@ -76,6 +110,32 @@ public class OpenApiController {
         }
     }
     
+    /**
+     * Add a document from a multipart upload. The file part is streamed into the upload store rather than
+     * buffered as a request field.
+     */
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Mono<ResponseEntity<String>> uploadOpenApi(@RequestPart("name") String name,
+                                                      @RequestPart("file") FilePart file,
+                                                      @RequestPart(value = "overrideUrl", required = false) String overrideUrl) {
+        if (name == null || name.trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().body("Name is required"));
+        }
+        String override = overrideUrl != null && !overrideUrl.trim().isEmpty() ? overrideUrl.trim() : null;
+        return Mono.fromCallable(() -> {
+                try (InputStream content = DataBufferUtils.subscriberInputStream(file.content(), UPLOAD_PREFETCH)) {
+                    openApiManagementService.addOpenApiFromUpload(name.trim(), content, override, file.filename());
+                }
+                return ResponseEntity.ok("OpenAPI spec uploaded successfully");
+            })
+            // Storing and parsing block, so they run off the event loop
+            .subscribeOn(Schedulers.boundedElastic())
+            .onErrorResume(e -> {
+                log.error("Error adding OpenAPI from upload", e);
+                return Mono.just(ResponseEntity.badRequest().body("Error: " + e.getMessage()));
+            });
+    }
+    
     @DeleteMapping("/remove/{name}")
     public ResponseEntity<String> removeOpenApi(@PathVariable String name) {
         try {
@@ -2,9 +2,13 @@ package com.siri.api.mcp.mcp_openapi_server.dto;
 
 import lombok.Data;
 
+import java.time.Duration;
+
 @Data
 public class AddUriRequest {
     private String name;
     private String uri;
     private String overrideUrl;
+    // How often to read the document again, e.g. "PT15M"; none to never refresh it
+    private Duration refreshInterval;
 }
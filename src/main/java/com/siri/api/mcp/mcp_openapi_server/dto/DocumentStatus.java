@@ -0,0 +1,22 @@
+package com.siri.api.mcp.mcp_openapi_server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DocumentStatus {
+    private String name;
+    private State state;
+    // Operations added as tools, once loaded
+    private int operations;
+    // Why loading failed, if it did
+    private String error;
+
+    public enum State {
+        PENDING,
+        LOADING,
+        LOADED,
+        FAILED
+    }
+}
@@ -0,0 +1,14 @@
+package com.siri.api.mcp.mcp_openapi_server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class Readiness {
+    // Whether every configured document has been loaded or has failed
+    private boolean ready;
+    private List<DocumentStatus> documents;
+}
@@ -0,0 +1,16 @@
+package com.siri.api.mcp.mcp_openapi_server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of the tool listing, ordered by operation ID. {@code nextCursor} is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+public class ToolPage {
+    private List<ToolInfo> tools;
+    private String nextCursor;
+}
@@ -0,0 +1,15 @@
+package com.siri.api.mcp.mcp_openapi_server.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Argument validation counters of a tool; every rejected call is an upstream request that was not made
+ */
+@Data
+@AllArgsConstructor
+public class ValidationStats {
+    private String operationId;
+    private long validated;
+    private long rejected;
+}
@@ -0,0 +1,15 @@
+package com.siri.api.mcp.mcp_openapi_server.mcp;
+
+import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
+
+import java.util.function.Supplier;
+
+/**
+ * A tool that is published by name and description only. Its full specification is compiled when the tool
+ * is first listed or called, and then kept.
+ * @param name The tool name
+ * @param description The tool description
+ * @param compiler Builds the specification; called at most once
+ */
+public record LazyToolSpecification(String name, String description, Supplier<SyncToolSpecification> compiler) {
+}
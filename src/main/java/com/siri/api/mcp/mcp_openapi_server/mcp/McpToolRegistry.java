@@ -0,0 +1,224 @@
+package com.siri.api.mcp.mcp_openapi_server.mcp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * The MCP tools published by this server.
+ * <p>
+ * Each tool definition is serialized once when it is registered. {@code tools/list} is answered from a
+ * versioned {@link ToolListSnapshot} that is rebuilt only after tools were added or removed, on the first
+ * listing that observes the change.
+ * <p>
+ * Tools registered through {@link ToolBatch#registerLazy} are compiled and serialized on first use: when a
+ * {@code tools/list} page containing them is built, or when they are called. Unlisted tools can be called
+ * and found by name but are left out of {@code tools/list}.
+ * <p>
+ * A {@link ToolBatch} withdraws and publishes any number of tools as a single change, so clients need one
+ * {@code tools/list} change notification per batch.
+ */
+@Slf4j
+@Component
+public class McpToolRegistry {
+
+    private final ObjectMapper objectMapper;
+    private final OpenApiProperties openApiProperties;
+
+    private final Map<String, RegisteredTool> tools = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile ToolListSnapshot snapshot;
+
+    public McpToolRegistry(ObjectMapper objectMapper, OpenApiProperties openApiProperties) {
+        this.objectMapper = objectMapper;
+        this.openApiProperties = openApiProperties;
+        this.snapshot = ToolListSnapshot.build(0, List.of(), List.of(), listPageSize());
+    }
+
+    /**
+     * A published tool with its serialized definition, both built on first use for lazy tools
+     */
+    private final class RegisteredTool {
+        private final String name;
+        private final Supplier<SyncToolSpecification> compiler;
+        private final boolean listed;
+        private volatile SyncToolSpecification specification;
+        private volatile String json;
+
+        RegisteredTool(SyncToolSpecification specification) {
+            this.name = specification.tool().name();
+            this.compiler = null;
+            this.listed = true;
+            this.json = serialize(specification);
+            this.specification = specification;
+        }
+
+        RegisteredTool(LazyToolSpecification lazy, boolean listed) {
+            this.name = lazy.name();
+            this.compiler = lazy.compiler();
+            this.listed = listed;
+        }
+
+        SyncToolSpecification specification() {
+            SyncToolSpecification current = specification;
+            if (current != null) {
+                return current;
+            }
+            synchronized (this) {
+                if (specification == null) {
+                    SyncToolSpecification compiled = compiler.get();
+                    json = serialize(compiled);
+                    specification = compiled;
+                    log.debug("Materialized tool {}", name);
+                }
+                return specification;
+            }
+        }
+
+        String json() {
+            specification();
+            return json;
+        }
+
+        boolean isMaterialized() {
+            return specification != null;
+        }
+    }
+
+    /**
+     * Withdraw and publish the tools of a batch as one registry change; either all of it is applied or none
+     * @return Whether {@code tools/list} changed, i.e. clients should be notified
+     * @throws IllegalArgumentException if a published tool name is already registered and not withdrawn by
+     * the batch, or appears twice in it
+     */
+    public boolean apply(ToolBatch batch) {
+        List<RegisteredTool> additions = new ArrayList<>(batch.additions().size());
+        for (ToolBatch.Addition addition : batch.additions()) {
+            additions.add(addition.specification() != null ? new RegisteredTool(addition.specification()) :
+                new RegisteredTool(addition.lazy(), addition.listed()));
+        }
+        synchronized (this) {
+            Set<String> added = new HashSet<>();
+            for (RegisteredTool registered : additions) {
+                if (!added.add(registered.name) ||
+                        (tools.containsKey(registered.name) && !batch.removals().contains(registered.name))) {
+                    throw new IllegalArgumentException("Tool with name '" + registered.name + "' already exists");
+                }
+            }
+
+            boolean changed = false;
+            boolean listChanged = false;
+            for (String name : batch.removals()) {
+                RegisteredTool removed = added.contains(name) ? null : tools.remove(name);
+                if (removed != null) {
+                    changed = true;
+                    listChanged |= removed.listed;
+                }
+            }
+            for (RegisteredTool registered : additions) {
+                RegisteredTool replaced = tools.put(registered.name, registered);
+                changed = true;
+                listChanged |= registered.listed || (replaced != null && replaced.listed);
+            }
+            if (changed) {
+                version.incrementAndGet();
+            }
+            return listChanged;
+        }
+    }
+
+    /**
+     * Publish several tools as one registry change; either all of them are registered or none
+     * @throws IllegalArgumentException if any tool name is already registered
+     */
+    public void registerAll(List<SyncToolSpecification> specifications) {
+        ToolBatch batch = new ToolBatch();
+        specifications.forEach(batch::register);
+        apply(batch);
+    }
+
+    public Optional<SyncToolSpecification> find(String name) {
+        RegisteredTool registered = tools.get(name);
+        return registered != null ? Optional.of(registered.specification()) : Optional.empty();
+    }
+
+    /**
+     * @return Whether a tool is registered and its specification has been compiled
+     */
+    public boolean isMaterialized(String name) {
+        RegisteredTool registered = tools.get(name);
+        return registered != null && registered.isMaterialized();
+    }
+
+    public boolean contains(String name) {
+        return tools.containsKey(name);
+    }
+
+    public int size() {
+        return tools.size();
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Get the tools/list snapshot for the current registry version, rebuilding it if tools changed
+     */
+    public ToolListSnapshot snapshot() {
+        ToolListSnapshot current = snapshot;
+        if (current.version() == version.get()) {
+            return current;
+        }
+        synchronized (this) {
+            long target = version.get();
+            if (snapshot.version() != target) {
+                snapshot = buildSnapshot(target);
+                log.debug("Rebuilt tools/list snapshot version {} with {} tools", target, snapshot.toolNames().size());
+            }
+            return snapshot;
+        }
+    }
+
+    private ToolListSnapshot buildSnapshot(long target) {
+        List<String> names = new ArrayList<>(tools.keySet());
+        names.sort(null);
+
+        List<String> sortedNames = new ArrayList<>(names.size());
+        List<Supplier<String>> json = new ArrayList<>(names.size());
+        for (String name : names) {
+            RegisteredTool registered = tools.get(name);
+            if (registered != null && registered.listed) {
+                sortedNames.add(name);
+                json.add(registered::json);
+            }
+        }
+        return ToolListSnapshot.build(target, sortedNames, json, listPageSize());
+    }
+
+    private String serialize(SyncToolSpecification specification) {
+        try {
+            return objectMapper.writeValueAsString(specification.tool());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to serialize tool " + specification.tool().name(), e);
+        }
+    }
+
+    private int listPageSize() {
+        OpenApiProperties.Tools settings = openApiProperties != null ? openApiProperties.getTools() : null;
+        return settings != null ? settings.getListPageSize() : 0;
+    }
+}
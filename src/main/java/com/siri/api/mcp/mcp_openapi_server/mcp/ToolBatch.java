@@ -0,0 +1,55 @@
+package com.siri.api.mcp.mcp_openapi_server.mcp;
+
+import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tools to withdraw and publish as one registry change, see {@link McpToolRegistry#apply}. A tool that is
+ * withdrawn and published in the same batch is replaced in place, so it is never missing from lookups or
+ * listings.
+ */
+public final class ToolBatch {
+
+    private final Set<String> removals = new LinkedHashSet<>();
+    private final List<Addition> additions = new ArrayList<>();
+
+    /**
+     * A tool to publish, either compiled or compiled on first use
+     */
+    record Addition(String name, SyncToolSpecification specification, LazyToolSpecification lazy, boolean listed) {
+    }
+
+    public ToolBatch remove(String name) {
+        removals.add(name);
+        return this;
+    }
+
+    public ToolBatch register(SyncToolSpecification specification) {
+        additions.add(new Addition(specification.tool().name(), specification, null, true));
+        return this;
+    }
+
+    /**
+     * @param listed Whether the tool appears in {@code tools/list}
+     */
+    public ToolBatch registerLazy(LazyToolSpecification specification, boolean listed) {
+        additions.add(new Addition(specification.name(), null, specification, listed));
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return removals.isEmpty() && additions.isEmpty();
+    }
+
+    Set<String> removals() {
+        return removals;
+    }
+
+    List<Addition> additions() {
+        return additions;
+    }
+}
@@ -0,0 +1,52 @@
+package com.siri.api.mcp.mcp_openapi_server.mcp;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Opaque paging cursor over tools sorted by name. The cursor holds the name the next page starts at, so
+ * it stays valid when tools are added or removed between pages: the listing resumes at the first tool
+ * whose name is not before it.
+ */
+public final class ToolCursor {
+
+    private static final String PREFIX = "t:";
+
+    private ToolCursor() {
+    }
+
+    public static String encode(String name) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((PREFIX + name).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not created by {@link #encode}
+     */
+    public static String decode(String cursor) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        if (!value.startsWith(PREFIX)) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return value.substring(PREFIX.length());
+    }
+
+    /**
+     * @param sortedNames Names in natural order
+     * @return The index the page for a cursor starts at, 0 for no cursor
+     */
+    public static int startIndex(List<String> sortedNames, String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        int index = Collections.binarySearch(sortedNames, decode(cursor));
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -0,0 +1,144 @@
+package com.siri.api.mcp.mcp_openapi_server.mcp;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Immutable, pre-serialized {@code tools/list} result for one version of the tool registry.
+ * <p>
+ * Tools are ordered by name. The full result and, when a page size is configured, the result of each page
+ * are serialized on first access and then reused. Only the tools of the accessed page are serialized, so
+ * lazily registered tools outside it stay uncompiled. Pages are addressed by {@link ToolCursor}; a page
+ * result carries the cursor of the next page as {@code nextCursor}.
+ */
+public final class ToolListSnapshot {
+
+    private final long version;
+    private final List<String> toolNames;
+    private final List<Supplier<String>> toolJson;
+    private final int pageSize;
+    private final AtomicReferenceArray<PreSerializedJson> pages;
+    private volatile PreSerializedJson listResult;
+
+    private ToolListSnapshot(long version, List<String> toolNames, List<Supplier<String>> toolJson, int pageSize) {
+        this.version = version;
+        this.toolNames = toolNames;
+        this.toolJson = toolJson;
+        this.pageSize = pageSize;
+        this.pages = new AtomicReferenceArray<>(pageSize > 0 ? (toolJson.size() + pageSize - 1) / pageSize : 0);
+    }
+
+    /**
+     * Build a snapshot from tools sorted by name
+     * @param version The registry version the snapshot reflects
+     * @param toolNames The tool names, in order
+     * @param toolJson Supply the serialized tool definitions, in the same order
+     * @param pageSize The number of tools per page chunk, or 0 to build only the full result
+     */
+    static ToolListSnapshot build(long version, List<String> toolNames, List<Supplier<String>> toolJson, int pageSize) {
+        return new ToolListSnapshot(version, List.copyOf(toolNames), List.copyOf(toolJson), pageSize);
+    }
+
+    private static PreSerializedJson listResult(List<Supplier<String>> tools) {
+        return listResult(tools, null);
+    }
+
+    private static PreSerializedJson listResult(List<Supplier<String>> tools, String nextCursor) {
+        List<String> json = tools.stream().map(Supplier::get).toList();
+        int length = 12 + json.size();
+        for (String tool : json) {
+            length += tool.length();
+        }
+        StringBuilder builder = new StringBuilder(length).append("{\"tools\":[");
+        for (int i = 0; i < json.size(); i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(json.get(i));
+        }
+        builder.append(']');
+        if (nextCursor != null) {
+            // Cursors are URL-safe base64 and need no escaping
+            builder.append(",\"nextCursor\":\"").append(nextCursor).append('"');
+        }
+        return new PreSerializedJson(builder.append('}').toString());
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public List<String> toolNames() {
+        return toolNames;
+    }
+
+    /**
+     * The complete {@code tools/list} result
+     */
+    public PreSerializedJson listResult() {
+        PreSerializedJson result = listResult;
+        if (result == null) {
+            result = listResult(toolJson);
+            listResult = result;
+        }
+        return result;
+    }
+
+    /**
+     * The {@code tools/list} result for a request cursor: the full list when paging is disabled, otherwise
+     * the page starting at the cursor, or the first page without one. Requests for a page boundary of this
+     * snapshot are served from the cached page.
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    public PreSerializedJson listResult(String cursor) {
+        if (pageSize <= 0) {
+            return listResult();
+        }
+        int start = ToolCursor.startIndex(toolNames, cursor);
+        if (start >= toolNames.size()) {
+            return listResult(List.of());
+        }
+        if (start % pageSize == 0) {
+            return page(start / pageSize);
+        }
+        return listResult(toolJson.subList(start, end(start)), nextCursor(start));
+    }
+
+    private int end(int start) {
+        return Math.min(start + pageSize, toolJson.size());
+    }
+
+    private String nextCursor(int start) {
+        int next = start + pageSize;
+        return next < toolNames.size() ? ToolCursor.encode(toolNames.get(next)) : null;
+    }
+
+    public int pageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return The number of pages, 0 when paging is disabled
+     */
+    public int pageCount() {
+        return pages.length();
+    }
+
+    /**
+     * The pre-serialized {@code tools/list} result of a page
+     * @throws IndexOutOfBoundsException if the page does not exist
+     */
+    public PreSerializedJson page(int index) {
+        PreSerializedJson page = pages.get(index);
+        if (page == null) {
+            int start = index * pageSize;
+            page = listResult(toolJson.subList(start, end(start)), nextCursor(start));
+            // Concurrent builders produce identical JSON, keep whichever was stored first
+            if (!pages.compareAndSet(index, null, page)) {
+                page = pages.get(index);
+            }
+        }
+        return page;
+    }
+}
@@ -0,0 +1,178 @@
+package com.siri.api.mcp.mcp_openapi_server.mcp;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpServerSession;
+import io.modelcontextprotocol.spec.McpServerTransport;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Server session that answers {@code tools/list} and {@code tools/call} from the {@link McpToolRegistry}
+ * and hands every other message to the session created by the MCP server.
+ * <p>
+ * Written against MCP SDK 0.10, whose {@link McpServerSession} has no other constructor than the one
+ * taking handlers; every public method is overridden, so the handlers given to it are never called.
+ */
+@Slf4j
+class ToolRoutingSession extends McpServerSession {
+
+    private final McpServerSession delegate;
+    private final McpServerTransport transport;
+    private final McpToolRegistry toolRegistry;
+
+    // Client details from the initialize request, used once the client confirms initialization
+    private volatile McpSchema.InitializeRequest initializeRequest;
+    // Null until the initialized notification has been handled
+    private volatile McpSyncServerExchange exchange;
+    // Lowest level of log notifications the client asked for with logging/setLevel
+    private volatile McpSchema.LoggingLevel minLoggingLevel = McpSchema.LoggingLevel.INFO;
+
+    ToolRoutingSession(McpServerSession delegate, McpServerTransport transport, McpToolRegistry toolRegistry) {
+        super(delegate.getId(), Duration.ZERO, transport, request -> Mono.empty(), Mono::empty, Map.of(), Map.of());
+        this.delegate = delegate;
+        this.transport = transport;
+        this.toolRegistry = toolRegistry;
+    }
+
+    @Override
+    public Mono<Void> handle(McpSchema.JSONRPCMessage message) {
+        if (message instanceof McpSchema.JSONRPCRequest request) {
+            if (McpSchema.METHOD_TOOLS_LIST.equals(request.method())) {
+                return respond(request, initialized().then(listTools(request)));
+            }
+            if (McpSchema.METHOD_TOOLS_CALL.equals(request.method())) {
+                return respond(request, initialized().then(callTool(request)));
+            }
+            if (McpSchema.METHOD_INITIALIZE.equals(request.method())) {
+                initializeRequest = peek(request, new TypeReference<McpSchema.InitializeRequest>() {
+                });
+            } else if (McpSchema.METHOD_LOGGING_SET_LEVEL.equals(request.method())) {
+                McpSchema.SetLevelRequest setLevelRequest = peek(request, new TypeReference<McpSchema.SetLevelRequest>() {
+                });
+                if (setLevelRequest != null && setLevelRequest.level() != null) {
+                    minLoggingLevel = setLevelRequest.level();
+                }
+            }
+        } else if (message instanceof McpSchema.JSONRPCNotification notification
+            && McpSchema.METHOD_NOTIFICATION_INITIALIZED.equals(notification.method())) {
+            return delegate.handle(message).then(Mono.fromRunnable(this::startExchange));
+        }
+        return delegate.handle(message);
+    }
+
+    /**
+     * Read the params of a request the delegate answers, leaving malformed params for it to reject
+     */
+    private <T> T peek(McpSchema.JSONRPCRequest request, TypeReference<T> type) {
+        try {
+            return request.params() != null ? transport.unmarshalFrom(request.params(), type) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void startExchange() {
+        McpSchema.InitializeRequest initialize = initializeRequest;
+        exchange = new McpSyncServerExchange(new RoutedExchange(
+            initialize != null ? initialize.capabilities() : null,
+            initialize != null ? initialize.clientInfo() : null));
+    }
+
+    private Mono<Void> initialized() {
+        return exchange != null ? Mono.empty() : Mono.error(new McpError(new McpSchema.JSONRPCResponse.JSONRPCError(
+            McpSchema.ErrorCodes.INVALID_REQUEST, "Session is not initialized", null)));
+    }
+
+    private Mono<PreSerializedJson> listTools(McpSchema.JSONRPCRequest request) {
+        return Mono.fromSupplier(() -> {
+            McpSchema.PaginatedRequest paginatedRequest = request.params() != null ?
+                transport.unmarshalFrom(request.params(), new TypeReference<McpSchema.PaginatedRequest>() {
+                }) : null;
+            String cursor = paginatedRequest != null ? paginatedRequest.cursor() : null;
+            try {
+                return toolRegistry.snapshot().listResult(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new McpError(new McpSchema.JSONRPCResponse.JSONRPCError(
+                    McpSchema.ErrorCodes.INVALID_PARAMS, e.getMessage(), null));
+            }
+        });
+    }
+
+    private Mono<McpSchema.CallToolResult> callTool(McpSchema.JSONRPCRequest request) {
+        return Mono.defer(() -> {
+            McpSchema.CallToolRequest callToolRequest = transport.unmarshalFrom(request.params(),
+                new TypeReference<McpSchema.CallToolRequest>() {
+                });
+            return toolRegistry.find(callToolRequest.name())
+                .map(tool -> Mono.fromCallable(() -> tool.call().apply(exchange, callToolRequest.arguments()))
+                    .subscribeOn(Schedulers.boundedElastic()))
+                .orElseGet(() -> Mono.error(new IllegalArgumentException("Tool not found: " + callToolRequest.name())));
+        });
+    }
+
+    private Mono<Void> respond(McpSchema.JSONRPCRequest request, Mono<?> result) {
+        return result
+            .map(value -> new McpSchema.JSONRPCResponse(McpSchema.JSONRPC_VERSION, request.id(), value, null))
+            .onErrorResume(error -> {
+                log.debug("Error handling {} request: {}", request.method(), error.getMessage());
+                McpSchema.JSONRPCResponse.JSONRPCError jsonRpcError =
+                    error instanceof McpError mcpError && mcpError.getJsonRpcError() != null ? mcpError.getJsonRpcError() :
+                        new McpSchema.JSONRPCResponse.JSONRPCError(McpSchema.ErrorCodes.INTERNAL_ERROR, error.getMessage(), null);
+                return Mono.just(new McpSchema.JSONRPCResponse(McpSchema.JSONRPC_VERSION, request.id(), null, jsonRpcError));
+            })
+            .flatMap(transport::sendMessage);
+    }
+
+    /**
+     * Exchange with the client that sends log notifications at the level the client set, which the
+     * SDK's exchange only learns from its own session
+     */
+    private class RoutedExchange extends McpAsyncServerExchange {
+
+        RoutedExchange(McpSchema.ClientCapabilities clientCapabilities, McpSchema.Implementation clientInfo) {
+            super(delegate, clientCapabilities, clientInfo);
+        }
+
+        @Override
+        public Mono<Void> loggingNotification(McpSchema.LoggingMessageNotification loggingMessageNotification) {
+            if (loggingMessageNotification == null) {
+                return Mono.error(new McpError("Logging message must not be null"));
+            }
+            return loggingMessageNotification.level().level() >= minLoggingLevel.level() ?
+                delegate.sendNotification(McpSchema.METHOD_NOTIFICATION_MESSAGE, loggingMessageNotification) : Mono.empty();
+        }
+    }
+
+    @Override
+    public void init(McpSchema.ClientCapabilities clientCapabilities, McpSchema.Implementation clientInfo) {
+        delegate.init(clientCapabilities, clientInfo);
+    }
+
+    @Override
+    public <T> Mono<T> sendRequest(String method, Object requestParams, TypeReference<T> typeRef) {
+        return delegate.sendRequest(method, requestParams, typeRef);
+    }
+
+    @Override
+    public Mono<Void> sendNotification(String method, Object params) {
+        return delegate.sendNotification(method, params);
+    }
+
+    @Override
+    public Mono<Void> closeGracefully() {
+        return delegate.closeGracefully();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,26 @@
+package com.siri.api.mcp.mcp_openapi_server.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.server.transport.WebFluxSseServerTransportProvider;
+import io.modelcontextprotocol.spec.McpServerSession;
+
+/**
+ * WebFlux SSE transport whose sessions serve tools from the {@link McpToolRegistry}
+ * instead of the MCP server's own tool list.
+ */
+public class ToolRoutingSseTransportProvider extends WebFluxSseServerTransportProvider {
+
+    private final McpToolRegistry toolRegistry;
+
+    public ToolRoutingSseTransportProvider(ObjectMapper objectMapper, String baseUrl, String messageEndpoint,
+                                           String sseEndpoint, McpToolRegistry toolRegistry) {
+        super(objectMapper, baseUrl, messageEndpoint, sseEndpoint);
+        this.toolRegistry = toolRegistry;
+    }
+
+    @Override
+    public void setSessionFactory(McpServerSession.Factory sessionFactory) {
+        super.setSessionFactory(transport ->
+            new ToolRoutingSession(sessionFactory.create(transport), transport, toolRegistry));
+    }
+}
@@ -3,7 +3,6 @@ package com.siri.api.mcp.mcp_openapi_server.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
 import com.siri.api.mcp.mcp_openapi_server.service.OpenApiDefinitionService.ApiOperation;
-import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.Operation;
 import io.swagger.v3.oas.models.PathItem;
 import io.swagger.v3.oas.models.parameters.Parameter;
@@ -34,12 +33,14 @@ public class ApiClient {
                 .orElseThrow(() -> new IllegalArgumentException("Operation not found: " + operationId));
 
         OpenApiProperties.Document doc = apiOperation.document();
-        OpenAPI openAPI = apiOperation.openAPI();
         String path = apiOperation.path();
         PathItem.HttpMethod httpMethod = apiOperation.httpMethod();
         Operation operation = apiOperation.operation();
 
-        String baseUrl = doc.getOverrideUrl() != null ? doc.getOverrideUrl() : openAPI.getServers().get(0).getUrl();
+        String baseUrl = doc.getOverrideUrl() != null ? doc.getOverrideUrl() : apiOperation.serverUrl();
+        if (baseUrl == null) {
+            throw new IllegalStateException("No server URL for operation " + operationId);
+        }
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString(baseUrl);
 
         HttpHeaders headers = new HttpHeaders();
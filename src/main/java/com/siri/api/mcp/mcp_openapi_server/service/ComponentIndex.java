@@ -0,0 +1,106 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Reusable components of a single OpenAPI document, looked up by name.
+ * Schema references are always resolved against the index of the document that contains them.
+ */
+public final class ComponentIndex {
+
+    public static final ComponentIndex EMPTY = new ComponentIndex(Map.of(), Map.of());
+
+    private final Map<String, Schema<?>> schemas;
+    private final Map<String, Parameter> parameters;
+
+    private ComponentIndex(Map<String, Schema<?>> schemas, Map<String, Parameter> parameters) {
+        this.schemas = schemas;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Build the index for a parsed document
+     */
+    public static ComponentIndex of(OpenAPI openAPI) {
+        Components components = openAPI != null ? openAPI.getComponents() : null;
+        if (components == null) {
+            return EMPTY;
+        }
+        return new ComponentIndex(
+                components.getSchemas() != null ? copySchemas(components) : Map.of(),
+                components.getParameters() != null ? Map.copyOf(components.getParameters()) : Map.of()
+        );
+    }
+
+    private static Map<String, Schema<?>> copySchemas(Components components) {
+        Map<String, Schema<?>> schemas = new HashMap<>();
+        components.getSchemas().forEach(schemas::put);
+        return Map.copyOf(schemas);
+    }
+
+    /**
+     * @param name The schema name (e.g., "Pet" for "#/components/schemas/Pet")
+     * @return The component schema, or null if the document does not define it
+     */
+    public Schema<?> schema(String name) {
+        return schemas.get(name);
+    }
+
+    /**
+     * @param name The parameter name (e.g., "PetId" for "#/components/parameters/PetId")
+     * @return The component parameter, or null if the document does not define it
+     */
+    public Parameter parameter(String name) {
+        return parameters.get(name);
+    }
+
+    /**
+     * @return An index with only the named schemas and parameters of this one
+     */
+    public ComponentIndex retain(Set<String> schemaNames, Set<String> parameterNames) {
+        Map<String, Schema<?>> retainedSchemas = new HashMap<>();
+        schemaNames.forEach(name -> {
+            if (schemas.containsKey(name)) {
+                retainedSchemas.put(name, schemas.get(name));
+            }
+        });
+        Map<String, Parameter> retainedParameters = new HashMap<>();
+        parameterNames.forEach(name -> {
+            if (parameters.containsKey(name)) {
+                retainedParameters.put(name, parameters.get(name));
+            }
+        });
+        return new ComponentIndex(Map.copyOf(retainedSchemas), Map.copyOf(retainedParameters));
+    }
+
+    /**
+     * @return An index with the same names, holding what the functions make of each schema and parameter
+     */
+    public ComponentIndex map(UnaryOperator<Schema<?>> schemaMapper, UnaryOperator<Parameter> parameterMapper) {
+        Map<String, Schema<?>> mappedSchemas = new HashMap<>();
+        schemas.forEach((name, schema) -> mappedSchemas.put(name, schemaMapper.apply(schema)));
+        Map<String, Parameter> mappedParameters = new HashMap<>();
+        parameters.forEach((name, parameter) -> mappedParameters.put(name, parameterMapper.apply(parameter)));
+        return new ComponentIndex(Map.copyOf(mappedSchemas), Map.copyOf(mappedParameters));
+    }
+
+    public Set<String> schemaNames() {
+        return schemas.keySet();
+    }
+
+    public Set<String> parameterNames() {
+        return parameters.keySet();
+    }
+
+    public int size() {
+        return schemas.size() + parameters.size();
+    }
+}
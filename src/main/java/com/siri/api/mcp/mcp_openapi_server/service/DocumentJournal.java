@@ -0,0 +1,356 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Records the documents added and removed at runtime, so they can be added again after a restart.
+ * <p>
+ * The journal is a file of JSON lines, one per addition or removal, that is only appended to. One thread
+ * writes the appends: it takes every entry waiting, writes them and forces them to disk once, so changes
+ * made at the same time share an fsync. A caller returns once its entry is on disk. When the entries
+ * superseded by later ones reach the configured threshold and outnumber the live documents, the journal is
+ * rewritten with one entry per live document and swapped in atomically. A line cut short by a crash is
+ * ignored when the journal is read.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DocumentJournal {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String ADD = "add";
+    private static final String REMOVE = "remove";
+
+    private final OpenApiProperties openApiProperties;
+
+    // Live documents by name in the order they were added, the lines in the file and the open file, null
+    // until the journal is opened; guarded by this journal
+    private final Map<String, Entry> live = new LinkedHashMap<>();
+    private int lines;
+    private long syncs;
+    private FileChannel channel;
+    // Entries waiting for the writer
+    private final BlockingQueue<Append> appends = new LinkedBlockingQueue<>();
+    private volatile Thread writer;
+
+    /**
+     * One line of the journal
+     * @param op {@value #ADD} or {@value #REMOVE}
+     * @param refreshInterval An ISO-8601 duration, see {@link OpenApiProperties.Document#getRefreshInterval}
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Entry(String op, String name, String location, String overrideUrl, String refreshInterval) {
+    }
+
+    private record Append(Entry entry, CompletableFuture<Void> written) {
+    }
+
+    /**
+     * @return Whether a journal file is configured
+     */
+    public boolean isEnabled() {
+        return path() != null;
+    }
+
+    /**
+     * Read the journal and start recording changes. A journal holding superseded or unreadable entries is
+     * compacted first.
+     * @return The live documents in the order they were added, empty if the journal is disabled or new
+     * @throws IOException if the journal cannot be read or written
+     */
+    public synchronized List<OpenApiProperties.Document> open() throws IOException {
+        Path path = path();
+        if (path == null || channel != null) {
+            return documents();
+        }
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        boolean rewrite = false;
+        int skipped = 0;
+        if (Files.exists(path)) {
+            byte[] bytes = Files.readAllBytes(path);
+            // Appending after a line without its newline would corrupt the next entry too
+            rewrite = bytes.length > 0 && bytes[bytes.length - 1] != '\n';
+            for (String line : new String(bytes, StandardCharsets.UTF_8).split("\n")) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    if (apply(MAPPER.readValue(line, Entry.class))) {
+                        lines++;
+                        continue;
+                    }
+                } catch (JsonProcessingException e) {
+                    // Cut short by a crash, or damaged
+                }
+                skipped++;
+            }
+        }
+        if (skipped > 0) {
+            log.warn("Ignored {} unreadable entries of document journal {}", skipped, path);
+        }
+        if (rewrite || skipped > 0 || lines > live.size()) {
+            compact();
+        } else {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        }
+
+        Thread thread = new Thread(this::writeAppends, "openapi-journal");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+        log.info("Opened document journal {} with {} documents", path, live.size());
+        return documents();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        Thread thread = writer;
+        writer = null;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(Duration.ofSeconds(5).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<Append> abandoned = new ArrayList<>();
+        appends.drainTo(abandoned);
+        abandoned.forEach(append -> append.written().completeExceptionally(
+            new IOException("The document journal is closed")));
+        synchronized (this) {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Record a document added at runtime, replacing any entry with its name
+     * @throws IOException if the entry could not be written
+     */
+    public void recordAdded(OpenApiProperties.Document document) throws IOException {
+        Duration refreshInterval = document.getRefreshInterval();
+        append(new Entry(ADD, document.getName(), document.getLocation(), document.getOverrideUrl(),
+            refreshInterval != null ? refreshInterval.toString() : null));
+    }
+
+    /**
+     * Record that a document added at runtime was removed
+     * @throws IOException if the entry could not be written
+     */
+    public void recordRemoved(String documentName) throws IOException {
+        append(new Entry(REMOVE, documentName, null, null, null));
+    }
+
+    /**
+     * @return Whether the journal holds a live document with the name
+     */
+    public synchronized boolean contains(String documentName) {
+        return live.containsKey(documentName);
+    }
+
+    /**
+     * @return The live documents in the order they were added
+     */
+    public synchronized List<OpenApiProperties.Document> documents() {
+        List<OpenApiProperties.Document> documents = new ArrayList<>(live.size());
+        for (Entry entry : live.values()) {
+            OpenApiProperties.Document document = new OpenApiProperties.Document();
+            document.setName(entry.name());
+            document.setLocation(entry.location());
+            document.setOverrideUrl(entry.overrideUrl());
+            document.setRefreshInterval(entry.refreshInterval() != null ? Duration.parse(entry.refreshInterval()) : null);
+            documents.add(document);
+        }
+        return documents;
+    }
+
+    /**
+     * @return The number of times appended entries were forced to disk
+     */
+    synchronized long syncs() {
+        return syncs;
+    }
+
+    /**
+     * @return The number of entries in the journal file
+     */
+    synchronized int entries() {
+        return lines;
+    }
+
+    /**
+     * Queue an entry for the writer and wait until it is on disk. Does nothing before the journal is opened.
+     */
+    private void append(Entry entry) throws IOException {
+        if (writer == null) {
+            return;
+        }
+        Append append = new Append(entry, new CompletableFuture<>());
+        appends.add(append);
+        try {
+            append.written().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing the document journal");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+    }
+
+    private void writeAppends() {
+        List<Append> batch = new ArrayList<>();
+        try {
+            while (true) {
+                batch.add(appends.take());
+                appends.drainTo(batch);
+                try {
+                    write(batch);
+                    batch.forEach(append -> append.written().complete(null));
+                } catch (IOException | RuntimeException e) {
+                    log.error("Could not write {} entries to the document journal: {}", batch.size(), e.getMessage());
+                    batch.forEach(append -> append.written().completeExceptionally(e));
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            log.debug("Stopped writing the document journal");
+        }
+    }
+
+    /**
+     * Write a batch of entries with a single fsync, and compact the journal if enough entries are superseded
+     */
+    private synchronized void write(List<Append> batch) throws IOException {
+        if (channel == null) {
+            throw new IOException("The document journal is closed");
+        }
+        StringBuilder text = new StringBuilder();
+        for (Append append : batch) {
+            text.append(MAPPER.writeValueAsString(append.entry())).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        syncs++;
+        for (Append append : batch) {
+            apply(append.entry());
+            lines++;
+        }
+
+        int superseded = lines - live.size();
+        if (superseded >= compactionThreshold() && superseded > live.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * @return Whether the entry is valid
+     */
+    private boolean apply(Entry entry) {
+        if (entry.name() == null) {
+            return false;
+        }
+        if (ADD.equals(entry.op()) && entry.location() != null) {
+            // A document added again moves to the end, like the replay order of its latest addition
+            live.remove(entry.name());
+            live.put(entry.name(), entry);
+            return true;
+        }
+        if (REMOVE.equals(entry.op())) {
+            live.remove(entry.name());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Replace the journal with one entry per live document
+     */
+    private void compact() throws IOException {
+        Path path = path();
+        Path directory = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                StringBuilder text = new StringBuilder();
+                for (Entry entry : live.values()) {
+                    text.append(MAPPER.writeValueAsString(entry)).append('\n');
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(false);
+            }
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(directory);
+            log.info("Compacted document journal {} from {} to {} entries", path, lines, live.size());
+            lines = live.size();
+        } finally {
+            Files.deleteIfExists(temp);
+            if (channel == null) {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            }
+        }
+    }
+
+    /**
+     * Make the rename of the compacted journal durable, where the platform allows syncing a directory
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Could not sync directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private int compactionThreshold() {
+        OpenApiProperties.Journal settings = openApiProperties.getJournal();
+        return settings != null && settings.getCompactionThreshold() > 0 ? settings.getCompactionThreshold() :
+            OpenApiProperties.Journal.DEFAULT_COMPACTION_THRESHOLD;
+    }
+
+    private Path path() {
+        OpenApiProperties.Journal settings = openApiProperties.getJournal();
+        return settings != null && settings.getPath() != null && !settings.getPath().isBlank() ?
+            Path.of(settings.getPath()) : null;
+    }
+}
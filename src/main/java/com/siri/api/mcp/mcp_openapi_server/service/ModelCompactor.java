@@ -0,0 +1,292 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.core.util.Json31;
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.Paths;
+import io.swagger.v3.oas.models.SpecVersion;
+import io.swagger.v3.oas.models.media.ComposedSchema;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import io.swagger.v3.oas.models.parameters.RequestBody;
+import io.swagger.v3.oas.models.servers.Server;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Reduces the parsed swagger model to what tool invocation and schema generation read, so the rest of a
+ * document can be garbage collected once its operations are cached.
+ * <p>
+ * Operations keep their ID, summary, tags, parameters and request body schemas; responses, examples,
+ * callbacks, security and documentation links are dropped. Schemas lose examples, XML hints, external
+ * docs and extensions. Component schemas and parameters that no kept operation reaches are released.
+ * Everything kept is copied, so the parsed model is left as it was.
+ */
+final class ModelCompactor {
+
+    private static final String SCHEMAS = "#/components/schemas/";
+    private static final String PARAMETERS = "#/components/parameters/";
+
+    private ModelCompactor() {
+    }
+
+    /**
+     * @return The URL of the document's first server, or null if it declares none
+     */
+    static String serverUrl(OpenAPI openAPI) {
+        return openAPI != null && openAPI.getServers() != null && !openAPI.getServers().isEmpty() ?
+            openAPI.getServers().get(0).getUrl() : null;
+    }
+
+    /**
+     * Copy the parts of an operation that invocation and schema generation use into a read-only operation
+     * @param description The description to keep, or null to drop it
+     */
+    static Operation compact(Operation operation, String description) {
+        List<Parameter> parameters = null;
+        if (operation.getParameters() != null) {
+            parameters = new ArrayList<>(operation.getParameters().size());
+            for (Parameter parameter : operation.getParameters()) {
+                parameters.add(compact(parameter));
+            }
+            parameters = Collections.unmodifiableList(parameters);
+        }
+        RequestBody requestBody = operation.getRequestBody();
+        if (requestBody != null) {
+            requestBody = new RequestBody()
+                .$ref(requestBody.get$ref())
+                .required(requestBody.getRequired())
+                .content(compact(requestBody.getContent()));
+        }
+        return new ReadOnlyOperation(operation.getOperationId(), operation.getSummary(), description,
+            operation.getTags() != null ? List.copyOf(operation.getTags()) : null, parameters, requestBody);
+    }
+
+    private static Parameter compact(Parameter parameter) {
+        Parameter compact = new Parameter()
+            .name(parameter.getName())
+            .in(parameter.getIn())
+            .required(parameter.getRequired())
+            .description(parameter.getDescription())
+            .schema(stripped(parameter.getSchema()));
+        if (parameter.get$ref() != null) {
+            compact.set$ref(parameter.get$ref());
+        }
+        return compact;
+    }
+
+    private static Content compact(Content content) {
+        if (content == null) {
+            return null;
+        }
+        Content compact = new Content();
+        content.forEach((type, mediaType) ->
+            compact.addMediaType(type, new MediaType().schema(mediaType != null ? stripped(mediaType.getSchema()) : null)));
+        return compact;
+    }
+
+    /**
+     * Rebuild a minimal document from compact operations and the components they reach, in the form
+     * {@link OpenApiDefinitionService#addOperations} reads
+     */
+    static OpenAPI model(String serverUrl, Collection<OpenApiDefinitionService.ApiOperation> operations,
+                         ComponentIndex index) {
+        OpenAPI model = new OpenAPI().paths(new Paths()).components(new Components());
+        if (serverUrl != null) {
+            model.addServersItem(new Server().url(serverUrl));
+        }
+        for (OpenApiDefinitionService.ApiOperation apiOperation : operations) {
+            model.getPaths().computeIfAbsent(apiOperation.path(), path -> new PathItem())
+                .operation(apiOperation.httpMethod(), apiOperation.operation());
+        }
+        index.schemaNames().forEach(name -> model.getComponents().addSchemas(name, index.schema(name)));
+        index.parameterNames().forEach(name -> model.getComponents().addParameters(name, index.parameter(name)));
+        return model;
+    }
+
+    /**
+     * Keep only the components reachable from the given operations, as copies without the fields that
+     * tools do not use
+     */
+    static ComponentIndex retainReachable(ComponentIndex index, Collection<Operation> operations) {
+        Reachable reachable = reachable(index, operations);
+        return index.retain(reachable.schemaNames(), reachable.parameterNames())
+            .map(ModelCompactor::stripped, ModelCompactor::compact);
+    }
+
+    /**
+     * @return A deep copy of a schema without examples, XML hints, external docs and extensions, or null
+     * for null; referenced components are not copied
+     * @throws IllegalArgumentException if the schema cannot be copied
+     */
+    static Schema<?> stripped(Schema<?> schema) {
+        if (schema == null) {
+            return null;
+        }
+        // Copied through JSON text like the registry snapshot, so restored schemas equal freshly loaded ones
+        ObjectMapper mapper = schema.getSpecVersion() == SpecVersion.V31 ? Json31.mapper() : Json.mapper();
+        Schema<?> copy;
+        try {
+            copy = mapper.readValue(mapper.writeValueAsBytes(schema), Schema.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot copy schema", e);
+        }
+        Deque<Schema<?>> pending = new ArrayDeque<>();
+        push(copy, pending);
+        while (!pending.isEmpty()) {
+            Schema<?> inline = pending.pop();
+            inline.setExample(null);
+            inline.setExamples(null);
+            inline.setXml(null);
+            inline.setExternalDocs(null);
+            inline.setExtensions(null);
+            pushChildren(inline, pending);
+        }
+        return copy;
+    }
+
+    /**
+     * Serialize every component of an index, keyed by its reference relative to {@code #/components/}
+     * @throws IllegalArgumentException if a component cannot be serialized
+     */
+    static Map<String, String> componentJson(ComponentIndex index) {
+        Map<String, String> json = new HashMap<>();
+        index.schemaNames().forEach(name -> json.put("schemas/" + name, toJson(index.schema(name))));
+        index.parameterNames().forEach(name -> json.put("parameters/" + name, toJson(index.parameter(name))));
+        return json;
+    }
+
+    /**
+     * Hash what a tool is built from: the path, method and server of an operation, its compact copy and
+     * every component it reaches. Operations with equal hashes compile to the same tool.
+     * @param componentJson The serialized components of the operation's document, see {@link #componentJson}
+     * @throws IllegalArgumentException if the operation cannot be serialized
+     */
+    static String structuralHash(OpenApiDefinitionService.ApiOperation apiOperation, ComponentIndex index,
+                                 Map<String, String> componentJson) {
+        Reachable reachable = reachable(index, List.of(apiOperation.operation()));
+        StringBuilder content = new StringBuilder()
+            .append(apiOperation.httpMethod()).append(' ').append(apiOperation.path())
+            .append('|').append(apiOperation.serverUrl())
+            .append('|').append(toJson(apiOperation.operation()));
+        new TreeSet<>(reachable.schemaNames()).forEach(name ->
+            content.append('|').append(name).append('=').append(componentJson.get("schemas/" + name)));
+        new TreeSet<>(reachable.parameterNames()).forEach(name ->
+            content.append('|').append(name).append('=').append(componentJson.get("parameters/" + name)));
+        return RegistrySnapshot.sha256(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record Reachable(Set<String> schemaNames, Set<String> parameterNames) {
+    }
+
+    /**
+     * Find the component schemas and parameters the given operations reach
+     */
+    private static Reachable reachable(ComponentIndex index, Collection<Operation> operations) {
+        Set<String> schemaNames = new HashSet<>();
+        Set<String> parameterNames = new HashSet<>();
+        Set<Schema<?>> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Schema<?>> pending = new ArrayDeque<>();
+
+        for (Operation operation : operations) {
+            if (operation.getParameters() != null) {
+                for (Parameter parameter : operation.getParameters()) {
+                    addParameter(parameter, index, parameterNames, pending);
+                }
+            }
+            if (operation.getRequestBody() != null && operation.getRequestBody().getContent() != null) {
+                operation.getRequestBody().getContent().values().forEach(mediaType -> push(mediaType.getSchema(), pending));
+            }
+        }
+
+        while (!pending.isEmpty()) {
+            Schema<?> schema = pending.pop();
+            if (!visited.add(schema)) {
+                continue;
+            }
+            String ref = schema.get$ref();
+            if (ref != null && ref.startsWith(SCHEMAS)) {
+                String name = ref.substring(SCHEMAS.length());
+                if (schemaNames.add(name)) {
+                    push(index.schema(name), pending);
+                }
+            }
+            pushChildren(schema, pending);
+        }
+        return new Reachable(schemaNames, parameterNames);
+    }
+
+    /**
+     * Queue the inline sub-schemas of a schema
+     */
+    private static void pushChildren(Schema<?> schema, Deque<Schema<?>> pending) {
+        if (schema.getProperties() != null) {
+            schema.getProperties().values().forEach(property -> push(property, pending));
+        }
+        push(schema.getItems(), pending);
+        if (schema.getAdditionalProperties() instanceof Schema<?> additional) {
+            push(additional, pending);
+        }
+        push(schema.getNot(), pending);
+        if (schema instanceof ComposedSchema composed) {
+            pushAll(composed.getAllOf(), pending);
+            pushAll(composed.getOneOf(), pending);
+            pushAll(composed.getAnyOf(), pending);
+        }
+    }
+
+    private static void addParameter(Parameter parameter, ComponentIndex index, Set<String> parameterNames,
+                                     Deque<Schema<?>> pending) {
+        String ref = parameter.get$ref();
+        if (ref != null && ref.startsWith(PARAMETERS)) {
+            String name = ref.substring(PARAMETERS.length());
+            Parameter component = index.parameter(name);
+            if (parameterNames.add(name) && component != null) {
+                push(component.getSchema(), pending);
+            }
+        }
+        push(parameter.getSchema(), pending);
+    }
+
+    private static void push(Schema<?> schema, Deque<Schema<?>> pending) {
+        if (schema != null) {
+            pending.push(schema);
+        }
+    }
+
+    private static String toJson(Object value) {
+        try {
+            return Json.mapper().writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    // ComposedSchema returns its sub-schemas as raw List<Schema>, which List<? extends Schema<?>> cannot accept
+    @SuppressWarnings("rawtypes")
+    private static void pushAll(List<Schema> schemas, Deque<Schema<?>> pending) {
+        if (schemas != null) {
+            schemas.forEach(schema -> push(schema, pending));
+        }
+    }
+}
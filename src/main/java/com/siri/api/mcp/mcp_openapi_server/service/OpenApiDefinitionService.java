@@ -1,63 +1,776 @@
 package com.siri.api.mcp.mcp_openapi_server.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import com.siri.api.mcp.mcp_openapi_server.dto.DocumentStatus;
+import io.swagger.v3.core.util.Json;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.Operation;
 import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.SpecVersion;
 import io.swagger.v3.parser.OpenAPIV3Parser;
+import io.swagger.v3.parser.core.models.ParseOptions;
+import io.swagger.v3.parser.core.models.SwaggerParseResult;
 import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Getter
 public class OpenApiDefinitionService {
 
     private final OpenApiProperties openApiProperties;
-    private final Map<String, ApiOperation> operationCache = new HashMap<>();
+    // Read on every tool call, so published as immutable versions that are read without locking
+    @Getter(AccessLevel.NONE)
+    private final OperationRegistry operationRegistry = new OperationRegistry();
+    private final Map<String, ComponentIndex> componentIndexes = new ConcurrentHashMap<>();
+    // Full-text index of the operations, maintained only in discovery mode
+    private final OperationSearchIndex searchIndex = new OperationSearchIndex();
+    // Registry snapshot read at startup, the configured documents restored from it, and the content hash
+    // each configured document was loaded from
+    @Getter(AccessLevel.NONE)
+    private volatile RegistrySnapshot snapshot = RegistrySnapshot.EMPTY;
+    @Getter(AccessLevel.NONE)
+    private final Set<String> restoredDocuments = ConcurrentHashMap.newKeySet();
+    @Getter(AccessLevel.NONE)
+    private final Map<String, String> contentHashes = new ConcurrentHashMap<>();
+    @Getter(AccessLevel.NONE)
+    private volatile SpecSource specSource;
+    // Load state of each configured document, the documents loaded so far and who to tell about them
+    @Getter(AccessLevel.NONE)
+    private final Map<String, DocumentStatus> documentStatuses = new ConcurrentHashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final List<OpenApiProperties.Document> publishedDocuments = new CopyOnWriteArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final List<Consumer<OpenApiProperties.Document>> loadListeners = new CopyOnWriteArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final CompletableFuture<Void> allPublished = new CompletableFuture<>();
+    // Publishes documents loaded in the background one at a time, null when loading during startup
+    @Getter(AccessLevel.NONE)
+    private volatile ThreadPoolExecutor publisher;
 
     /**
      * Get the cached OpenAPI operations
-     * @return Map of operation ID to ApiOperation
+     * @return Unmodifiable map of operation ID to ApiOperation, as of the latest change. It does not change
+     * afterwards, so it can be iterated while operations are added and removed.
      */
     public Map<String, ApiOperation> getOperationCache() {
-        return operationCache;
+        return operationRegistry.operations();
     }
 
     @PostConstruct
     public void init() {
-        OpenAPIV3Parser parser = new OpenAPIV3Parser();
-        for (OpenApiProperties.Document doc : openApiProperties.getDocuments()) {
-            OpenAPI openAPI = parser.read(doc.getLocation());
-            if (openAPI != null) {
-                openAPI.getPaths().forEach((path, pathItem) ->
-                    pathItem.readOperationsMap().forEach((httpMethod, operation) -> {
-                        if (operation.getOperationId() != null) {
-                            ApiOperation apiOperation = new ApiOperation(doc, openAPI, path, httpMethod, operation);
-                            operationCache.put(operation.getOperationId(), apiOperation);
-                        }
-                    })
-                );
+        Path snapshotPath = snapshotPath();
+        if (snapshotPath != null) {
+            snapshot = readSnapshot(snapshotPath);
+        }
+        List<OpenApiProperties.Document> documents = openApiProperties.getDocuments() != null ?
+            openApiProperties.getDocuments() : List.of();
+        documents.forEach(doc -> documentStatuses.put(doc.getName(),
+            new DocumentStatus(doc.getName(), DocumentStatus.State.PENDING, 0, null)));
+
+        if (isLoadingInBackground()) {
+            publisher = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "openapi-publish");
+                thread.setDaemon(true);
+                return thread;
+            });
+            publisher.allowCoreThreadTimeOut(true);
+            Thread dispatcher = new Thread(() -> loadDocuments(documents), "openapi-load");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+            log.info("Loading {} documents in the background", documents.size());
+        } else {
+            loadDocuments(documents);
+        }
+    }
+
+    /**
+     * Load documents and publish each one. Published in the background, documents appear in the order they
+     * finish loading; otherwise in configuration order, so a later document wins a duplicate operation ID.
+     */
+    private void loadDocuments(List<OpenApiProperties.Document> documents) {
+        long start = System.nanoTime();
+        List<CompletableFuture<LoadedDocument>> loads = loadAll(documents);
+
+        List<CompletableFuture<Void>> published = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            OpenApiProperties.Document doc = documents.get(i);
+            if (publisher != null) {
+                published.add(loads.get(i).handleAsync((loaded, error) -> {
+                    publish(doc, loaded, error);
+                    return null;
+                }, publisher));
+            } else {
+                try {
+                    publish(doc, loads.get(i).join(), null);
+                } catch (CompletionException e) {
+                    publish(doc, null, e);
+                }
+            }
+        }
+        CompletableFuture.allOf(published.toArray(CompletableFuture[]::new)).whenComplete((result, error) -> {
+            log.info("Loaded {} of {} documents in {} ms, {} restored from the registry snapshot",
+                documents.size() - getLoadErrors().size(), documents.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), restoredDocuments.size());
+            allPublished.complete(null);
+        });
+    }
+
+    /**
+     * Load documents added at runtime, e.g. those restored after a restart: read and parse them concurrently
+     * with the limits of the configured documents, then cache them in the given order, so a later document
+     * wins a duplicate operation ID. Load listeners are not told.
+     * @return Why each document that could not be loaded failed, by document name
+     */
+    public Map<String, String> loadConcurrently(List<OpenApiProperties.Document> documents) {
+        List<CompletableFuture<LoadedDocument>> loads = loadAll(documents);
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (int i = 0; i < documents.size(); i++) {
+            OpenApiProperties.Document doc = documents.get(i);
+            try {
+                add(doc, loads.get(i).join());
+            } catch (CompletionException | IllegalArgumentException e) {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                errors.put(doc.getName(), cause instanceof TimeoutException ?
+                    "timed out after " + loadingTimeout().toMillis() + " ms" : String.valueOf(cause.getMessage()));
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Add a loaded document and tell the listeners, or record why it failed
+     */
+    private void publish(OpenApiProperties.Document doc, LoadedDocument loaded, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            String message = cause instanceof TimeoutException ?
+                "timed out after " + loadingTimeout().toMillis() + " ms" : String.valueOf(cause.getMessage());
+            documentStatuses.put(doc.getName(), new DocumentStatus(doc.getName(), DocumentStatus.State.FAILED, 0, message));
+            log.error("Could not load OpenAPI document {} from {}: {}", doc.getName(), doc.getLocation(), message);
+            return;
+        }
+        int operations = add(doc, loaded);
+        publishedDocuments.add(doc);
+        for (Consumer<OpenApiProperties.Document> listener : loadListeners) {
+            try {
+                listener.accept(doc);
+            } catch (RuntimeException e) {
+                log.error("Failed to publish document {}: {}", doc.getName(), e.getMessage(), e);
+            }
+        }
+        documentStatuses.put(doc.getName(), new DocumentStatus(doc.getName(), DocumentStatus.State.LOADED, operations, null));
+    }
+
+    /**
+     * Call a listener for every configured document loaded so far and for each one loaded from now on.
+     * In background loading the listener runs on the thread publishing documents, one document at a time.
+     */
+    public void whenLoaded(Consumer<OpenApiProperties.Document> listener) {
+        Runnable subscribe = () -> {
+            publishedDocuments.forEach(listener);
+            loadListeners.add(listener);
+        };
+        if (publisher != null) {
+            publisher.execute(subscribe);
+        } else {
+            subscribe.run();
+        }
+    }
+
+    /**
+     * @return A future completed once every configured document is loaded or has failed, and after any
+     * listener registered before this call has caught up
+     */
+    public CompletableFuture<Void> loaded() {
+        // Completing on the publishing thread orders this after the catch-up of earlier listeners
+        return publisher != null ? allPublished.thenRunAsync(() -> { }, publisher) : allPublished;
+    }
+
+    /**
+     * Run an action once every configured document is loaded or has failed, after the listeners registered
+     * before it have caught up
+     */
+    public void whenAllLoaded(Runnable action) {
+        loaded().thenRun(action);
+    }
+
+    /**
+     * @return Whether configured documents load after startup instead of during it
+     */
+    public boolean isLoadingInBackground() {
+        OpenApiProperties.Loading settings = openApiProperties.getLoading();
+        return settings != null && settings.isBackground();
+    }
+
+    /**
+     * @return The load state of each configured document, in configuration order
+     */
+    public List<DocumentStatus> documentStatuses() {
+        List<OpenApiProperties.Document> documents = openApiProperties.getDocuments() != null ?
+            openApiProperties.getDocuments() : List.of();
+        return documents.stream()
+            .map(doc -> documentStatuses.get(doc.getName()))
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    /**
+     * @return Why each configured document that could not be loaded failed, by document name
+     */
+    public Map<String, String> getLoadErrors() {
+        Map<String, String> errors = new TreeMap<>();
+        documentStatuses.values().forEach(status -> {
+            if (status.getState() == DocumentStatus.State.FAILED) {
+                errors.put(status.getName(), status.getError());
+            }
+        });
+        return errors;
+    }
+
+    /**
+     * Read and parse documents concurrently on a pool of the configured number of workers. Each document's
+     * time limit starts when a worker takes it. A document that exceeds it fails and its worker is
+     * interrupted; the worker only takes the next document once the load actually returns, and a result
+     * that still arrives is ignored.
+     */
+    private List<CompletableFuture<LoadedDocument>> loadAll(List<OpenApiProperties.Document> documents) {
+        if (documents.isEmpty()) {
+            return List.of();
+        }
+        OpenApiProperties.Loading settings = openApiProperties.getLoading();
+        int parallelism = settings != null && settings.getParallelism() > 0 ? settings.getParallelism() :
+            OpenApiProperties.Loading.DEFAULT_PARALLELISM;
+        Duration timeout = loadingTimeout();
+        AtomicInteger workers = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, documents.size()), runnable -> {
+            Thread thread = new Thread(runnable, "openapi-load-" + workers.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<CompletableFuture<LoadedDocument>> loads = new ArrayList<>(documents.size());
+        try {
+            for (OpenApiProperties.Document doc : documents) {
+                CompletableFuture<LoadedDocument> load = new CompletableFuture<>();
+                loads.add(load);
+                Future<?> task = pool.submit(() -> {
+                    // Only configured documents have a load state
+                    documentStatuses.computeIfPresent(doc.getName(), (name, status) ->
+                        new DocumentStatus(name, DocumentStatus.State.LOADING, 0, null));
+                    if (!timeout.isZero() && !timeout.isNegative()) {
+                        load.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+                    }
+                    try {
+                        load.complete(prepare(doc));
+                    } catch (Throwable e) {
+                        load.completeExceptionally(e);
+                    }
+                });
+                load.whenComplete((result, error) -> {
+                    if (error instanceof TimeoutException) {
+                        task.cancel(true);
+                    }
+                });
+            }
+        } finally {
+            // The workers finish the submitted documents, then exit
+            pool.shutdown();
+        }
+        return loads;
+    }
+
+    private Duration loadingTimeout() {
+        OpenApiProperties.Loading settings = openApiProperties.getLoading();
+        return settings != null && settings.getTimeout() != null ? settings.getTimeout() :
+            OpenApiProperties.Loading.DEFAULT_TIMEOUT;
+    }
+
+    /**
+     * A configured document ready to be added
+     * @param openAPI The parsed document, or the compact model restored from the registry snapshot
+     * @param contentHash The hash to record for the next snapshot, or null to leave the document out of it
+     * @param restored Whether the document was restored from the registry snapshot
+     */
+    private record LoadedDocument(OpenAPI openAPI, String contentHash, boolean restored) {
+    }
+
+    /**
+     * Take a configured document from the registry snapshot if its content is unchanged, or when its
+     * location cannot be read, and parse its content otherwise
+     * @throws IOException if the location cannot be read and the snapshot does not have the document
+     * @throws IllegalArgumentException if the content is not a valid OpenAPI document
+     */
+    private LoadedDocument prepare(OpenApiProperties.Document doc) throws IOException {
+        String fingerprint = RegistrySnapshot.fingerprint(doc, openApiProperties.getTools());
+        RegistrySnapshot.Entry entry = snapshot.document(doc.getName());
+        if (entry != null && !entry.fingerprint().equals(fingerprint)) {
+            entry = null;
+        }
+
+        SpecSource.Content content;
+        try {
+            content = specSource().read(doc.getLocation());
+        } catch (IOException e) {
+            OpenAPI model = entry != null ? decode(doc, entry) : null;
+            if (model == null) {
+                throw e;
+            }
+            log.warn("Could not read {}, serving document {} from the registry snapshot: {}",
+                doc.getLocation(), doc.getName(), e.getMessage());
+            return new LoadedDocument(model, entry.contentHash(), true);
+        }
+
+        if (entry != null && entry.contentHash().equals(content.hash())) {
+            OpenAPI model = decode(doc, entry);
+            if (model != null) {
+                return new LoadedDocument(model, content.hash(), true);
+            }
+        }
+        OpenAPI openAPI = parse(doc, content);
+        // The snapshot model is written with the OpenAPI 3.0 mapper, so 3.1 documents are always parsed
+        return new LoadedDocument(openAPI, openAPI.getSpecVersion() != SpecVersion.V31 ? content.hash() : null, false);
+    }
+
+    /**
+     * @return The number of operations added
+     */
+    private int add(OpenApiProperties.Document doc, LoadedDocument loaded) {
+        indexComponents(doc.getName(), loaded.openAPI());
+        int operations = addOperations(doc, loaded.openAPI());
+        if (loaded.restored()) {
+            restoredDocuments.add(doc.getName());
+        }
+        if (loaded.contentHash() != null) {
+            contentHashes.put(doc.getName(), loaded.contentHash());
+        }
+        return operations;
+    }
+
+    /**
+     * Read and parse a document from its location, through the spec cache for remote locations
+     * @throws IOException if the location cannot be read and no cached copy exists
+     * @throws IllegalArgumentException if the content is not a valid OpenAPI document
+     */
+    public OpenAPI parse(OpenApiProperties.Document doc) throws IOException {
+        return parse(doc, specSource().read(doc.getLocation()));
+    }
+
+    /**
+     * Read and parse a document added at runtime, and cache its components and operations. Its content hash
+     * is recorded, so a later {@link #reload} of unchanged content is cheap.
+     * @return The number of operations added
+     * @throws IOException if the location cannot be read and no cached copy exists
+     * @throws IllegalArgumentException if the content is not a valid OpenAPI document
+     */
+    public int load(OpenApiProperties.Document doc) throws IOException {
+        return load(doc, specSource().read(doc.getLocation()));
+    }
+
+    /**
+     * Parse content already read from a document's location, e.g. uploaded bytes, and cache its components
+     * and operations
+     * @return The number of operations added
+     * @throws IllegalArgumentException if the content is not a valid OpenAPI document
+     */
+    int load(OpenApiProperties.Document doc, SpecSource.Content content) {
+        OpenAPI openAPI = parse(doc, content);
+        indexComponents(doc.getName(), openAPI);
+        int operations = addOperations(doc, openAPI);
+        contentHashes.put(doc.getName(), content.hash());
+        return operations;
+    }
+
+    private static OpenAPI parse(OpenApiProperties.Document doc, SpecSource.Content content) {
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        // The location resolves relative references to other files
+        SwaggerParseResult result = new OpenAPIV3Parser().readContents(
+            new String(content.bytes(), StandardCharsets.UTF_8), null, options, doc.getLocation());
+        if (result.getOpenAPI() == null) {
+            List<String> messages = result.getMessages() != null ? result.getMessages() : List.of();
+            throw new IllegalArgumentException("Failed to parse OpenAPI from " + doc.getLocation() +
+                (messages.isEmpty() ? "" : ": " + String.join("; ", messages)));
+        }
+        return result.getOpenAPI();
+    }
+
+    private SpecSource specSource() {
+        SpecSource source = specSource;
+        if (source == null) {
+            OpenApiProperties.SpecCache settings = openApiProperties.getSpecCache();
+            String directory = settings != null ? settings.getDirectory() : null;
+            source = new SpecSource(directory != null && !directory.isBlank() ? Path.of(directory) : null);
+            specSource = source;
+        }
+        return source;
+    }
+
+    /**
+     * @return The model of a document stored in the registry snapshot, or null if it cannot be decoded
+     */
+    private OpenAPI decode(OpenApiProperties.Document doc, RegistrySnapshot.Entry entry) {
+        try {
+            return entry.model();
+        } catch (IOException e) {
+            log.warn("Could not restore document {} from the registry snapshot: {}", doc.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private RegistrySnapshot readSnapshot(Path path) {
+        try {
+            return RegistrySnapshot.read(path);
+        } catch (IOException e) {
+            log.warn("Ignoring registry snapshot {}: {}", path, e.getMessage());
+            return RegistrySnapshot.EMPTY;
+        }
+    }
+
+    private Path snapshotPath() {
+        OpenApiProperties.Snapshot settings = openApiProperties.getSnapshot();
+        return settings != null && settings.getPath() != null && !settings.getPath().isBlank() ?
+            Path.of(settings.getPath()) : null;
+    }
+
+    /**
+     * @return The serialized input schema stored in the registry snapshot for an operation of a document
+     * restored from it, or null
+     */
+    public String snapshotSchema(String operationId) {
+        ApiOperation apiOperation = operationRegistry.get(operationId);
+        if (apiOperation == null || !restoredDocuments.contains(apiOperation.document().getName())) {
+            return null;
+        }
+        RegistrySnapshot.Entry entry = snapshot.document(apiOperation.document().getName());
+        return entry != null ? entry.schema(operationId) : null;
+    }
+
+    /**
+     * Write the registry snapshot of the configured documents, if it is enabled and would differ from the
+     * snapshot read at startup. Schemas of tools that are not compiled are carried over from that snapshot.
+     * @param compiledSchema The serialized input schema of an operation's tool, or null if it is not compiled
+     */
+    public synchronized void writeSnapshot(Function<String, String> compiledSchema) {
+        Path path = snapshotPath();
+        if (path == null) {
+            return;
+        }
+        boolean changed = false;
+        List<RegistrySnapshot.DocumentImage> images = new ArrayList<>();
+        List<OpenApiProperties.Document> documents = openApiProperties.getDocuments() != null ?
+            openApiProperties.getDocuments() : List.of();
+        for (OpenApiProperties.Document doc : documents) {
+            String contentHash = contentHashes.get(doc.getName());
+            if (contentHash == null) {
+                continue;
+            }
+            boolean restored = restoredDocuments.contains(doc.getName());
+            RegistrySnapshot.Entry entry = restored ? snapshot.document(doc.getName()) : null;
+            List<ApiOperation> operations = new ArrayList<>();
+            Map<String, String> schemas = new TreeMap<>();
+            operationRegistry.documentOperations(doc.getName()).forEach((operationId, apiOperation) -> {
+                operations.add(apiOperation);
+                String schema = compiledSchema.apply(operationId);
+                if (schema == null && entry != null) {
+                    schema = entry.schema(operationId);
+                }
+                if (schema != null) {
+                    schemas.put(operationId, schema);
+                }
+            });
+            byte[] model;
+            if (entry != null) {
+                model = entry.modelBytes();
+                changed |= schemas.size() > entry.schemaCount();
+            } else {
+                changed = true;
+                String serverUrl = operations.isEmpty() ? null : operations.get(0).serverUrl();
+                try {
+                    model = Json.mapper().writeValueAsBytes(
+                        ModelCompactor.model(serverUrl, operations, getComponentIndex(doc.getName())));
+                } catch (JsonProcessingException e) {
+                    log.warn("Leaving document {} out of the registry snapshot: {}", doc.getName(), e.getMessage());
+                    continue;
+                }
+            }
+            images.add(new RegistrySnapshot.DocumentImage(doc.getName(),
+                RegistrySnapshot.fingerprint(doc, openApiProperties.getTools()), contentHash, model, schemas));
+        }
+        if (!changed && images.size() == snapshot.documentNames().size()) {
+            return;
+        }
+
+        try {
+            RegistrySnapshot.write(path, images);
+            log.info("Wrote registry snapshot of {} documents to {}", images.size(), path);
+        } catch (IOException e) {
+            log.warn("Could not write registry snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Cache the operations of a parsed document that have an operation ID and pass the document's include
+     * and exclude rules, as compact descriptors. Nothing references the parsed document afterwards except
+     * the component schemas and parameters the cached operations reach, so callers can release it.
+     * @return The number of operations added
+     */
+    public int addOperations(OpenApiProperties.Document doc, OpenAPI openAPI) {
+        Map<String, ApiOperation> kept = keptOperations(doc, openAPI);
+        if (isDiscoveryMode()) {
+            // A restored snapshot indexes the compact copy, so it keeps the description in this mode
+            kept.forEach((operationId, apiOperation) -> searchIndex.add(operationId, apiOperation.operation()));
+        }
+        operationRegistry.update(kept, List.of());
+        componentIndexes.computeIfPresent(doc.getName(), (name, index) ->
+            ModelCompactor.retainReachable(index, operations(kept.values())));
+        return kept.size();
+    }
+
+    /**
+     * @return Compact descriptors of the operations of a parsed document that have an operation ID and pass
+     * the document's include and exclude rules, by operation ID in document order
+     */
+    private Map<String, ApiOperation> keptOperations(OpenApiProperties.Document doc, OpenAPI openAPI) {
+        Map<String, ApiOperation> kept = new LinkedHashMap<>();
+        if (openAPI.getPaths() == null) {
+            return kept;
+        }
+        OperationFilter filter = OperationFilter.of(doc);
+        boolean searchable = isDiscoveryMode();
+        int filtered = 0;
+        String serverUrl = ModelCompactor.serverUrl(openAPI);
+        for (Map.Entry<String, PathItem> entry : openAPI.getPaths().entrySet()) {
+            String path = entry.getKey();
+            PathItem pathItem = entry.getValue();
+            for (Map.Entry<PathItem.HttpMethod, Operation> method : pathItem.readOperationsMap().entrySet()) {
+                Operation operation = method.getValue();
+                if (!filter.accepts(path, method.getKey(), operation)) {
+                    filtered++;
+                } else if (operation.getOperationId() != null) {
+                    // Descriptions are searched
+                    Operation compact = ModelCompactor.compact(operation, searchable ? operation.getDescription() : null);
+                    kept.put(operation.getOperationId(), new ApiOperation(doc, serverUrl, path, method.getKey(), compact));
+                }
+            }
+        }
+        if (filtered > 0) {
+            log.info("Filtered out {} operations of document {}", filtered, doc.getName());
+        }
+        return kept;
+    }
+
+    /**
+     * Get the cached operations of one document, without looking at those of other documents
+     * @return Unmodifiable map of operation ID to ApiOperation in order, empty if the document is unknown
+     */
+    public SortedMap<String, ApiOperation> getDocumentOperations(String documentName) {
+        return operationRegistry.documentOperations(documentName);
+    }
+
+    private static List<Operation> operations(Collection<ApiOperation> apiOperations) {
+        return apiOperations.stream().map(ApiOperation::operation).toList();
+    }
+
+    /**
+     * Changes to the operations of a document made by {@link #reload}
+     * @param added IDs of the operations the document did not have, in order
+     * @param removed IDs of the operations the document no longer has, in order
+     * @param changed IDs of the operations whose descriptor or reachable components differ, in order
+     * @param unchanged The number of operations kept as they were
+     * @param componentsChanged Whether any component the document's operations reach was added, removed or changed
+     */
+    public record OperationChanges(List<String> added, List<String> removed, List<String> changed, int unchanged,
+                                   boolean componentsChanged) {
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+        }
+    }
+
+    /**
+     * Read a document again and update its cached operations to match, compared by operation ID and
+     * structural hash: added and changed operations get new descriptors, removed ones are dropped and
+     * unchanged ones keep theirs, so the tools built from them stay valid. The document's component index is
+     * replaced. Operation IDs that belong to another document are skipped.
+     * <p>
+     * Remote documents are read with a conditional request. Reading and parsing happen outside the lock
+     * that orders updates, so documents can be reloaded concurrently.
+     * @return The changes, empty if the content is the one loaded last
+     * @throws IOException if the location cannot be read
+     * @throws IllegalArgumentException if the content is not a valid OpenAPI document
+     */
+    public OperationChanges reload(OpenApiProperties.Document doc) throws IOException {
+        SpecSource.Content content = specSource().readIfChanged(doc.getLocation(), contentHashes.get(doc.getName()));
+        if (content == null) {
+            return new OperationChanges(List.of(), List.of(), List.of(), getDocumentOperations(doc.getName()).size(), false);
+        }
+        return apply(doc, parse(doc, content), content.hash());
+    }
+
+    private synchronized OperationChanges apply(OpenApiProperties.Document doc, OpenAPI openAPI, String contentHash) {
+        String name = doc.getName();
+        Map<String, ApiOperation> current = getDocumentOperations(name);
+        Map<String, ApiOperation> kept = new TreeMap<>();
+        keptOperations(doc, openAPI).forEach((operationId, apiOperation) -> {
+            ApiOperation owner = operationRegistry.get(operationId);
+            if (owner != null && !owner.document().getName().equals(name)) {
+                log.warn("Skipping operation {} of document {}, document {} already has it",
+                    operationId, name, owner.document().getName());
+            } else {
+                kept.put(operationId, apiOperation);
             }
+        });
+        ComponentIndex index = ModelCompactor.retainReachable(ComponentIndex.of(openAPI), operations(kept.values()));
+        ComponentIndex currentIndex = getComponentIndex(name);
+        Map<String, String> componentJson = ModelCompactor.componentJson(index);
+        Map<String, String> currentComponentJson = ModelCompactor.componentJson(currentIndex);
+
+        List<String> added = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        kept.forEach((operationId, apiOperation) -> {
+            ApiOperation previous = current.get(operationId);
+            if (previous == null) {
+                added.add(operationId);
+            } else if (!ModelCompactor.structuralHash(apiOperation, index, componentJson)
+                    .equals(ModelCompactor.structuralHash(previous, currentIndex, currentComponentJson))) {
+                changed.add(operationId);
+            }
+        });
+        current.keySet().forEach(operationId -> {
+            if (!kept.containsKey(operationId)) {
+                removed.add(operationId);
+            }
+        });
+
+        componentIndexes.put(name, index);
+        restoredDocuments.remove(name);
+        Map<String, ApiOperation> replaced = new LinkedHashMap<>();
+        added.forEach(operationId -> replaced.put(operationId, kept.get(operationId)));
+        changed.forEach(operationId -> replaced.put(operationId, kept.get(operationId)));
+        removed.forEach(searchIndex::remove);
+        if (isDiscoveryMode()) {
+            replaced.forEach((operationId, apiOperation) -> searchIndex.add(operationId, apiOperation.operation()));
         }
+        operationRegistry.update(replaced, removed);
+        if (openAPI.getSpecVersion() != SpecVersion.V31) {
+            contentHashes.put(name, contentHash);
+        } else {
+            contentHashes.remove(name);
+        }
+        documentStatuses.computeIfPresent(name, (key, status) ->
+            new DocumentStatus(name, DocumentStatus.State.LOADED, kept.size(), null));
+        return new OperationChanges(added, removed, changed, kept.size() - added.size() - changed.size(),
+            !componentJson.equals(currentComponentJson));
+    }
+
+    /**
+     * @return Whether tools are found through the discovery meta-tools instead of being listed
+     */
+    public boolean isDiscoveryMode() {
+        OpenApiProperties.Tools tools = openApiProperties.getTools();
+        return tools != null && tools.isDiscovery();
     }
 
     public Optional<ApiOperation> getOperation(String operationId) {
-        return Optional.ofNullable(operationCache.get(operationId));
+        return Optional.ofNullable(operationRegistry.get(operationId));
+    }
+
+    /**
+     * Drop cached operations, e.g. those of a removed document, as one change
+     */
+    public void removeOperations(Collection<String> operationIds) {
+        operationRegistry.update(Map.of(), operationIds);
+        operationIds.forEach(searchIndex::remove);
+    }
+
+    /**
+     * Index the reusable components of a document so references can be resolved against it
+     * @param documentName The name of the document the components belong to
+     * @param openAPI The parsed document
+     */
+    public void indexComponents(String documentName, OpenAPI openAPI) {
+        componentIndexes.put(documentName, ComponentIndex.of(openAPI));
+        restoredDocuments.remove(documentName);
     }
 
+    /**
+     * Get the component index of a document
+     * @return The index, or an empty index if the document is unknown
+     */
+    public ComponentIndex getComponentIndex(String documentName) {
+        return componentIndexes.getOrDefault(documentName, ComponentIndex.EMPTY);
+    }
+
+    public void removeComponentIndex(String documentName) {
+        componentIndexes.remove(documentName);
+        restoredDocuments.remove(documentName);
+        contentHashes.remove(documentName);
+    }
+
+    /**
+     * Immutable descriptor of a cached operation
+     * @param document The document the operation belongs to
+     * @param serverUrl The first server URL of the document, or null if it declares none
+     * @param path The path template
+     * @param httpMethod The HTTP method
+     * @param operation A read-only compact copy of the operation holding only what invocation and schema
+     *                  generation use; any other operation is compacted, keeping its description
+     */
     public record ApiOperation(
             OpenApiProperties.Document document,
-            OpenAPI openAPI,
+            String serverUrl,
             String path,
             PathItem.HttpMethod httpMethod,
             Operation operation
     ) {
+        public ApiOperation {
+            if (!(operation instanceof ReadOnlyOperation)) {
+                operation = ModelCompactor.compact(operation, operation.getDescription());
+            }
+        }
+
+        /**
+         * Describe an operation of a parsed document without retaining the document
+         */
+        public ApiOperation(OpenApiProperties.Document document, OpenAPI openAPI, String path,
+                            PathItem.HttpMethod httpMethod, Operation operation) {
+            this(document, ModelCompactor.serverUrl(openAPI), path, httpMethod, ModelCompactor.compact(operation, null));
+        }
     }
 }
@@ -1,48 +1,58 @@
 package com.siri.api.mcp.mcp_openapi_server.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
 import com.siri.api.mcp.mcp_openapi_server.config.ToolConfiguration;
+import com.siri.api.mcp.mcp_openapi_server.dto.Readiness;
 import com.siri.api.mcp.mcp_openapi_server.dto.ToolInfo;
-import com.siri.api.mcp.mcp_openapi_server.service.ApiClient;
-import io.modelcontextprotocol.server.McpSyncServer;
-import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
-import io.modelcontextprotocol.server.McpSyncServerExchange;
-import io.modelcontextprotocol.spec.McpSchema;
-import java.util.function.BiFunction;
-import io.swagger.v3.oas.models.OpenAPI;
-import io.swagger.v3.parser.OpenAPIV3Parser;
+import com.siri.api.mcp.mcp_openapi_server.dto.ToolPage;
+import com.siri.api.mcp.mcp_openapi_server.dto.ValidationStats;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
+import com.siri.api.mcp.mcp_openapi_server.mcp.ToolCursor;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.config.ConfigurableBeanFactory;
-import org.springframework.beans.factory.support.DefaultSingletonBeanRegistry;
 import org.springframework.stereotype.Service;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class OpenApiManagementService {
+
+    // Largest page returned by the paged tool listing
+    public static final int MAX_PAGE_SIZE = 500;
     
     private final OpenApiDefinitionService openApiDefinitionService;
     private final ToolConfiguration toolConfiguration;
-    private final ConfigurableBeanFactory beanFactory;
-    private final ObjectMapper objectMapper;
-    private final ApiClient apiClient;
+    private final McpToolRegistry toolRegistry;
+    private final UploadStore uploadStore;
     
-    @Autowired
-    private McpSyncServer mcpSyncServer;
+    // Reloads documents added from local files when the files change
+    @Autowired(required = false)
+    private SpecFileWatcher specFileWatcher;
+
+    // Reads documents added with a refresh interval again on that interval
+    @Autowired(required = false)
+    private SpecRefresher specRefresher;
+
+    // Records the documents added and removed at runtime, so they are added again after a restart
+    @Autowired(required = false)
+    private DocumentJournal documentJournal;
     
     private final Map<String, OpenApiProperties.Document> dynamicDocuments = new ConcurrentHashMap<>();
+    private volatile SortedOperations sortedOperations;
     
     public List<ToolInfo> listTools() {
         return openApiDefinitionService.getOperationCache().entrySet().stream()
@@ -54,7 +64,69 @@ public class OpenApiManagementService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * List one page of tools ordered by operation ID
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param limit The maximum number of tools, capped at {@value #MAX_PAGE_SIZE}
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    public ToolPage listTools(String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<String> operationIds = sortedOperationIds();
+        Map<String, OpenApiDefinitionService.ApiOperation> operations = openApiDefinitionService.getOperationCache();
+
+        List<ToolInfo> tools = new ArrayList<>(pageSize);
+        int index = ToolCursor.startIndex(operationIds, cursor);
+        for (; index < operationIds.size() && tools.size() < pageSize; index++) {
+            OpenApiDefinitionService.ApiOperation apiOperation = operations.get(operationIds.get(index));
+            if (apiOperation != null) {
+                tools.add(new ToolInfo(operationIds.get(index), apiOperation.operation().getSummary(),
+                    apiOperation.document().getName()));
+            }
+        }
+        String nextCursor = index < operationIds.size() ? ToolCursor.encode(operationIds.get(index)) : null;
+        return new ToolPage(tools, nextCursor);
+    }
+
+    /**
+     * Operation IDs in order, re-sorted only after the operations changed. Every change publishes a new
+     * operation map, so comparing the map sorted last by identity is enough.
+     */
+    private List<String> sortedOperationIds() {
+        SortedOperations current = sortedOperations;
+        Map<String, OpenApiDefinitionService.ApiOperation> operations = openApiDefinitionService.getOperationCache();
+        if (current == null || current.operations() != operations) {
+            List<String> operationIds = new ArrayList<>(operations.keySet());
+            operationIds.sort(null);
+            current = new SortedOperations(operations, operationIds);
+            sortedOperations = current;
+        }
+        return current.operationIds();
+    }
+
+    private record SortedOperations(Map<String, OpenApiDefinitionService.ApiOperation> operations,
+                                    List<String> operationIds) {
+    }
+
+    /**
+     * @return Whether every configured document has been loaded or has failed, with the state of each
+     */
+    public Readiness readiness() {
+        return new Readiness(openApiDefinitionService.loaded().isDone(), openApiDefinitionService.documentStatuses());
+    }
+
+    public List<ValidationStats> validationStats() {
+        return toolConfiguration.validationStats();
+    }
+    
     public void addOpenApiFromUri(String name, String uri, String overrideUrl) throws Exception {
+        addOpenApiFromUri(name, uri, overrideUrl, null);
+    }
+
+    /**
+     * @param refreshInterval How often to read the document again and apply its changes, or null for never
+     */
+    public void addOpenApiFromUri(String name, String uri, String overrideUrl, Duration refreshInterval) throws Exception {
         if (dynamicDocuments.containsKey(name)) {
             throw new IllegalArgumentException("OpenAPI document with name '" + name + "' already exists");
         }
@@ -63,146 +135,192 @@ public class OpenApiManagementService {
         document.setName(name);
         document.setLocation(uri);
         document.setOverrideUrl(overrideUrl);
+        document.setRefreshInterval(refreshInterval);
         
         loadAndRegisterOpenApi(document);
-        dynamicDocuments.put(name, document);
+        track(document);
+        journalAdded(document);
         log.info("Successfully added OpenAPI from URI: {} with name: {}", uri, name);
     }
     
+    /**
+     * @param filename The name of the uploaded file, only logged: uploads are stored by the hash of their content
+     */
     public void addOpenApiFromFileContent(String name, String content, String overrideUrl, String filename) throws Exception {
+        if (content == null || content.trim().isEmpty()) {
+            throw new IllegalArgumentException("File content is empty");
+        }
+        addOpenApiFromUpload(name, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), overrideUrl,
+            filename);
+    }
+
+    /**
+     * Add a document from an uploaded stream. The stream is hashed while it is stored, so an upload of a
+     * document that is already stored reuses its file, and the document is parsed from the uploaded bytes.
+     * @param filename The name of the uploaded file, only logged
+     */
+    public void addOpenApiFromUpload(String name, InputStream content, String overrideUrl, String filename) throws Exception {
         if (dynamicDocuments.containsKey(name)) {
             throw new IllegalArgumentException("OpenAPI document with name '" + name + "' already exists");
         }
-        
-        String tempPath = saveFileContent(content, filename != null ? filename : "uploaded-spec.json");
-        
-        OpenApiProperties.Document document = new OpenApiProperties.Document();
-        document.setName(name);
-        document.setLocation(tempPath);
-        document.setOverrideUrl(overrideUrl);
-        
-        loadAndRegisterOpenApi(document);
-        dynamicDocuments.put(name, document);
-        log.info("Successfully added OpenAPI from file content with name: {}", name);
+
+        boolean added = false;
+        try (UploadStore.Upload upload = uploadStore.store(content)) {
+            OpenApiProperties.Document document = new OpenApiProperties.Document();
+            document.setName(name);
+            document.setLocation(upload.file().toString());
+            document.setOverrideUrl(overrideUrl);
+
+            openApiDefinitionService.load(document, upload.content());
+            registerMcpToolsForDocument(document);
+            dynamicDocuments.put(name, document);
+            added = true;
+            journalAdded(document);
+            log.info("Successfully added OpenAPI from upload {} with name: {}, stored as {}{}", filename, name,
+                upload.file().getFileName(), upload.deduplicated() ? " like an earlier upload" : "");
+        } finally {
+            if (!added) {
+                uploadStore.collectGarbage(runtimeDocuments());
+            }
+        }
     }
     
     public void removeOpenApi(String name) {
         OpenApiProperties.Document document = dynamicDocuments.remove(name);
+        if (document == null && documentJournal != null && documentJournal.contains(name)) {
+            // Recorded, but could not be restored at startup
+            journalRemoved(name);
+            uploadStore.collectGarbage(runtimeDocuments());
+            log.info("Removed OpenAPI document {} from the journal", name);
+            return;
+        }
         if (document == null) {
             throw new IllegalArgumentException("OpenAPI document not found: " + name);
         }
+        if (specFileWatcher != null) {
+            specFileWatcher.unwatch(name);
+        }
+        if (specRefresher != null) {
+            specRefresher.cancel(name);
+        }
         
         removeToolsForDocument(document);
+        journalRemoved(name);
+        uploadStore.collectGarbage(runtimeDocuments());
         log.info("Successfully removed OpenAPI document: {}", name);
     }
-    
-    private void loadAndRegisterOpenApi(OpenApiProperties.Document document) throws Exception {
-        OpenAPIV3Parser parser = new OpenAPIV3Parser();
-        OpenAPI openAPI = parser.read(document.getLocation());
-        
-        if (openAPI == null) {
-            throw new IllegalArgumentException("Failed to parse OpenAPI from: " + document.getLocation());
+
+    /**
+     * Once the configured documents are loaded, add the documents recorded in the journal again, then
+     * delete the uploads no document refers to
+     */
+    @PostConstruct
+    public void restoreDocuments() {
+        openApiDefinitionService.whenAllLoaded(() -> {
+            try {
+                restore();
+            } catch (IOException | RuntimeException e) {
+                log.error("Could not restore the documents added at runtime: {}", e.getMessage(), e);
+            }
+            uploadStore.collectGarbage(runtimeDocuments());
+        });
+    }
+
+    /**
+     * Add the documents recorded in the journal: they are read and parsed concurrently, and their tools are
+     * registered as one batch. A document that cannot be loaded stays in the journal for the next start.
+     * @return The number of documents restored
+     */
+    int restore() throws IOException {
+        if (documentJournal == null || !documentJournal.isEnabled()) {
+            return 0;
         }
-        
-        openAPI.getPaths().forEach((path, pathItem) ->
-            pathItem.readOperationsMap().forEach((httpMethod, operation) -> {
-                if (operation.getOperationId() != null) {
-                    OpenApiDefinitionService.ApiOperation apiOperation = 
-                        new OpenApiDefinitionService.ApiOperation(document, openAPI, path, httpMethod, operation);
-                    openApiDefinitionService.getOperationCache().put(operation.getOperationId(), apiOperation);
-                }
-            })
-        );
-        
-        registerMcpToolsForDocument(document);
+        List<OpenApiProperties.Document> documents = documentJournal.open();
+        if (documents.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        Map<String, String> errors = openApiDefinitionService.loadConcurrently(documents);
+        Map<String, OpenApiDefinitionService.ApiOperation> operations = new HashMap<>();
+        for (OpenApiProperties.Document document : documents) {
+            String error = errors.get(document.getName());
+            if (error != null) {
+                log.error("Could not restore OpenAPI document {} from {}: {}", document.getName(),
+                    document.getLocation(), error);
+                continue;
+            }
+            operations.putAll(openApiDefinitionService.getDocumentOperations(document.getName()));
+            track(document);
+        }
+        toolConfiguration.registerOperations(operations);
+        log.info("Restored {} of {} documents added at runtime in {} ms", documents.size() - errors.size(),
+            documents.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return documents.size() - errors.size();
     }
-    
-    private String saveFileContent(String content, String originalFilename) throws IOException {
-        if (content == null || content.trim().isEmpty()) {
-            throw new IllegalArgumentException("File content is empty");
+
+    /**
+     * Keep a document added at runtime, and watch or refresh it as it asks
+     */
+    private void track(OpenApiProperties.Document document) {
+        dynamicDocuments.put(document.getName(), document);
+        if (specFileWatcher != null) {
+            specFileWatcher.watch(document);
         }
-        
-        Path uploadDir = Paths.get("uploads");
-        if (!Files.exists(uploadDir)) {
-            Files.createDirectories(uploadDir);
+        if (specRefresher != null) {
+            specRefresher.schedule(document);
         }
+    }
+
+    /**
+     * @return The documents added at runtime, including those recorded in the journal that could not be restored
+     */
+    private List<OpenApiProperties.Document> runtimeDocuments() {
+        List<OpenApiProperties.Document> documents = new ArrayList<>(dynamicDocuments.values());
+        if (documentJournal != null) {
+            documents.addAll(documentJournal.documents());
+        }
+        return documents;
+    }
+
+    private void journalAdded(OpenApiProperties.Document document) {
+        if (documentJournal != null) {
+            try {
+                documentJournal.recordAdded(document);
+            } catch (IOException e) {
+                log.warn("Could not record document {} in the journal, it will not be restored after a restart: {}",
+                    document.getName(), e.getMessage());
+            }
+        }
+    }
+
+    private void journalRemoved(String name) {
+        if (documentJournal != null) {
+            try {
+                documentJournal.recordRemoved(name);
+            } catch (IOException e) {
+                log.warn("Could not record the removal of document {} in the journal, it will be restored after a restart: {}",
+                    name, e.getMessage());
+            }
+        }
+    }
+    
+    private void loadAndRegisterOpenApi(OpenApiProperties.Document document) throws Exception {
+        openApiDefinitionService.load(document);
         
-        String filename = System.currentTimeMillis() + "_" + (originalFilename != null ? originalFilename : "uploaded-spec.json");
-        Path filePath = uploadDir.resolve(filename);
-        
-        Files.write(filePath, content.getBytes(StandardCharsets.UTF_8));
-        
-        return filePath.toString();
+        registerMcpToolsForDocument(document);
     }
     
     private void registerMcpToolsForDocument(OpenApiProperties.Document document) {
-        openApiDefinitionService.getOperationCache().entrySet().stream()
-            .filter(entry -> entry.getValue().document().getName().equals(document.getName()))
-            .forEach(entry -> {
-                String operationId = entry.getKey();
-                OpenApiDefinitionService.ApiOperation apiOperation = entry.getValue();
-                
-                try {
-                    toolConfiguration.registerSingleOperation(operationId, apiOperation);
-                    
-                    String description = apiOperation.operation().getSummary() != null ?
-                            apiOperation.operation().getSummary() :
-                            "Operation: " + operationId;
-                    
-                    String schema = toolConfiguration.convertParametersToJsonSchema(apiOperation.operation());
-                    
-                    McpSchema.Tool mcpTool = new McpSchema.Tool(operationId, description, schema);
-                    
-                    BiFunction<McpSyncServerExchange, Map<String, Object>, McpSchema.CallToolResult> callHandler = 
-                        (exchange, params) -> {
-                            try {
-                                Object result = apiClient.invoke(operationId, params);
-                                return new McpSchema.CallToolResult(
-                                    List.of(new McpSchema.TextContent(result.toString())),
-                                    false
-                                );
-                            } catch (Exception e) {
-                                log.error("Error invoking tool {}: {}", operationId, e.getMessage(), e);
-                                return new McpSchema.CallToolResult(
-                                    List.of(new McpSchema.TextContent("Error: " + e.getMessage())),
-                                    true
-                                );
-                            }
-                        };
-                    
-                    SyncToolSpecification toolSpec = new SyncToolSpecification(mcpTool, callHandler);
-                    mcpSyncServer.addTool(toolSpec);
-                    log.info("Successfully registered MCP tool: {}", operationId);
-                    
-                } catch (Exception e) {
-                    log.error("Failed to register MCP tool {}: {}", operationId, e.getMessage(), e);
-                }
-            });
+        // One registry batch and one tools/list change for the whole document
+        toolConfiguration.registerNewOperations(document);
     }
     
     private void removeToolsForDocument(OpenApiProperties.Document document) {
-        openApiDefinitionService.getOperationCache().entrySet().removeIf(entry -> {
-            if (entry.getValue().document().getName().equals(document.getName())) {
-                String operationId = entry.getKey();
-                
-                try {
-                    mcpSyncServer.removeTool(operationId);
-                    log.info("Removed MCP tool: {}", operationId);
-                    
-                    String beanName = operationId + "Tool";
-                    if (beanFactory.containsSingleton(beanName)) {
-                        if (beanFactory instanceof DefaultSingletonBeanRegistry) {
-                            ((DefaultSingletonBeanRegistry) beanFactory).destroySingleton(beanName);
-                            log.info("Removed tool bean: {}", beanName);
-                        }
-                    }
-                } catch (Exception e) {
-                    log.warn("Error removing MCP tool {}: {}", operationId, e.getMessage());
-                }
-                
-                return true;
-            }
-            return false;
-        });
+        List<String> operationIds = List.copyOf(openApiDefinitionService.getDocumentOperations(document.getName()).keySet());
+        toolConfiguration.removeOperations(operationIds);
+        toolConfiguration.evictDocument(document.getName());
+        openApiDefinitionService.removeComponentIndex(document.getName());
+        openApiDefinitionService.removeOperations(operationIds);
+        log.info("Removed {} MCP tools of document {}", operationIds.size(), document.getName());
     }
 }
@@ -0,0 +1,108 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Decides which operations of a document become tools, from the document's include and exclude rules.
+ * <p>
+ * An operation is kept when it satisfies every non-empty include criterion and none of the exclude
+ * criteria. The rules are compiled once per document and only look at the operation's path, method,
+ * tags and ID, so they run before any schema work.
+ */
+public class OperationFilter {
+
+    private static final OperationFilter ALL = new OperationFilter(null, null);
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final Rules include;
+    private final Rules exclude;
+
+    private OperationFilter(Rules include, Rules exclude) {
+        this.include = include;
+        this.exclude = exclude;
+    }
+
+    /**
+     * @throws IllegalArgumentException if an operation ID pattern is not a valid regular expression
+     */
+    public static OperationFilter of(OpenApiProperties.Document document) {
+        Rules include = Rules.compile(document.getInclude());
+        Rules exclude = Rules.compile(document.getExclude());
+        return include == null && exclude == null ? ALL : new OperationFilter(include, exclude);
+    }
+
+    public boolean accepts(String path, PathItem.HttpMethod httpMethod, Operation operation) {
+        if (include != null && !include.matchesAll(path, httpMethod, operation)) {
+            return false;
+        }
+        return exclude == null || !exclude.matchesAny(path, httpMethod, operation);
+    }
+
+    /**
+     * @return Whether the filter keeps every operation
+     */
+    public boolean acceptsAll() {
+        return this == ALL;
+    }
+
+    private record Rules(Set<String> tags, List<String> paths, Set<String> methods, List<Pattern> operationIds) {
+
+        static Rules compile(OpenApiProperties.OperationRules rules) {
+            if (rules == null) {
+                return null;
+            }
+            Rules compiled = new Rules(
+                Set.copyOf(orEmpty(rules.getTags())),
+                List.copyOf(orEmpty(rules.getPaths())),
+                orEmpty(rules.getMethods()).stream()
+                    .map(method -> method.toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet()),
+                orEmpty(rules.getOperationIds()).stream().map(Pattern::compile).toList());
+            return compiled.isEmpty() ? null : compiled;
+        }
+
+        boolean matchesAll(String path, PathItem.HttpMethod httpMethod, Operation operation) {
+            return (tags.isEmpty() || matchesTag(operation))
+                && (paths.isEmpty() || matchesPath(path))
+                && (methods.isEmpty() || methods.contains(httpMethod.name()))
+                && (operationIds.isEmpty() || matchesOperationId(operation));
+        }
+
+        boolean matchesAny(String path, PathItem.HttpMethod httpMethod, Operation operation) {
+            return matchesTag(operation)
+                || matchesPath(path)
+                || methods.contains(httpMethod.name())
+                || matchesOperationId(operation);
+        }
+
+        private boolean matchesTag(Operation operation) {
+            return operation.getTags() != null && operation.getTags().stream().anyMatch(tags::contains);
+        }
+
+        private boolean matchesPath(String path) {
+            return paths.stream().anyMatch(glob -> PATH_MATCHER.match(glob, path));
+        }
+
+        private boolean matchesOperationId(Operation operation) {
+            return operation.getOperationId() != null
+                && operationIds.stream().anyMatch(pattern -> pattern.matcher(operation.getOperationId()).matches());
+        }
+
+        private boolean isEmpty() {
+            return tags.isEmpty() && paths.isEmpty() && methods.isEmpty() && operationIds.isEmpty();
+        }
+
+        private static <T> List<T> orEmpty(List<T> values) {
+            return values != null ? values : List.of();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.siri.api.mcp.mcp_openapi_server.service.OpenApiDefinitionService.ApiOperation;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The cached operations, published as immutable versions.
+ * <p>
+ * Readers get the current version with a single volatile read and never wait, however many changes are
+ * being made; a version they hold never changes under them. Writers derive a new version from the current
+ * one and swap it in with a compare-and-set, retrying if another writer got there first.
+ * <p>
+ * Each version also indexes the operations by document, so adding, reloading or removing a document only
+ * looks at that document's operations. Both maps are {@link PersistentMap}s: a change copies the trie
+ * paths of the operations it adds or removes and the index entries of the documents it touches, and
+ * shares everything else with the previous version, so its cost does not grow with the other documents.
+ */
+final class OperationRegistry {
+
+    /**
+     * One version of the cached operations
+     * @param number Increases with every change
+     * @param operations Operations by operation ID
+     * @param documents The same operations by document name, then by operation ID in order, unmodifiable
+     */
+    record Version(long number, PersistentMap<ApiOperation> operations,
+                   PersistentMap<SortedMap<String, ApiOperation>> documents) {
+    }
+
+    private static final SortedMap<String, ApiOperation> EMPTY = Collections.emptySortedMap();
+
+    private final AtomicReference<Version> current =
+        new AtomicReference<>(new Version(0, PersistentMap.empty(), PersistentMap.empty()));
+
+    Version current() {
+        return current.get();
+    }
+
+    Map<String, ApiOperation> operations() {
+        return current.get().operations();
+    }
+
+    ApiOperation get(String operationId) {
+        return current.get().operations().get(operationId);
+    }
+
+    /**
+     * @return The operations of a document by operation ID in order, unmodifiable
+     */
+    SortedMap<String, ApiOperation> documentOperations(String documentName) {
+        return current.get().documents().getOrDefault(documentName, EMPTY);
+    }
+
+    /**
+     * Publish a version without the removed operations and with the added ones, replacing operations
+     * with the same ID
+     * @return The published version
+     */
+    Version update(Map<String, ApiOperation> added, Collection<String> removed) {
+        if (added.isEmpty() && removed.isEmpty()) {
+            return current.get();
+        }
+        return current.updateAndGet(version -> {
+            PersistentMap<ApiOperation> operations = version.operations();
+            // Copies of the index entries of the documents this change touches
+            Map<String, SortedMap<String, ApiOperation>> touched = new HashMap<>();
+            for (String operationId : removed) {
+                unindex(operations.get(operationId), operationId, version, touched);
+                operations = operations.minus(operationId);
+            }
+            for (Map.Entry<String, ApiOperation> entry : added.entrySet()) {
+                String operationId = entry.getKey();
+                ApiOperation apiOperation = entry.getValue();
+                unindex(operations.get(operationId), operationId, version, touched);
+                operations = operations.plus(operationId, apiOperation);
+                entry(apiOperation.document().getName(), version, touched).put(operationId, apiOperation);
+            }
+
+            PersistentMap<SortedMap<String, ApiOperation>> documents = version.documents();
+            for (Map.Entry<String, SortedMap<String, ApiOperation>> entry : touched.entrySet()) {
+                documents = entry.getValue().isEmpty() ? documents.minus(entry.getKey()) :
+                    documents.plus(entry.getKey(), Collections.unmodifiableSortedMap(entry.getValue()));
+            }
+            return new Version(version.number() + 1, operations, documents);
+        });
+    }
+
+    private static void unindex(ApiOperation previous, String operationId, Version version,
+                                Map<String, SortedMap<String, ApiOperation>> touched) {
+        if (previous != null) {
+            entry(previous.document().getName(), version, touched).remove(operationId);
+        }
+    }
+
+    private static SortedMap<String, ApiOperation> entry(String documentName, Version version,
+                                                         Map<String, SortedMap<String, ApiOperation>> touched) {
+        return touched.computeIfAbsent(documentName,
+            name -> new TreeMap<>(version.documents().getOrDefault(name, EMPTY)));
+    }
+}
@@ -0,0 +1,362 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.parameters.Parameter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory full-text index of operations, used to find tools when the registry is too large to list.
+ * <p>
+ * Operation IDs, summaries, descriptions, tags and parameter names are split into lowercase terms
+ * (camel case and digits included) and kept in an inverted index scored with BM25, with per-field weights
+ * applied to term frequencies. A query term that is not in the vocabulary is replaced by the vocabulary
+ * terms sharing enough character trigrams with it, so misspelled or partial words still match.
+ * Operations are added and removed individually; nothing is rebuilt.
+ */
+public class OperationSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Minimum Dice coefficient over trigrams for a vocabulary term to stand in for an unknown query term
+    private static final double MIN_SIMILARITY = 0.45;
+    // Most vocabulary terms an unknown query term is expanded to
+    private static final int MAX_EXPANSIONS = 8;
+
+    private static final float OPERATION_ID_WEIGHT = 3f;
+    private static final float SUMMARY_WEIGHT = 2f;
+    private static final float TAG_WEIGHT = 2f;
+    private static final float PARAMETER_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private final Map<String, IndexedOperation> operations = new HashMap<>();
+    private final Map<String, Posting> postings = new HashMap<>();
+    private final Map<String, Set<String>> termsByGram = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Indexed operations by dense slot, so query scores accumulate in a plain array
+    private IndexedOperation[] slots = new IndexedOperation[64];
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private int slotCount;
+    private double totalLength;
+
+    /**
+     * A search result
+     * @param operationId The matching operation
+     * @param score The BM25 relevance, higher is better
+     */
+    public record Hit(String operationId, double score) {
+    }
+
+    /**
+     * An indexed operation with its weighted term frequencies and slot
+     */
+    private static final class IndexedOperation {
+        private final String operationId;
+        private final Map<String, Float> terms;
+        private final float length;
+        private int slot;
+
+        IndexedOperation(String operationId, Map<String, Float> terms) {
+            this.operationId = operationId;
+            this.terms = terms;
+            float sum = 0;
+            for (float frequency : terms.values()) {
+                sum += frequency;
+            }
+            this.length = sum;
+        }
+    }
+
+    /**
+     * The slots of the operations containing a term, with the term's weighted frequency in each
+     */
+    private static final class Posting {
+        private int[] slots = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+
+        void add(int slot, float frequency) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            slots[size] = slot;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    size--;
+                    slots[i] = slots[size];
+                    frequencies[i] = frequencies[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Index an operation, replacing any operation indexed under the same ID
+     */
+    public void add(String operationId, Operation operation) {
+        Map<String, Float> terms = new HashMap<>();
+        addTerms(terms, operationId, OPERATION_ID_WEIGHT);
+        addTerms(terms, operation.getSummary(), SUMMARY_WEIGHT);
+        addTerms(terms, operation.getDescription(), DESCRIPTION_WEIGHT);
+        if (operation.getTags() != null) {
+            operation.getTags().forEach(tag -> addTerms(terms, tag, TAG_WEIGHT));
+        }
+        if (operation.getParameters() != null) {
+            for (Parameter parameter : operation.getParameters()) {
+                addTerms(terms, parameterName(parameter), PARAMETER_WEIGHT);
+            }
+        }
+        IndexedOperation indexed = new IndexedOperation(operationId, terms);
+
+        lock.writeLock().lock();
+        try {
+            unindex(operations.remove(operationId));
+            indexed.slot = allocateSlot(indexed);
+            operations.put(operationId, indexed);
+            totalLength += indexed.length;
+            indexed.terms.forEach((term, frequency) -> {
+                Posting posting = postings.get(term);
+                if (posting == null) {
+                    posting = new Posting();
+                    postings.put(term, posting);
+                    for (String gram : grams(term)) {
+                        termsByGram.computeIfAbsent(gram, key -> new HashSet<>()).add(term);
+                    }
+                }
+                posting.add(indexed.slot, frequency);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if the operation was indexed
+     */
+    public boolean remove(String operationId) {
+        lock.writeLock().lock();
+        try {
+            IndexedOperation removed = operations.remove(operationId);
+            unindex(removed);
+            return removed != null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return operations.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the operations best matching a free-text query
+     * @param limit The maximum number of hits
+     * @return Hits ordered by descending score, then operation ID
+     */
+    public List<Hit> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (operations.isEmpty()) {
+                return List.of();
+            }
+            double averageLength = totalLength / operations.size();
+            double[] scores = new double[slotCount];
+            for (String queryTerm : queryTerms) {
+                Map<String, Double> matches = postings.containsKey(queryTerm) ?
+                    Map.of(queryTerm, 1.0) : similarTerms(queryTerm);
+                matches.forEach((term, similarity) -> score(term, similarity, averageLength, scores));
+            }
+            return top(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void score(String term, double weight, double averageLength, double[] scores) {
+        Posting posting = postings.get(term);
+        int documentFrequency = posting.size;
+        double idf = Math.log(1 + (operations.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        double factor = weight * idf * (K1 + 1);
+        for (int i = 0; i < posting.size; i++) {
+            int slot = posting.slots[i];
+            float frequency = posting.frequencies[i];
+            double norm = K1 * (1 - B + B * slots[slot].length / averageLength);
+            scores[slot] += factor * frequency / (frequency + norm);
+        }
+    }
+
+    /**
+     * The vocabulary terms most similar to an unknown query term, with their trigram similarity
+     */
+    private Map<String, Double> similarTerms(String queryTerm) {
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : new HashSet<>(grams(queryTerm))) {
+            Set<String> terms = termsByGram.get(gram);
+            if (terms != null) {
+                terms.forEach(term -> shared.merge(term, 1, Integer::sum));
+            }
+        }
+
+        List<Map.Entry<String, Double>> similar = new ArrayList<>();
+        shared.forEach((term, count) -> {
+            // A padded term of n characters has n trigrams
+            double similarity = 2.0 * count / (queryTerm.length() + term.length());
+            if (similarity >= MIN_SIMILARITY) {
+                similar.add(Map.entry(term, similarity));
+            }
+        });
+        similar.sort(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        Map<String, Double> best = new HashMap<>();
+        for (Map.Entry<String, Double> entry : similar.subList(0, Math.min(MAX_EXPANSIONS, similar.size()))) {
+            best.put(entry.getKey(), entry.getValue());
+        }
+        return best;
+    }
+
+    private List<Hit> top(double[] scores, int limit) {
+        Comparator<Hit> ranking = Comparator.comparingDouble(Hit::score).reversed().thenComparing(Hit::operationId);
+        PriorityQueue<Hit> best = new PriorityQueue<>(ranking.reversed());
+        for (int slot = 0; slot < scores.length; slot++) {
+            if (scores[slot] <= 0) {
+                continue;
+            }
+            if (best.size() == limit && scores[slot] < best.peek().score()) {
+                continue;
+            }
+            best.add(new Hit(slots[slot].operationId, scores[slot]));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(ranking);
+        return hits;
+    }
+
+    private int allocateSlot(IndexedOperation operation) {
+        Integer free = freeSlots.poll();
+        int slot = free != null ? free : slotCount++;
+        if (slot == slots.length) {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+        }
+        slots[slot] = operation;
+        return slot;
+    }
+
+    private void unindex(IndexedOperation operation) {
+        if (operation == null) {
+            return;
+        }
+        totalLength -= operation.length;
+        slots[operation.slot] = null;
+        freeSlots.push(operation.slot);
+        for (String term : operation.terms.keySet()) {
+            Posting posting = postings.get(term);
+            posting.remove(operation.slot);
+            if (posting.size == 0) {
+                postings.remove(term);
+                for (String gram : grams(term)) {
+                    Set<String> terms = termsByGram.get(gram);
+                    terms.remove(term);
+                    if (terms.isEmpty()) {
+                        termsByGram.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String parameterName(Parameter parameter) {
+        if (parameter.getName() != null) {
+            return parameter.getName();
+        }
+        String ref = parameter.get$ref();
+        return ref != null ? ref.substring(ref.lastIndexOf('/') + 1) : null;
+    }
+
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String term : tokenize(text)) {
+            terms.merge(term, weight, Float::sum);
+        }
+    }
+
+    /**
+     * Split text into lowercase terms at non-alphanumeric characters, camel case humps and letter/digit changes
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                flush(current, terms);
+                continue;
+            }
+            if (current.length() > 0) {
+                char previous = text.charAt(i - 1);
+                boolean hump = Character.isUpperCase(c) && (Character.isLowerCase(previous) ||
+                    (i + 1 < text.length() && Character.isLowerCase(text.charAt(i + 1)) && Character.isUpperCase(previous)));
+                if (hump || Character.isDigit(c) != Character.isDigit(previous)) {
+                    flush(current, terms);
+                }
+            }
+            current.append(c);
+        }
+        flush(current, terms);
+        return terms;
+    }
+
+    private static void flush(StringBuilder current, List<String> terms) {
+        if (current.length() > 0) {
+            terms.add(current.toString().toLowerCase(Locale.ROOT));
+            current.setLength(0);
+        }
+    }
+
+    /**
+     * Character trigrams of a term padded with boundary markers, so short terms have grams too
+     */
+    private static List<String> grams(String term) {
+        String padded = "^" + term + "$";
+        List<String> grams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
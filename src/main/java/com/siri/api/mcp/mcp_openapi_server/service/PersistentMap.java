@@ -0,0 +1,327 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable map from strings to values that is changed by making new versions sharing structure with it.
+ * <p>
+ * Entries are kept in a hash trie of 32-way branches picked by five bits of the key's hash at a time.
+ * {@link #plus} and {@link #minus} copy only the branches on the path to the entry, at most seven, and share
+ * every other branch with the map they were called on; lookups follow the same path. Keys with equal
+ * hashes share a collision node. Null values are not allowed. The map cannot be changed through the
+ * {@link Map} interface.
+ */
+final class PersistentMap<V> extends AbstractMap<String, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentMap<?> EMPTY = new PersistentMap<>(null, 0);
+
+    // A Branch, a Collision, a Leaf or null when empty
+    private final Object root;
+    private final int size;
+
+    private record Leaf(int hash, String key, Object value) {
+    }
+
+    /**
+     * Children by the bits of the hash at one level, in bit order; each is a Leaf, Branch or Collision
+     */
+    private record Branch(int bitmap, Object[] children) {
+    }
+
+    /**
+     * Leaves whose keys have the same hash
+     */
+    private record Collision(int hash, Object[] children) {
+    }
+
+    private PersistentMap(Object root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> PersistentMap<V> empty() {
+        return (PersistentMap<V>) EMPTY;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        int hash = name.hashCode();
+        Object node = root;
+        for (int shift = 0; node != null; shift += BITS) {
+            if (node instanceof Leaf leaf) {
+                return leaf.key().equals(name) ? (V) leaf.value() : null;
+            }
+            if (node instanceof Collision collision) {
+                Leaf leaf = collision.hash() == hash ? find(collision.children(), name) : null;
+                return leaf != null ? (V) leaf.value() : null;
+            }
+            Branch branch = (Branch) node;
+            int bit = bit(hash, shift);
+            node = (branch.bitmap() & bit) != 0 ? branch.children()[index(branch.bitmap(), bit)] : null;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return A map with the entry added or replaced, or this map if it already holds the same value
+     */
+    PersistentMap<V> plus(String key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not allowed");
+        }
+        Leaf leaf = new Leaf(key.hashCode(), key, value);
+        if (root == null) {
+            return new PersistentMap<>(leaf, 1);
+        }
+        boolean[] added = new boolean[1];
+        Object changed = put(root, 0, leaf, added);
+        return changed == root ? this : new PersistentMap<>(changed, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * @return A map without the key, or this map if it does not hold it
+     */
+    PersistentMap<V> minus(String key) {
+        if (root == null) {
+            return this;
+        }
+        Object changed = remove(root, 0, key.hashCode(), key);
+        return changed == root ? this : new PersistentMap<>(changed, size - 1);
+    }
+
+    /**
+     * @return The number of trie nodes of this map that are not shared with the other map
+     */
+    int nodesNotIn(PersistentMap<?> other) {
+        Set<Object> shared = Collections.newSetFromMap(new IdentityHashMap<>());
+        collect(other.root, shared);
+        Set<Object> own = Collections.newSetFromMap(new IdentityHashMap<>());
+        collect(root, own);
+        own.removeAll(shared);
+        return own.size();
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, V>> iterator() {
+                return new Entries();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static Object put(Object node, int shift, Leaf leaf, boolean[] added) {
+        if (node instanceof Leaf existing) {
+            if (existing.key().equals(leaf.key())) {
+                return existing.value() == leaf.value() ? existing : leaf;
+            }
+            added[0] = true;
+            return merge(existing, existing.hash(), leaf, shift);
+        }
+        if (node instanceof Collision collision) {
+            if (collision.hash() != leaf.hash()) {
+                added[0] = true;
+                return merge(collision, collision.hash(), leaf, shift);
+            }
+            Object[] children = collision.children();
+            for (int i = 0; i < children.length; i++) {
+                Leaf existing = (Leaf) children[i];
+                if (existing.key().equals(leaf.key())) {
+                    return existing.value() == leaf.value() ? collision : new Collision(collision.hash(), with(children, i, leaf));
+                }
+            }
+            added[0] = true;
+            return new Collision(collision.hash(), inserted(children, children.length, leaf));
+        }
+
+        Branch branch = (Branch) node;
+        int bit = bit(leaf.hash(), shift);
+        int index = index(branch.bitmap(), bit);
+        if ((branch.bitmap() & bit) == 0) {
+            added[0] = true;
+            return new Branch(branch.bitmap() | bit, inserted(branch.children(), index, leaf));
+        }
+        Object child = branch.children()[index];
+        Object changed = put(child, shift + BITS, leaf, added);
+        return changed == child ? branch : new Branch(branch.bitmap(), with(branch.children(), index, changed));
+    }
+
+    /**
+     * @return A node holding both a node and a leaf whose hashes differ, or a collision if they are equal
+     */
+    private static Object merge(Object node, int hash, Leaf leaf, int shift) {
+        if (hash == leaf.hash()) {
+            return new Collision(hash, new Object[]{node, leaf});
+        }
+        int nodeBit = bit(hash, shift);
+        int leafBit = bit(leaf.hash(), shift);
+        if (nodeBit == leafBit) {
+            return new Branch(nodeBit, new Object[]{merge(node, hash, leaf, shift + BITS)});
+        }
+        return new Branch(nodeBit | leafBit, Integer.compareUnsigned(nodeBit, leafBit) < 0 ?
+            new Object[]{node, leaf} : new Object[]{leaf, node});
+    }
+
+    /**
+     * @return The node without the key: the same node if it does not hold it, null if nothing is left, or a
+     * single remaining leaf so that it can move up
+     */
+    private static Object remove(Object node, int shift, int hash, String key) {
+        if (node instanceof Leaf leaf) {
+            return leaf.key().equals(key) ? null : leaf;
+        }
+        if (node instanceof Collision collision) {
+            Object[] children = collision.children();
+            for (int i = 0; i < children.length; i++) {
+                if (((Leaf) children[i]).key().equals(key)) {
+                    return children.length == 2 ? children[1 - i] : new Collision(collision.hash(), without(children, i));
+                }
+            }
+            return collision;
+        }
+
+        Branch branch = (Branch) node;
+        int bit = bit(hash, shift);
+        if ((branch.bitmap() & bit) == 0) {
+            return branch;
+        }
+        int index = index(branch.bitmap(), bit);
+        Object child = branch.children()[index];
+        Object changed = remove(child, shift + BITS, hash, key);
+        if (changed == child) {
+            return branch;
+        }
+        if (changed != null) {
+            Object[] children = with(branch.children(), index, changed);
+            return children.length == 1 && changed instanceof Leaf && shift > 0 ? changed : new Branch(branch.bitmap(), children);
+        }
+        if (branch.children().length == 1) {
+            return null;
+        }
+        Object[] children = without(branch.children(), index);
+        // A branch left with one leaf is replaced by the leaf, except at the root
+        return children.length == 1 && children[0] instanceof Leaf && shift > 0 ? children[0] :
+            new Branch(branch.bitmap() & ~bit, children);
+    }
+
+    private static void collect(Object node, Set<Object> nodes) {
+        Deque<Object> pending = new ArrayDeque<>();
+        if (node != null) {
+            pending.push(node);
+        }
+        while (!pending.isEmpty()) {
+            Object current = pending.pop();
+            nodes.add(current);
+            Object[] children = current instanceof Branch branch ? branch.children() :
+                current instanceof Collision collision ? collision.children() : new Object[0];
+            for (Object child : children) {
+                pending.push(child);
+            }
+        }
+    }
+
+    private static Leaf find(Object[] leaves, String key) {
+        for (Object child : leaves) {
+            if (((Leaf) child).key().equals(key)) {
+                return (Leaf) child;
+            }
+        }
+        return null;
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static int index(int bitmap, int bit) {
+        return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    private static Object[] with(Object[] children, int index, Object child) {
+        Object[] copy = children.clone();
+        copy[index] = child;
+        return copy;
+    }
+
+    private static Object[] inserted(Object[] children, int index, Object child) {
+        Object[] copy = new Object[children.length + 1];
+        System.arraycopy(children, 0, copy, 0, index);
+        copy[index] = child;
+        System.arraycopy(children, index, copy, index + 1, children.length - index);
+        return copy;
+    }
+
+    private static Object[] without(Object[] children, int index) {
+        Object[] copy = new Object[children.length - 1];
+        System.arraycopy(children, 0, copy, 0, index);
+        System.arraycopy(children, index + 1, copy, index, children.length - index - 1);
+        return copy;
+    }
+
+    /**
+     * Walks the leaves depth first with a stack of the nodes still to visit
+     */
+    private final class Entries implements Iterator<Map.Entry<String, V>> {
+
+        private final Deque<Object> pending = new ArrayDeque<>();
+
+        Entries() {
+            if (root != null) {
+                pending.push(root);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !pending.isEmpty();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<String, V> next() {
+            while (!pending.isEmpty()) {
+                Object node = pending.pop();
+                if (node instanceof Leaf leaf) {
+                    return new AbstractMap.SimpleImmutableEntry<>(leaf.key(), (V) leaf.value());
+                }
+                Object[] children = node instanceof Branch branch ? branch.children() : ((Collision) node).children();
+                for (int i = children.length - 1; i >= 0; i--) {
+                    pending.push(children[i]);
+                }
+            }
+            throw new NoSuchElementException();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import io.swagger.v3.oas.models.ExternalDocumentation;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.callbacks.Callback;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import io.swagger.v3.oas.models.parameters.RequestBody;
+import io.swagger.v3.oas.models.responses.ApiResponses;
+import io.swagger.v3.oas.models.security.SecurityRequirement;
+import io.swagger.v3.oas.models.servers.Server;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact operation held by an {@link OpenApiDefinitionService.ApiOperation}, which cannot be changed once
+ * built. Its tags and parameters are unmodifiable lists, and its parameters and request body are copies
+ * owned by the descriptor.
+ */
+final class ReadOnlyOperation extends Operation {
+
+    ReadOnlyOperation(String operationId, String summary, String description, List<String> tags,
+                      List<Parameter> parameters, RequestBody requestBody) {
+        super.setOperationId(operationId);
+        super.setSummary(summary);
+        super.setDescription(description);
+        super.setTags(tags);
+        super.setParameters(parameters);
+        super.setRequestBody(requestBody);
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Cached operations cannot be changed");
+    }
+
+    @Override
+    public void setTags(List<String> tags) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation tags(List<String> tags) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation addTagsItem(String tagsItem) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setSummary(String summary) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation summary(String summary) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setDescription(String description) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation description(String description) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setExternalDocs(ExternalDocumentation externalDocs) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation externalDocs(ExternalDocumentation externalDocs) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setOperationId(String operationId) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation operationId(String operationId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setParameters(List<Parameter> parameters) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation parameters(List<Parameter> parameters) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation addParametersItem(Parameter parametersItem) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setRequestBody(RequestBody requestBody) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation requestBody(RequestBody requestBody) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setResponses(ApiResponses responses) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation responses(ApiResponses responses) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCallbacks(Map<String, Callback> callbacks) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation callbacks(Map<String, Callback> callbacks) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation addCallback(String key, Callback callbacksItem) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setDeprecated(Boolean deprecated) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation deprecated(Boolean deprecated) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setSecurity(List<SecurityRequirement> security) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation security(List<SecurityRequirement> security) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation addSecurityItem(SecurityRequirement securityItem) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setServers(List<Server> servers) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation servers(List<Server> servers) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation addServersItem(Server serversItem) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addExtension(String name, Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addExtension31(String name, Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setExtensions(Map<String, Object> extensions) {
+        throw readOnly();
+    }
+
+    @Override
+    public Operation extensions(Map<String, Object> extensions) {
+        throw readOnly();
+    }
+}
@@ -0,0 +1,236 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.OpenAPI;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Binary snapshot of the registry built from the configured documents, so a restart can skip fetching,
+ * parsing and schema compilation for documents whose content has not changed.
+ * <p>
+ * Each document is stored with a fingerprint of its location and of the settings that shape its tools, the
+ * SHA-256 of the content it was loaded from, a compact OpenAPI model of its kept operations and reachable
+ * components, and the serialized input schema of each compiled tool. The file is memory-mapped when read:
+ * only the directory is decoded up front, models and schemas are decoded from the mapping when used.
+ */
+public final class RegistrySnapshot {
+
+    public static final RegistrySnapshot EMPTY = new RegistrySnapshot(Map.of());
+
+    // "MCPSNAP" followed by the format version
+    private static final long MAGIC = 0x4D4350534E415001L;
+
+    private final Map<String, Entry> documents;
+
+    private RegistrySnapshot(Map<String, Entry> documents) {
+        this.documents = documents;
+    }
+
+    /**
+     * A document of a snapshot that was read, backed by the mapped file
+     */
+    public static final class Entry {
+        private final String fingerprint;
+        private final String contentHash;
+        private final ByteBuffer model;
+        private final Map<String, ByteBuffer> schemas;
+
+        private Entry(String fingerprint, String contentHash, ByteBuffer model, Map<String, ByteBuffer> schemas) {
+            this.fingerprint = fingerprint;
+            this.contentHash = contentHash;
+            this.model = model;
+            this.schemas = schemas;
+        }
+
+        public String fingerprint() {
+            return fingerprint;
+        }
+
+        public String contentHash() {
+            return contentHash;
+        }
+
+        /**
+         * Decode the compact model of the document
+         * @throws IOException if the stored model cannot be decoded
+         */
+        public OpenAPI model() throws IOException {
+            return Json.mapper().readValue(bytes(model), OpenAPI.class);
+        }
+
+        /**
+         * @return The serialized input schema of an operation's tool, or null if it was not compiled
+         */
+        public String schema(String operationId) {
+            ByteBuffer schema = schemas.get(operationId);
+            return schema != null ? new String(bytes(schema), StandardCharsets.UTF_8) : null;
+        }
+
+        public int schemaCount() {
+            return schemas.size();
+        }
+
+        byte[] modelBytes() {
+            return bytes(model);
+        }
+    }
+
+    /**
+     * A document to write to a snapshot
+     * @param name The document name
+     * @param fingerprint See {@link #fingerprint}
+     * @param contentHash See {@link #sha256}
+     * @param model The compact model, serialized as JSON
+     * @param schemas The serialized input schemas of the compiled tools, by operation ID
+     */
+    public record DocumentImage(String name, String fingerprint, String contentHash, byte[] model,
+                                Map<String, String> schemas) {
+    }
+
+    /**
+     * Map and index a snapshot file
+     * @return The snapshot, or {@link #EMPTY} if the file does not exist
+     * @throws IOException if the file cannot be read or is not a snapshot of this format
+     */
+    public static RegistrySnapshot read(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return EMPTY;
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getLong() != MAGIC) {
+                throw new IOException("Not a registry snapshot of this version: " + path);
+            }
+            int documentCount = buffer.getInt();
+            Map<String, Entry> documents = new HashMap<>();
+            for (int d = 0; d < documentCount; d++) {
+                String name = string(buffer);
+                String fingerprint = string(buffer);
+                String contentHash = string(buffer);
+                ByteBuffer model = slice(buffer);
+                int toolCount = buffer.getInt();
+                Map<String, ByteBuffer> schemas = new HashMap<>(toolCount * 2);
+                for (int t = 0; t < toolCount; t++) {
+                    schemas.put(string(buffer), slice(buffer));
+                }
+                documents.put(name, new Entry(fingerprint, contentHash, model, schemas));
+            }
+            return new RegistrySnapshot(documents);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Truncated or corrupt registry snapshot: " + path, e);
+        }
+    }
+
+    /**
+     * Write a snapshot to a temporary file and move it in place, so readers never see a partial file
+     */
+    public static void write(Path path, List<DocumentImage> documents) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeLong(MAGIC);
+                out.writeInt(documents.size());
+                for (DocumentImage document : documents) {
+                    write(out, document.name().getBytes(StandardCharsets.UTF_8));
+                    write(out, document.fingerprint().getBytes(StandardCharsets.UTF_8));
+                    write(out, document.contentHash().getBytes(StandardCharsets.UTF_8));
+                    write(out, document.model());
+                    out.writeInt(document.schemas().size());
+                    for (Map.Entry<String, String> schema : document.schemas().entrySet()) {
+                        write(out, schema.getKey().getBytes(StandardCharsets.UTF_8));
+                        write(out, schema.getValue().getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @return The stored document, or null if the snapshot does not contain it
+     */
+    public Entry document(String name) {
+        return documents.get(name);
+    }
+
+    public Set<String> documentNames() {
+        return documents.keySet();
+    }
+
+    /**
+     * Identify what, besides the content, determines the stored model and schemas of a document: its
+     * location, its operation rules and the tool settings that change schema generation or the kept fields
+     */
+    public static String fingerprint(OpenApiProperties.Document document, OpenApiProperties.Tools tools) {
+        StringBuilder fingerprint = new StringBuilder()
+            .append(document.getLocation())
+            .append('|').append(document.getInclude())
+            .append('|').append(document.getExclude());
+        if (tools != null) {
+            fingerprint.append('|').append(tools.getSchemaMode())
+                .append('|').append(tools.getMaxSchemaBytes())
+                .append('|').append(tools.isDiscovery());
+        }
+        return sha256(fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return The hex SHA-256 digest of the content
+     */
+    public static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void write(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String string(ByteBuffer buffer) {
+        return new String(bytes(slice(buffer)), StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        ByteBuffer slice = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    private static byte[] bytes(ByteBuffer slice) {
+        byte[] bytes = new byte[slice.remaining()];
+        slice.duplicate().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,196 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import com.siri.api.mcp.mcp_openapi_server.config.ToolConfiguration;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads documents stored in local files when the files change.
+ * <p>
+ * The directory of each watched file is registered with a {@link WatchService}. Events are debounced per
+ * file, so the burst of writes an editor or a copy makes leads to one reload once the file has been quiet
+ * for the configured time. A reload is applied as a diff, see {@link OpenApiDefinitionService#reload}: only
+ * the tools of added, removed and changed operations are touched. A reload that fails, for instance
+ * because the file is half written or invalid, keeps the tools of the version loaded last.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpecFileWatcher {
+
+    private final OpenApiDefinitionService openApiDefinitionService;
+    private final ToolConfiguration toolConfiguration;
+    private final OpenApiProperties openApiProperties;
+
+    // Watched documents by absolute file path and name, and the watch key of each directory holding one
+    private final Map<Path, Map<String, OpenApiProperties.Document>> documentsByFile = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> directories = new ConcurrentHashMap<>();
+    // Reloads waiting for their file to settle
+    private final Map<Path, ScheduledFuture<?>> pendingReloads = new ConcurrentHashMap<>();
+    private volatile WatchService watchService;
+    // Runs reloads one at a time, null when watching is disabled
+    private volatile ScheduledExecutorService reloader;
+
+    @PostConstruct
+    public void start() throws IOException {
+        OpenApiProperties.Watch settings = openApiProperties.getWatch();
+        if (settings == null || !settings.isEnabled()) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "openapi-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Thread watcher = new Thread(this::watchFiles, "openapi-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+
+        // Configured documents are watched once loaded, so a reload never races their first load
+        List<OpenApiProperties.Document> documents = openApiProperties.getDocuments() != null ?
+            openApiProperties.getDocuments() : List.of();
+        openApiDefinitionService.whenAllLoaded(() -> documents.forEach(this::watch));
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * Reload a document whenever its file changes. Documents at remote or classpath locations are ignored.
+     * @return Whether the document is watched
+     */
+    public boolean watch(OpenApiProperties.Document document) {
+        WatchService service = watchService;
+        Path file = service != null ? SpecSource.localFile(document.getLocation()) : null;
+        if (file == null) {
+            return false;
+        }
+        file = file.toAbsolutePath().normalize();
+        Path directory = file.getParent();
+        try {
+            directories.computeIfAbsent(directory, key -> {
+                try {
+                    return key.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException | ClosedWatchServiceException e) {
+            log.warn("Cannot watch {} for changes to document {}: {}", file, document.getName(), e.getMessage());
+            return false;
+        }
+        documentsByFile.computeIfAbsent(file, key -> new ConcurrentHashMap<>()).put(document.getName(), document);
+        log.info("Watching {} for changes to document {}", file, document.getName());
+        return true;
+    }
+
+    /**
+     * Stop reloading a document, e.g. when it is removed
+     */
+    public void unwatch(String documentName) {
+        documentsByFile.entrySet().removeIf(entry -> {
+            entry.getValue().remove(documentName);
+            return entry.getValue().isEmpty();
+        });
+        directories.entrySet().removeIf(entry -> {
+            boolean unused = documentsByFile.keySet().stream().noneMatch(file -> file.getParent().equals(entry.getKey()));
+            if (unused) {
+                entry.getValue().cancel();
+            }
+            return unused;
+        });
+    }
+
+    private void watchFiles() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events were lost, so any file of the directory may have changed
+                        documentsByFile.keySet().stream()
+                            .filter(file -> file.getParent().equals(directory))
+                            .forEach(this::scheduleReload);
+                    } else if (event.context() instanceof Path name && documentsByFile.containsKey(directory.resolve(name))) {
+                        scheduleReload(directory.resolve(name));
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.debug("Stopped watching document files");
+        }
+    }
+
+    /**
+     * Reload the documents of a file after the debounce time, restarting the wait if one is pending
+     */
+    private void scheduleReload(Path file) {
+        long delay = debounce().toMillis();
+        pendingReloads.compute(file, (key, pending) -> {
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            return reloader.schedule(() -> reload(file), delay, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void reload(Path file) {
+        pendingReloads.remove(file);
+        Map<String, OpenApiProperties.Document> documents = documentsByFile.getOrDefault(file, Map.of());
+        for (OpenApiProperties.Document document : documents.values()) {
+            try {
+                OpenApiDefinitionService.OperationChanges changes = openApiDefinitionService.reload(document);
+                if (changes.isEmpty()) {
+                    log.debug("Document {} changed on disk without changing its operations", document.getName());
+                    continue;
+                }
+                toolConfiguration.applyChanges(document, changes);
+                log.info("Reloaded document {}: {} operations added, {} removed, {} changed, {} unchanged",
+                    document.getName(), changes.added().size(), changes.removed().size(),
+                    changes.changed().size(), changes.unchanged());
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not reload document {} from {}, keeping its current tools: {}",
+                    document.getName(), file, e.getMessage());
+            }
+        }
+    }
+
+    private Duration debounce() {
+        OpenApiProperties.Watch settings = openApiProperties.getWatch();
+        return settings != null && settings.getDebounce() != null ? settings.getDebounce() :
+            OpenApiProperties.Watch.DEFAULT_DEBOUNCE;
+    }
+}
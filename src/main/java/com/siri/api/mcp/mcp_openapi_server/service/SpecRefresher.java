@@ -0,0 +1,169 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import com.siri.api.mcp.mcp_openapi_server.config.ToolConfiguration;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads documents that have a refresh interval again on that interval and applies their changes.
+ * <p>
+ * Each refresh is scheduled after the previous one finished, with a random share of the interval added or
+ * taken away so documents added together do not refresh together. Remote documents are read with a
+ * conditional request, and a document whose content hash did not change costs no parsing, see
+ * {@link OpenApiDefinitionService#reload}. A refresh that fails keeps the tools of the version loaded last.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpecRefresher {
+
+    private final OpenApiDefinitionService openApiDefinitionService;
+    private final ToolConfiguration toolConfiguration;
+    private final OpenApiProperties openApiProperties;
+
+    // The refresh schedule of each document, by document name
+    private final Map<String, Schedule> schedules = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService refresher;
+
+    /**
+     * The refreshes of one document, each scheduled when the previous one finished
+     */
+    private final class Schedule {
+        private final OpenApiProperties.Document document;
+        private final Duration interval;
+        private ScheduledFuture<?> next;
+        private boolean cancelled;
+
+        Schedule(OpenApiProperties.Document document, Duration interval) {
+            this.document = document;
+            this.interval = interval;
+        }
+
+        synchronized void scheduleNext() {
+            if (!cancelled) {
+                next = executor().schedule(this::run, jittered(interval.toMillis()), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (next != null) {
+                next.cancel(false);
+            }
+        }
+
+        private void run() {
+            refresh(document);
+            scheduleNext();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        // Configured documents are scheduled once loaded, so a refresh never races their first load
+        List<OpenApiProperties.Document> documents = openApiProperties.getDocuments() != null ?
+            openApiProperties.getDocuments() : List.of();
+        openApiDefinitionService.whenAllLoaded(() -> documents.forEach(this::schedule));
+    }
+
+    @PreDestroy
+    public void stop() {
+        schedules.values().forEach(Schedule::cancel);
+        ScheduledExecutorService executor = refresher;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Refresh a document on its interval, replacing any schedule it has
+     * @return Whether the document has a refresh interval
+     */
+    public boolean schedule(OpenApiProperties.Document document) {
+        Duration interval = document.getRefreshInterval();
+        if (interval == null || interval.isZero() || interval.isNegative()) {
+            return false;
+        }
+        Schedule schedule = new Schedule(document, interval);
+        Schedule previous = schedules.put(document.getName(), schedule);
+        if (previous != null) {
+            previous.cancel();
+        }
+        schedule.scheduleNext();
+        log.info("Refreshing document {} about every {}", document.getName(), interval);
+        return true;
+    }
+
+    /**
+     * Stop refreshing a document, e.g. when it is removed
+     */
+    public void cancel(String documentName) {
+        Schedule schedule = schedules.remove(documentName);
+        if (schedule != null) {
+            schedule.cancel();
+        }
+    }
+
+    /**
+     * Read a document again and apply its changes
+     */
+    void refresh(OpenApiProperties.Document document) {
+        try {
+            OpenApiDefinitionService.OperationChanges changes = openApiDefinitionService.reload(document);
+            if (changes.isEmpty()) {
+                log.debug("Document {} is unchanged", document.getName());
+                return;
+            }
+            toolConfiguration.applyChanges(document, changes);
+            log.info("Refreshed document {}: {} operations added, {} removed, {} changed, {} unchanged",
+                document.getName(), changes.added().size(), changes.removed().size(),
+                changes.changed().size(), changes.unchanged());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not refresh document {} from {}, keeping its current tools: {}",
+                document.getName(), document.getLocation(), e.getMessage());
+        }
+    }
+
+    private long jittered(long intervalMillis) {
+        OpenApiProperties.Refresh settings = openApiProperties.getRefresh();
+        double jitter = settings != null ? settings.getJitter() : OpenApiProperties.Refresh.DEFAULT_JITTER;
+        jitter = Math.max(0, Math.min(jitter, 1));
+        double factor = jitter > 0 ? 1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter) : 1;
+        return Math.max(1, Math.round(intervalMillis * factor));
+    }
+
+    private ScheduledExecutorService executor() {
+        ScheduledExecutorService executor = refresher;
+        if (executor == null) {
+            synchronized (this) {
+                if (refresher == null) {
+                    OpenApiProperties.Refresh settings = openApiProperties.getRefresh();
+                    int parallelism = settings != null && settings.getParallelism() > 0 ? settings.getParallelism() :
+                        OpenApiProperties.Refresh.DEFAULT_PARALLELISM;
+                    refresher = Executors.newScheduledThreadPool(parallelism, runnable -> {
+                        Thread thread = new Thread(runnable, "openapi-refresh");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+                executor = refresher;
+            }
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,273 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads the raw content of an OpenAPI document from the locations the parser accepts: HTTP(S) URLs,
+ * file URLs, file system paths and classpath resources.
+ * <p>
+ * With a cache directory, every remote document is stored there with its content hash and the ETag and
+ * Last-Modified headers it was served with. Later reads send a conditional request and take the content
+ * from the cache when the server answers 304, or when the server cannot be reached or returns an error.
+ * Without one, only the headers and hash are remembered, for {@link #readIfChanged}.
+ */
+@Slf4j
+final class SpecSource {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+        .connectTimeout(CONNECT_TIMEOUT)
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
+
+    private final Path cacheDirectory;
+    // Validators of the remote documents fetched in full, by location, kept when there is no cache directory
+    private final Map<String, Validators> validators = new ConcurrentHashMap<>();
+
+    /**
+     * @param cacheDirectory Where remote documents are cached, or null to always fetch them
+     */
+    SpecSource(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Where the content of a read came from
+     */
+    enum Origin {
+        // Read from the file system or classpath, or downloaded in full
+        SOURCE,
+        // The cached copy, confirmed current by a 304 response
+        NOT_MODIFIED,
+        // The cached copy, because the source could not be read
+        STALE_CACHE
+    }
+
+    /**
+     * @param bytes The raw document
+     * @param hash The SHA-256 of the document, see {@link RegistrySnapshot#sha256}
+     * @param origin Where the content came from
+     */
+    record Content(byte[] bytes, String hash, Origin origin) {
+    }
+
+    /**
+     * The response headers a remote document was served with, and the hash of its content
+     */
+    private record Validators(String etag, String lastModified, String hash) {
+    }
+
+    /**
+     * @throws IOException if the location cannot be read and no cached copy exists
+     */
+    Content read(String location) throws IOException {
+        if (isRemote(location)) {
+            return cacheDirectory != null ? fetchCached(location) : fetchRemembered(location, null);
+        }
+        Path file = localFile(location);
+        if (file != null) {
+            return content(Files.readAllBytes(file));
+        }
+        String resource = location.startsWith("/") ? location.substring(1) : location;
+        try (InputStream in = SpecSource.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("No file or classpath resource at " + location);
+            }
+            return content(in.readAllBytes());
+        }
+    }
+
+    /**
+     * Read a location again for a caller that holds its content with the given hash. Remote locations are
+     * read with a conditional request whenever the validators of that content are known, so an unchanged
+     * document costs a 304 response.
+     * @return The content, or null if its hash is the known one
+     * @throws IOException if the location cannot be read and no cached copy exists
+     */
+    Content readIfChanged(String location, String knownHash) throws IOException {
+        Content content = isRemote(location) && cacheDirectory == null ?
+            fetchRemembered(location, knownHash) : read(location);
+        return content != null && !content.hash().equals(knownHash) ? content : null;
+    }
+
+    /**
+     * Fetch a remote document without a cache directory, conditionally if the remembered validators are
+     * those of the known content
+     * @return The content, or null if the server answered 304
+     */
+    private Content fetchRemembered(String location, String knownHash) throws IOException {
+        Validators known = validators.get(location);
+        if (known == null || !known.hash().equals(knownHash)) {
+            known = null;
+        }
+        HttpResponse<byte[]> response = fetch(location, known != null ? known.etag() : null,
+            known != null ? known.lastModified() : null);
+        if (response.statusCode() == 304) {
+            log.debug("{} is not modified", location);
+            return null;
+        }
+        Content content = content(response.body());
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        if (etag != null || lastModified != null) {
+            validators.put(location, new Validators(etag, lastModified, content.hash()));
+        } else {
+            validators.remove(location);
+        }
+        return content;
+    }
+
+    private static boolean isRemote(String location) {
+        String lower = location.toLowerCase();
+        return lower.startsWith("http://") || lower.startsWith("https://");
+    }
+
+    /**
+     * @return The file a location refers to: the path of a file URL, or an existing file system path.
+     * Null for HTTP(S) URLs and classpath resources.
+     */
+    static Path localFile(String location) {
+        if (isRemote(location)) {
+            return null;
+        }
+        if (location.toLowerCase().startsWith("file:")) {
+            return Path.of(URI.create(location));
+        }
+        try {
+            Path path = Path.of(location);
+            return Files.isRegularFile(path) ? path : null;
+        } catch (InvalidPathException e) {
+            // Not a file system path
+            return null;
+        }
+    }
+
+    private Content fetchCached(String location) throws IOException {
+        String key = RegistrySnapshot.sha256(location.getBytes(StandardCharsets.UTF_8));
+        Path body = cacheDirectory.resolve(key + ".spec");
+        Path metadataFile = cacheDirectory.resolve(key + ".properties");
+        Properties metadata = readMetadata(metadataFile, body);
+
+        HttpResponse<byte[]> response;
+        try {
+            response = metadata != null ?
+                fetch(location, metadata.getProperty("etag"), metadata.getProperty("last-modified")) :
+                fetch(location, null, null);
+        } catch (IOException e) {
+            if (metadata == null) {
+                throw e;
+            }
+            log.warn("Could not fetch {}, using the copy cached at {}: {}", location,
+                metadata.getProperty("fetched"), e.getMessage());
+            return new Content(Files.readAllBytes(body), metadata.getProperty("hash"), Origin.STALE_CACHE);
+        }
+
+        if (response.statusCode() == 304 && metadata != null) {
+            log.debug("{} is not modified, using the cached copy", location);
+            return new Content(Files.readAllBytes(body), metadata.getProperty("hash"), Origin.NOT_MODIFIED);
+        }
+        Content content = content(response.body());
+        try {
+            store(content, response, location, body, metadataFile);
+        } catch (IOException e) {
+            log.warn("Could not cache {}: {}", location, e.getMessage());
+        }
+        return content;
+    }
+
+    /**
+     * Send a GET, conditional on the validators if there are any
+     * @throws IOException if the request fails or the status is neither 200 nor, for a conditional request, 304
+     */
+    private static HttpResponse<byte[]> fetch(String location, String etag, String lastModified) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(location))
+            .timeout(REQUEST_TIMEOUT)
+            .GET();
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            request.header("If-Modified-Since", lastModified);
+        }
+        boolean conditional = etag != null || lastModified != null;
+        try {
+            HttpResponse<byte[]> response = HTTP.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200 && !(response.statusCode() == 304 && conditional)) {
+                throw new IOException("GET " + location + " returned HTTP " + response.statusCode());
+            }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching " + location, e);
+        }
+    }
+
+    /**
+     * @return The metadata of a cached copy, or null if there is no complete copy
+     */
+    private static Properties readMetadata(Path metadataFile, Path body) {
+        if (!Files.isRegularFile(metadataFile) || !Files.isRegularFile(body)) {
+            return null;
+        }
+        Properties metadata = new Properties();
+        try (InputStream in = Files.newInputStream(metadataFile)) {
+            metadata.load(in);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable spec cache entry {}: {}", metadataFile, e.getMessage());
+            return null;
+        }
+        return metadata.getProperty("hash") != null ? metadata : null;
+    }
+
+    /**
+     * Replace a cached copy: the old metadata goes first and the new metadata last, each file through a
+     * temporary file, so a metadata file always describes the body next to it
+     */
+    private void store(Content content, HttpResponse<byte[]> response, String location, Path body,
+                       Path metadataFile) throws IOException {
+        Files.createDirectories(cacheDirectory);
+        Properties metadata = new Properties();
+        metadata.setProperty("location", location);
+        metadata.setProperty("hash", content.hash());
+        metadata.setProperty("fetched", Instant.now().toString());
+        response.headers().firstValue("ETag").ifPresent(etag -> metadata.setProperty("etag", etag));
+        response.headers().firstValue("Last-Modified").ifPresent(date -> metadata.setProperty("last-modified", date));
+
+        Files.deleteIfExists(metadataFile);
+        Path temp = Files.createTempFile(cacheDirectory, body.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content.bytes());
+            Files.move(temp, body, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                metadata.store(out, null);
+            }
+            Files.move(temp, metadataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static Content content(byte[] bytes) {
+        return new Content(bytes, RegistrySnapshot.sha256(bytes), Origin.SOURCE);
+    }
+}
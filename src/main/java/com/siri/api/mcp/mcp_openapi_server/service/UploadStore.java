@@ -0,0 +1,245 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Stores uploaded documents under the SHA-256 of their content, so uploading a document again reuses the
+ * file of the first upload.
+ * <p>
+ * An upload is hashed while it is streamed to a temporary file, which is then renamed to the hash, or
+ * dropped if a file with that name exists. The uploaded bytes are kept for parsing, so the stored file is
+ * not read back. Stored files no document refers to are deleted by {@link #collectGarbage}, which runs at
+ * startup once the documents recorded in the journal are restored; the file of an upload that is still
+ * being added is pinned until the upload is closed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadStore {
+
+    private static final Pattern STORED = Pattern.compile("[0-9a-f]{64}\\.(json|yaml)");
+    // Files written by uploads before they were stored by hash: <epoch millis>_<original name>
+    private static final Pattern TIMESTAMPED = Pattern.compile("\\d{13}_.+");
+    private static final String TEMP_PREFIX = ".upload-";
+
+    private final OpenApiProperties openApiProperties;
+
+    // Files of uploads in progress or not yet referenced by a document, with the number of uploads holding
+    // each; guarded by this store, like every check that a file can be deleted
+    private final Map<Path, Integer> pins = new HashMap<>();
+
+    /**
+     * A stored upload, whose file stays pinned until it is closed
+     */
+    public final class Upload implements AutoCloseable {
+        private final Path file;
+        private final SpecSource.Content content;
+        private final boolean deduplicated;
+        private boolean closed;
+
+        private Upload(Path file, SpecSource.Content content, boolean deduplicated) {
+            this.file = file;
+            this.content = content;
+            this.deduplicated = deduplicated;
+        }
+
+        /**
+         * @return The absolute path of the stored file
+         */
+        public Path file() {
+            return file;
+        }
+
+        SpecSource.Content content() {
+            return content;
+        }
+
+        /**
+         * @return Whether a document with the same content was already stored
+         */
+        public boolean deduplicated() {
+            return deduplicated;
+        }
+
+        @Override
+        public void close() {
+            synchronized (UploadStore.this) {
+                if (!closed) {
+                    closed = true;
+                    unpin(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stream a document into the store
+     * @return The stored upload, to be closed once a document refers to its file or the upload is abandoned
+     * @throws IllegalArgumentException if the document is empty or larger than the configured maximum
+     */
+    public Upload store(InputStream in) throws IOException {
+        Path directory = directory();
+        Files.createDirectories(directory);
+        Path temp;
+        synchronized (this) {
+            temp = absolute(Files.createTempFile(directory, TEMP_PREFIX, ".tmp"));
+            pin(temp);
+        }
+        try {
+            long maxBytes = maxSize().toBytes();
+            MessageDigest digest = sha256();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                byte[] buffer = new byte[8192];
+                long total = 0;
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    total += read;
+                    if (total > maxBytes) {
+                        throw new IllegalArgumentException("Document is larger than " + maxSize());
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                    bytes.write(buffer, 0, read);
+                }
+            }
+            if (bytes.size() == 0) {
+                throw new IllegalArgumentException("File content is empty");
+            }
+
+            byte[] content = bytes.toByteArray();
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path file = absolute(directory.resolve(hash + (isJson(content) ? ".json" : ".yaml")));
+            boolean deduplicated;
+            synchronized (this) {
+                deduplicated = Files.exists(file);
+                if (!deduplicated) {
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+                }
+                pin(file);
+            }
+            log.debug("Stored upload {} ({} bytes{})", file, content.length, deduplicated ? ", already stored" : "");
+            return new Upload(file, new SpecSource.Content(content, hash, SpecSource.Origin.SOURCE), deduplicated);
+        } finally {
+            synchronized (this) {
+                unpin(temp);
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Delete the stored uploads that neither a configured document nor one of the given documents refers
+     * to and that no open upload holds, together with temporary files of interrupted uploads
+     * @param documents The documents added at runtime
+     * @return The number of files deleted
+     */
+    public synchronized int collectGarbage(Collection<OpenApiProperties.Document> documents) {
+        Path directory = directory();
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        List<OpenApiProperties.Document> configured = openApiProperties.getDocuments() != null ?
+            openApiProperties.getDocuments() : List.of();
+        Set<Path> referenced = new HashSet<>();
+        Stream.concat(configured.stream(), documents.stream())
+            .map(document -> SpecSource.localFile(document.getLocation()))
+            .filter(Objects::nonNull)
+            .forEach(file -> referenced.add(absolute(file)));
+
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                boolean upload = STORED.matcher(name).matches() || TIMESTAMPED.matcher(name).matches() ||
+                    name.startsWith(TEMP_PREFIX);
+                Path key = absolute(file);
+                if (upload && !referenced.contains(key) && !pins.containsKey(key) && Files.isRegularFile(file) &&
+                        Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete unreferenced uploads from {}: {}", directory, e.getMessage());
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} unreferenced uploads from {}", deleted, directory);
+        }
+        return deleted;
+    }
+
+    private void pin(Path file) {
+        pins.merge(file, 1, Integer::sum);
+    }
+
+    private void unpin(Path file) {
+        pins.computeIfPresent(file, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private Path directory() {
+        OpenApiProperties.Uploads settings = openApiProperties.getUploads();
+        String directory = settings != null ? settings.getDirectory() : null;
+        return Path.of(directory != null && !directory.isBlank() ? directory :
+            OpenApiProperties.Uploads.DEFAULT_DIRECTORY);
+    }
+
+    private DataSize maxSize() {
+        OpenApiProperties.Uploads settings = openApiProperties.getUploads();
+        return settings != null && settings.getMaxSize() != null ? settings.getMaxSize() :
+            OpenApiProperties.Uploads.DEFAULT_MAX_SIZE;
+    }
+
+    private static Path absolute(Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+    /**
+     * @return Whether the document is JSON rather than YAML, judged by its first character
+     */
+    private static boolean isJson(byte[] content) {
+        for (byte b : content) {
+            if (b == '{' || b == '[') {
+                return true;
+            }
+            // Whitespace and a UTF-8 byte order mark may come first
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n' && b != (byte) 0xEF && b != (byte) 0xBB &&
+                    b != (byte) 0xBF) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.siri.api.mcp.mcp_openapi_server.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArgumentValidatorTest {
+
+    private static final Map<String, Object> PET_SCHEMA = Map.of(
+            "type", "object",
+            "required", List.of("petId", "requestBody"),
+            "properties", Map.of(
+                    "petId", Map.of("type", "integer", "minimum", 1),
+                    "status", Map.of("type", "string", "enum", List.of("available", "pending", "sold")),
+                    "requestBody", Map.of(
+                            "type", "object",
+                            "required", List.of("name"),
+                            "properties", Map.of(
+                                    "name", Map.of("type", "string", "minLength", 1, "maxLength", 20),
+                                    "age", Map.of("type", "integer"),
+                                    "tags", Map.of("type", "array", "maxItems", 2,
+                                            "items", Map.of("type", "string", "pattern", "^[a-z]+$"))))));
+
+    private final ArgumentValidator validator = ArgumentValidator.compile(PET_SCHEMA);
+
+    @Test
+    void shouldAcceptValidArguments() {
+        validator.check("updatePet", Map.of(
+                "petId", 7,
+                "status", "sold",
+                "requestBody", Map.of("name", "Rex", "age", 3, "tags", List.of("dog"))));
+
+        assertEquals(1, validator.validated());
+        assertEquals(0, validator.rejected());
+    }
+
+    @Test
+    void shouldCoerceParametersButNotRequestBody() {
+        validator.check("updatePet", Map.of("petId", "7", "requestBody", Map.of("name", "Rex")));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () ->
+                validator.check("updatePet", Map.of("petId", 7, "requestBody", Map.of("name", "Rex", "age", "3"))));
+        assertTrue(error.getMessage().contains("requestBody.age: expected integer but got string \"3\""), error.getMessage());
+    }
+
+    @Test
+    void shouldReportEveryViolationWithItsPath() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () ->
+                validator.check("updatePet", Map.of(
+                        "petId", 0,
+                        "status", "lost",
+                        "requestBody", Map.of("tags", List.of("Dog", "cat", "fish")))));
+
+        String message = error.getMessage();
+        assertTrue(message.startsWith("Invalid arguments for updatePet: "), message);
+        assertTrue(message.contains("petId: must be at least 1"), message);
+        assertTrue(message.contains("status: must be one of [available, pending, sold] but was lost"), message);
+        assertTrue(message.contains("requestBody.name: is required"), message);
+        assertTrue(message.contains("requestBody.tags: must have at most 2 items"), message);
+        assertTrue(message.contains("requestBody.tags[0]: must match pattern ^[a-z]+$"), message);
+        assertEquals(1, validator.rejected());
+    }
+
+    @Test
+    void shouldRejectMissingRequiredArguments() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () ->
+                validator.check("updatePet", Map.of()));
+
+        assertTrue(error.getMessage().contains("petId: is required"));
+        assertTrue(error.getMessage().contains("requestBody: is required"));
+    }
+
+    @Test
+    void shouldFollowRecursiveDefinitions() {
+        ArgumentValidator treeValidator = ArgumentValidator.compile(Map.of(
+                "type", "object",
+                "properties", Map.of("requestBody", Map.of("$ref", "#/$defs/Node")),
+                "$defs", Map.of("Node", Map.of(
+                        "type", "object",
+                        "properties", Map.of(
+                                "value", Map.of("type", "number"),
+                                "children", Map.of("type", "array", "items", Map.of("$ref", "#/$defs/Node")))))));
+
+        treeValidator.check("addTree", Map.of("requestBody",
+                Map.of("value", 1.5, "children", List.of(Map.of("value", 2, "children", List.of())))));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () ->
+                treeValidator.check("addTree", Map.of("requestBody",
+                        Map.of("children", List.of(Map.of("value", "two"))))));
+        assertTrue(error.getMessage().contains("requestBody.children[0].value: expected number but got string \"two\""),
+                error.getMessage());
+    }
+}
@@ -0,0 +1,141 @@
+package com.siri.api.mcp.mcp_openapi_server.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.dto.DocumentStatus;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
+import com.siri.api.mcp.mcp_openapi_server.service.ApiClient;
+import com.siri.api.mcp.mcp_openapi_server.service.OpenApiDefinitionService;
+import com.siri.api.mcp.mcp_openapi_server.support.SyntheticSpecGenerator;
+import com.sun.net.httpserver.HttpServer;
+import io.modelcontextprotocol.server.McpSyncServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BackgroundLoadingTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    // Holds back the remote document until the test releases it
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        byte[] spec = Files.readAllBytes(Path.of("src/test/resources/openapi/petstore.json"));
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/openapi.json", exchange -> {
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, spec.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(spec);
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        release.countDown();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldPublishEachDocumentAsSoonAsItIsLoaded() throws Exception {
+        OpenApiProperties properties = properties();
+        OpenApiDefinitionService definitionService = new OpenApiDefinitionService(properties);
+        McpToolRegistry registry = new McpToolRegistry(new ObjectMapper(), properties);
+        McpSyncServer mcpServer = mock(McpSyncServer.class);
+
+        definitionService.init();
+        new ToolConfiguration(definitionService, mock(ApiClient.class), mock(ConfigurableBeanFactory.class),
+            new ObjectMapper(), mcpServer, registry, properties).registerOpenApiFunctions();
+
+        // The local document is published while the remote one is still loading
+        waitFor(() -> definitionService.documentStatuses().get(1).getState() == DocumentStatus.State.LOADED);
+        assertTrue(registry.contains("getResource0"));
+        assertFalse(definitionService.loaded().isDone());
+        assertFalse(registry.contains("getPetById"));
+        assertEquals(List.of(DocumentStatus.State.LOADING, DocumentStatus.State.LOADED),
+            definitionService.documentStatuses().stream().map(DocumentStatus::getState).toList());
+        verify(mcpServer, times(1)).notifyToolsListChanged();
+
+        release.countDown();
+        definitionService.loaded().get(30, TimeUnit.SECONDS);
+
+        assertTrue(registry.contains("getPetById"));
+        assertEquals(List.of(DocumentStatus.State.LOADED, DocumentStatus.State.LOADED),
+            definitionService.documentStatuses().stream().map(DocumentStatus::getState).toList());
+        assertEquals(registry.size(), definitionService.documentStatuses().stream()
+            .mapToInt(DocumentStatus::getOperations).sum());
+        verify(mcpServer, times(2)).notifyToolsListChanged();
+    }
+
+    @Test
+    void shouldReportDocumentsThatFailInTheBackground() throws Exception {
+        OpenApiProperties properties = properties();
+        properties.getLoading().setTimeout(java.time.Duration.ofMillis(300));
+        OpenApiDefinitionService definitionService = new OpenApiDefinitionService(properties);
+
+        definitionService.init();
+        definitionService.loaded().get(30, TimeUnit.SECONDS);
+
+        DocumentStatus remote = definitionService.documentStatuses().get(0);
+        assertEquals(DocumentStatus.State.FAILED, remote.getState());
+        assertTrue(remote.getError().contains("timed out"), remote.getError());
+        assertEquals(DocumentStatus.State.LOADED, definitionService.documentStatuses().get(1).getState());
+    }
+
+    private OpenApiProperties properties() throws Exception {
+        Path local = SyntheticSpecGenerator.builder()
+                .operations(20)
+                .schemas(5)
+                .build()
+                .writeTo(tempDir.resolve("synthetic.json"));
+        OpenApiProperties.Document remote = new OpenApiProperties.Document();
+        remote.setName("Pet Store");
+        remote.setLocation("http://127.0.0.1:" + server.getAddress().getPort() + "/openapi.json");
+        OpenApiProperties.Document synthetic = new OpenApiProperties.Document();
+        synthetic.setName("Synthetic");
+        synthetic.setLocation(local.toString());
+
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.setDocuments(List.of(remote, synthetic));
+        properties.getLoading().setBackground(true);
+        properties.getTools().setCompileParallelism(1);
+        return properties;
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.siri.api.mcp.mcp_openapi_server.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
+import com.siri.api.mcp.mcp_openapi_server.service.ApiClient;
+import com.siri.api.mcp.mcp_openapi_server.service.OpenApiDefinitionService;
+import com.siri.api.mcp.mcp_openapi_server.support.SyntheticSpecGenerator;
+import io.modelcontextprotocol.server.McpSyncServer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CompactToolSchemaTest {
+
+    private static final String ORDERS = """
+            openapi: 3.0.1
+            info:
+              title: Orders
+              version: 1.0.0
+            paths:
+              /orders:
+                post:
+                  operationId: createOrder
+                  parameters:
+                    - name: tags
+                      in: query
+                      schema:
+                        type: array
+                        items:
+                          $ref: '#/components/schemas/Tag'
+                  requestBody:
+                    content:
+                      application/json:
+                        schema:
+                          $ref: '#/components/schemas/Order'
+                  responses:
+                    '200':
+                      description: OK
+            components:
+              schemas:
+                Tag:
+                  type: string
+                Customer:
+                  type: object
+                  description: The customer who placed the order and is billed for it
+                  properties:
+                    name:
+                      type: string
+                      description: Full legal name of the customer as registered with the billing department
+                    referredBy:
+                      $ref: '#/components/schemas/Customer'
+                Order:
+                  type: object
+                  properties:
+                    buyer:
+                      $ref: '#/components/schemas/Customer'
+                    recipient:
+                      $ref: '#/components/schemas/Customer'
+            """;
+
+    private static final String TAGGED = """
+            openapi: 3.0.1
+            info:
+              title: Tagged
+              version: 1.0.0
+            paths:
+              /items:
+                post:
+                  operationId: createItem
+                  requestBody:
+                    content:
+                      application/json:
+                        schema:
+                          $ref: '#/components/schemas/Item'
+                  responses:
+                    '200':
+                      description: OK
+            components:
+              schemas:
+                Tag:
+                  type: string
+                Item:
+                  type: object
+                  properties:
+                    tags:
+                      type: array
+                      items:
+                        $ref: '#/components/schemas/Tag'
+                    dimensions:
+                      type: object
+                      properties:
+                        unit:
+                          type: object
+                          properties:
+                            code:
+                              type: string
+                              enum: [millimetre, centimetre, decimetre, metre, kilometre, inch, foot, yard, mile]
+            """;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static OpenApiDefinitionService orders;
+    private static OpenApiDefinitionService synthetic;
+    private static OpenApiDefinitionService tagged;
+
+    @BeforeAll
+    static void loadSpecs(@TempDir Path tempDir) throws Exception {
+        orders = load("Orders", Files.writeString(tempDir.resolve("orders.yaml"), ORDERS));
+        tagged = load("Tagged", Files.writeString(tempDir.resolve("tagged.yaml"), TAGGED));
+        synthetic = load("Synthetic", SyntheticSpecGenerator.builder()
+                .operations(200)
+                .schemas(60)
+                .cycles(true)
+                .build()
+                .writeTo(tempDir.resolve("synthetic.json")));
+    }
+
+    @Test
+    void shouldEmitEachReferencedComponentOnceUnderDefs() throws Exception {
+        JsonNode schema = compile(orders, "Orders", "createOrder", settings(OpenApiProperties.SchemaMode.DEFS, 0));
+
+        JsonNode defs = schema.path("$defs");
+        assertEquals(List.of("Customer", "Order", "Tag"), fieldNames(defs));
+        assertEquals("#/$defs/Order", schema.path("properties").path("requestBody").path("$ref").asText());
+        assertEquals("#/$defs/Tag", schema.path("properties").path("tags").path("items").path("$ref").asText());
+        assertEquals("#/$defs/Customer", defs.path("Order").path("properties").path("buyer").path("$ref").asText());
+        assertEquals("#/$defs/Customer", defs.path("Customer").path("properties").path("referredBy").path("$ref").asText());
+    }
+
+    @Test
+    void shouldShrinkSchemasOfLargeSpecs() throws Exception {
+        OpenApiProperties inline = settings(OpenApiProperties.SchemaMode.INLINE, 0);
+        OpenApiProperties defs = settings(OpenApiProperties.SchemaMode.DEFS, 0);
+
+        long inlineBytes = 0;
+        long defsBytes = 0;
+        for (String operationId : synthetic.getOperationCache().keySet()) {
+            inlineBytes += objectMapper.writeValueAsBytes(compile(synthetic, "Synthetic", operationId, inline)).length;
+            defsBytes += objectMapper.writeValueAsBytes(compile(synthetic, "Synthetic", operationId, defs)).length;
+        }
+
+        assertTrue(defsBytes * 2 < inlineBytes, "defs " + defsBytes + " bytes, inline " + inlineBytes + " bytes");
+    }
+
+    @Test
+    void shouldTruncateSchemasToByteBudget() throws Exception {
+        OpenApiProperties unlimited = settings(OpenApiProperties.SchemaMode.INLINE, 0);
+        int fullSize = objectMapper.writeValueAsBytes(compile(orders, "Orders", "createOrder", unlimited)).length;
+        int budget = fullSize / 2;
+
+        JsonNode truncated = compile(orders, "Orders", "createOrder", settings(OpenApiProperties.SchemaMode.INLINE, budget));
+
+        assertTrue(objectMapper.writeValueAsBytes(truncated).length <= budget);
+        assertTrue(truncated.path("properties").has("requestBody"));
+        assertTrue(truncated.path("properties").has("tags"));
+    }
+
+    @Test
+    void shouldKeepSchemaWithinBudgetUntouched() throws Exception {
+        JsonNode unlimited = compile(orders, "Orders", "createOrder", settings(OpenApiProperties.SchemaMode.DEFS, 0));
+        JsonNode budgeted = compile(orders, "Orders", "createOrder", settings(OpenApiProperties.SchemaMode.DEFS, 1_000_000));
+
+        assertEquals(unlimited, budgeted);
+    }
+
+    @Test
+    void shouldAcceptValidCallsAfterCuttingReferences() throws Exception {
+        int fullSize = objectMapper.writeValueAsBytes(compile(tagged, "Tagged", "createItem",
+            settings(OpenApiProperties.SchemaMode.DEFS, 0))).length;
+
+        JsonNode truncated = compile(tagged, "Tagged", "createItem",
+            settings(OpenApiProperties.SchemaMode.DEFS, fullSize - 1));
+
+        // The reference to the string Tag is cut, and the object unit keeps its declared type
+        JsonNode item = truncated.path("$defs").path("Item").path("properties");
+        assertEquals(objectMapper.createObjectNode(), item.path("tags").path("items"));
+        assertEquals("object", item.path("dimensions").path("properties").path("unit").path("type").asText());
+        ArgumentValidator validator = ArgumentValidator.compile(objectMapper.convertValue(truncated,
+            new TypeReference<Map<String, Object>>() {
+            }));
+        validator.check("createItem", Map.of("requestBody", Map.of("tags", List.of("red", "large"),
+            "dimensions", Map.of("unit", Map.of("code", "metre")))));
+    }
+
+    private JsonNode compile(OpenApiDefinitionService definitionService, String documentName, String operationId,
+                             OpenApiProperties properties) {
+        ToolConfiguration toolConfiguration = new ToolConfiguration(definitionService, mock(ApiClient.class), null,
+            objectMapper, mock(McpSyncServer.class), mock(McpToolRegistry.class), properties);
+        return objectMapper.valueToTree(toolConfiguration.compileInputSchema(documentName,
+            definitionService.getOperation(operationId).orElseThrow().operation()));
+    }
+
+    private static OpenApiProperties settings(OpenApiProperties.SchemaMode mode, int maxSchemaBytes) {
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.getTools().setSchemaMode(mode);
+        properties.getTools().setMaxSchemaBytes(maxSchemaBytes);
+        return properties;
+    }
+
+    private static OpenApiDefinitionService load(String name, Path location) {
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName(name);
+        document.setLocation(location.toString());
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.setDocuments(List.of(document));
+        OpenApiDefinitionService service = new OpenApiDefinitionService(properties);
+        service.init();
+        return service;
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
@@ -0,0 +1,99 @@
+package com.siri.api.mcp.mcp_openapi_server.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
+import com.siri.api.mcp.mcp_openapi_server.service.ApiClient;
+import com.siri.api.mcp.mcp_openapi_server.service.OpenApiDefinitionService;
+import io.modelcontextprotocol.server.McpSyncServer;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DiscoveryToolsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ApiClient apiClient = mock(ApiClient.class);
+    private final McpSyncServer mcpServer = mock(McpSyncServer.class);
+    private McpToolRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName("Pet Store");
+        document.setLocation("src/test/resources/openapi/petstore.json");
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.setDocuments(List.of(document));
+        properties.getTools().setDiscovery(true);
+
+        OpenApiDefinitionService definitionService = new OpenApiDefinitionService(properties);
+        definitionService.init();
+        registry = new McpToolRegistry(objectMapper, properties);
+        new ToolConfiguration(definitionService, apiClient, mock(ConfigurableBeanFactory.class), objectMapper,
+            mcpServer, registry, properties).registerOpenApiFunctions();
+    }
+
+    @Test
+    void shouldListOnlyTheMetaTools() {
+        assertEquals(List.of(DiscoveryTools.INVOKE_OPERATION, DiscoveryTools.SEARCH_OPERATIONS),
+            registry.snapshot().toolNames());
+        assertEquals(21, registry.size());
+        verify(mcpServer, never()).notifyToolsListChanged();
+    }
+
+    @Test
+    void shouldReturnInputSchemasOfMatchingOperations() throws Exception {
+        McpSchema.CallToolResult result = call(DiscoveryTools.SEARCH_OPERATIONS, Map.of("query", "pet by id", "limit", 3));
+
+        assertFalse(result.isError());
+        JsonNode operations = objectMapper.readTree(text(result)).get("operations");
+        assertEquals(3, operations.size());
+        JsonNode first = operations.get(0);
+        assertEquals("getPetById", first.get("operationId").asText());
+        assertEquals("GET", first.get("method").asText());
+        assertEquals("/pet/{petId}", first.get("path").asText());
+        assertEquals("integer", first.at("/inputSchema/properties/petId/type").asText());
+    }
+
+    @Test
+    void shouldInvokeOperationThroughItsTool() {
+        when(apiClient.invoke(eq("getPetById"), anyMap())).thenReturn("{\"id\":7}");
+
+        McpSchema.CallToolResult result = call(DiscoveryTools.INVOKE_OPERATION,
+            Map.of("operationId", "getPetById", "arguments", Map.of("petId", 7)));
+
+        assertFalse(result.isError());
+        assertEquals("{\"id\":7}", text(result));
+        assertTrue(registry.isMaterialized("getPetById"));
+    }
+
+    @Test
+    void shouldReportUnknownOrInvalidInvocations() {
+        assertTrue(call(DiscoveryTools.INVOKE_OPERATION, Map.of("operationId", "launchRocket")).isError());
+        assertTrue(call(DiscoveryTools.INVOKE_OPERATION, Map.of("operationId", DiscoveryTools.INVOKE_OPERATION)).isError());
+
+        McpSchema.CallToolResult invalid = call(DiscoveryTools.INVOKE_OPERATION,
+            Map.of("operationId", "getPetById", "arguments", Map.of("petId", "seven")));
+        assertTrue(invalid.isError());
+        verify(apiClient, never()).invoke(any(), any());
+    }
+
+    private McpSchema.CallToolResult call(String tool, Map<String, Object> arguments) {
+        return registry.find(tool).orElseThrow().call().apply(mock(McpSyncServerExchange.class), arguments);
+    }
+
+    private static String text(McpSchema.CallToolResult result) {
+        return ((McpSchema.TextContent) result.content().get(0)).text();
+    }
+}
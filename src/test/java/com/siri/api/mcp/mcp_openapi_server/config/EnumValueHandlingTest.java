@@ -2,8 +2,11 @@ package com.siri.api.mcp.mcp_openapi_server.config;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
 import com.siri.api.mcp.mcp_openapi_server.service.ApiClient;
+import com.siri.api.mcp.mcp_openapi_server.service.ComponentIndex;
 import com.siri.api.mcp.mcp_openapi_server.service.OpenApiDefinitionService;
+import io.modelcontextprotocol.server.McpSyncServer;
 import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.Operation;
@@ -47,6 +50,12 @@ public class EnumValueHandlingTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private McpSyncServer mcpServer;
+
+    @Mock
+    private McpToolRegistry toolRegistry;
+
     @InjectMocks
     private ToolConfiguration toolConfiguration;
 
@@ -182,6 +191,7 @@ public class EnumValueHandlingTest {
                 new OpenApiDefinitionService.ApiOperation(document, openAPI, "/pet/findByStatus", PathItem.HttpMethod.GET, findPetsOperation));
 
         when(openApiDefinitionService.getOperationCache()).thenReturn(operationCache);
+        when(openApiDefinitionService.getComponentIndex("Test API")).thenReturn(ComponentIndex.of(openAPI));
 
         // Act
         toolConfiguration.registerOpenApiFunctions();
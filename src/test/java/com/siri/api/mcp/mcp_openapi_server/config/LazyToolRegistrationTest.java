@@ -0,0 +1,111 @@
+package com.siri.api.mcp.mcp_openapi_server.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
+import com.siri.api.mcp.mcp_openapi_server.service.ApiClient;
+import com.siri.api.mcp.mcp_openapi_server.service.OpenApiDefinitionService;
+import com.siri.api.mcp.mcp_openapi_server.support.SyntheticSpecGenerator;
+import io.modelcontextprotocol.server.McpSyncServer;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LazyToolRegistrationTest {
+
+    private static final int OPERATIONS = 500;
+
+    private static OpenApiDefinitionService definitionService;
+
+    @BeforeAll
+    static void loadSpec(@TempDir Path tempDir) throws Exception {
+        Path spec = SyntheticSpecGenerator.builder()
+                .operations(OPERATIONS)
+                .schemas(100)
+                .build()
+                .writeTo(tempDir.resolve("synthetic.json"));
+
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName("Synthetic");
+        document.setLocation(spec.toString());
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.setDocuments(List.of(document));
+
+        definitionService = new OpenApiDefinitionService(properties);
+        definitionService.init();
+    }
+
+    @Test
+    void shouldRegisterNamesWithoutCompilingTools() {
+        Registration registration = register(true, 0);
+
+        assertEquals(OPERATIONS, registration.registry().size());
+        assertTrue(registration.registry().snapshot().toolNames().stream()
+            .noneMatch(registration.registry()::isMaterialized));
+        verify(registration.beanFactory(), never()).registerSingleton(any(), any());
+        verify(registration.mcpServer(), times(1)).notifyToolsListChanged();
+    }
+
+    @Test
+    void shouldCompileToolOnFirstCall() {
+        Registration registration = register(true, 0);
+        String operationId = registration.registry().snapshot().toolNames().get(7);
+
+        McpSchema.CallToolResult result = registration.registry().find(operationId).orElseThrow()
+            .call().apply(null, Map.of());
+
+        assertNotNull(result);
+        assertTrue(registration.registry().isMaterialized(operationId));
+        assertFalse(registration.registry().isMaterialized(registration.registry().snapshot().toolNames().get(8)));
+        verify(registration.beanFactory()).registerSingleton(eq(operationId + "Tool"), any());
+    }
+
+    @Test
+    void shouldCompileOnlyTheToolsOfAListedPage() {
+        Registration registration = register(true, 50);
+        List<String> names = registration.registry().snapshot().toolNames();
+
+        registration.registry().snapshot().page(1);
+
+        for (int i = 0; i < names.size(); i++) {
+            assertEquals(i >= 50 && i < 100, registration.registry().isMaterialized(names.get(i)), names.get(i));
+        }
+    }
+
+    @Test
+    void shouldListSameToolsAsEagerRegistration() {
+        Registration eager = register(false, 0);
+        Registration lazy = register(true, 0);
+
+        assertEquals(eager.registry().snapshot().listResult().json(), lazy.registry().snapshot().listResult().json());
+    }
+
+    private Registration register(boolean lazy, int pageSize) {
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.getTools().setLazy(lazy);
+        properties.getTools().setListPageSize(pageSize);
+        properties.getTools().setCompileParallelism(1);
+        ObjectMapper objectMapper = new ObjectMapper();
+        McpToolRegistry registry = new McpToolRegistry(objectMapper, properties);
+        ConfigurableBeanFactory beanFactory = mock(ConfigurableBeanFactory.class);
+        McpSyncServer mcpServer = mock(McpSyncServer.class);
+
+        new ToolConfiguration(definitionService, mock(ApiClient.class), beanFactory, objectMapper, mcpServer,
+            registry, properties).registerOpenApiFunctions();
+        return new Registration(registry, beanFactory, mcpServer);
+    }
+
+    private record Registration(McpToolRegistry registry, ConfigurableBeanFactory beanFactory,
+                                McpSyncServer mcpServer) {
+    }
+}
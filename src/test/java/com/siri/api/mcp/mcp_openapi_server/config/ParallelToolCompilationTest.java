@@ -0,0 +1,103 @@
+package com.siri.api.mcp.mcp_openapi_server.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
+import com.siri.api.mcp.mcp_openapi_server.service.ApiClient;
+import com.siri.api.mcp.mcp_openapi_server.service.OpenApiDefinitionService;
+import com.siri.api.mcp.mcp_openapi_server.support.SyntheticSpecGenerator;
+import io.modelcontextprotocol.server.McpSyncServer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ParallelToolCompilationTest {
+
+    private static final int OPERATIONS = 600;
+
+    private static OpenApiDefinitionService definitionService;
+
+    @BeforeAll
+    static void loadSpec(@TempDir Path tempDir) throws Exception {
+        Path spec = SyntheticSpecGenerator.builder()
+                .operations(OPERATIONS)
+                .schemas(120)
+                .build()
+                .writeTo(tempDir.resolve("synthetic.json"));
+
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName("Synthetic");
+        document.setLocation(spec.toString());
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.setDocuments(List.of(document));
+
+        definitionService = new OpenApiDefinitionService(properties);
+        definitionService.init();
+    }
+
+    @Test
+    void shouldProduceSameToolsRegardlessOfParallelism() {
+        Registration sequential = register(1);
+        Registration parallel = register(4);
+
+        assertEquals(OPERATIONS, parallel.registry().size());
+        assertEquals(sequential.registry().snapshot().listResult().json(),
+            parallel.registry().snapshot().listResult().json());
+        assertEquals(sequential.beanNames(), parallel.beanNames());
+    }
+
+    @Test
+    void shouldRegisterInOperationOrderWithSingleListChange() {
+        Registration registration = register(4);
+
+        List<String> operationIds = registration.beanNames().stream()
+            .map(beanName -> beanName.substring(0, beanName.length() - "Tool".length()))
+            .toList();
+        List<String> sorted = new ArrayList<>(operationIds);
+        sorted.sort(null);
+        assertEquals(sorted, operationIds);
+        verify(registration.mcpServer(), times(1)).notifyToolsListChanged();
+    }
+
+    @Test
+    void shouldSkipOperationsThatAreAlreadyRegistered() {
+        Registration registration = register(2);
+
+        ToolConfiguration toolConfiguration = new ToolConfiguration(definitionService, mock(ApiClient.class),
+            registration.beanFactory(), new ObjectMapper(), registration.mcpServer(), registration.registry(), null);
+        when(registration.beanFactory().containsSingleton(any())).thenReturn(true);
+
+        assertEquals(0, toolConfiguration.registerOperations(definitionService.getOperationCache()));
+        assertEquals(OPERATIONS, registration.registry().size());
+    }
+
+    private Registration register(int parallelism) {
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.getTools().setCompileParallelism(parallelism);
+        ObjectMapper objectMapper = new ObjectMapper();
+        McpToolRegistry registry = new McpToolRegistry(objectMapper, properties);
+        ConfigurableBeanFactory beanFactory = mock(ConfigurableBeanFactory.class);
+        McpSyncServer mcpServer = mock(McpSyncServer.class);
+
+        ToolConfiguration toolConfiguration = new ToolConfiguration(definitionService, mock(ApiClient.class),
+            beanFactory, objectMapper, mcpServer, registry, properties);
+        toolConfiguration.registerOpenApiFunctions();
+
+        ArgumentCaptor<String> beanNames = ArgumentCaptor.forClass(String.class);
+        verify(beanFactory, times(OPERATIONS)).registerSingleton(beanNames.capture(), any());
+        return new Registration(registry, beanFactory, mcpServer, beanNames.getAllValues());
+    }
+
+    private record Registration(McpToolRegistry registry, ConfigurableBeanFactory beanFactory,
+                                McpSyncServer mcpServer, List<String> beanNames) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.siri.api.mcp.mcp_openapi_server.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
+import com.siri.api.mcp.mcp_openapi_server.service.ApiClient;
+import com.siri.api.mcp.mcp_openapi_server.service.ComponentIndex;
+import com.siri.api.mcp.mcp_openapi_server.service.OpenApiDefinitionService;
+import io.modelcontextprotocol.server.McpSyncServer;
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SchemaInternerTest {
+
+    @Test
+    void shouldReturnSameInstanceForStructurallyEqualFragments() {
+        SchemaInterner interner = new SchemaInterner();
+
+        Map<String, Object> first = interner.intern(pageSizeSchema());
+        Map<String, Object> second = interner.intern(pageSizeSchema());
+
+        assertThat(second).isSameAs(first);
+        assertThat(interner.intern(Map.of("type", "string"))).isNotSameAs(first);
+    }
+
+    @Test
+    void shouldShareNestedFragmentsAcrossDifferentParents() {
+        SchemaInterner interner = new SchemaInterner();
+
+        Map<String, Object> list = interner.intern(Map.of("type", "object", "properties", Map.of("size", pageSizeSchema())));
+        Map<String, Object> search = interner.intern(Map.of("type", "object", "properties", Map.of("limit", pageSizeSchema())));
+
+        Object listSize = ((Map<?, ?>) list.get("properties")).get("size");
+        Object searchLimit = ((Map<?, ?>) search.get("properties")).get("limit");
+        assertThat(searchLimit).isSameAs(listSize);
+    }
+
+    @Test
+    void shouldProduceImmutableNodes() {
+        Map<String, Object> interned = new SchemaInterner().intern(pageSizeSchema());
+
+        assertThrows(UnsupportedOperationException.class, () -> interned.put("type", "string"));
+        assertThrows(UnsupportedOperationException.class, () -> ((List<Object>) interned.get("enum")).add(100));
+    }
+
+    @Test
+    void shouldShareCompiledParameterSchemasBetweenOperations() {
+        OpenApiDefinitionService definitionService = mock(OpenApiDefinitionService.class);
+        when(definitionService.getComponentIndex("Test API")).thenReturn(ComponentIndex.of(pagedDocument()));
+        ToolConfiguration toolConfiguration = new ToolConfiguration(definitionService, mock(ApiClient.class),
+                null, new ObjectMapper(), mock(McpSyncServer.class), mock(McpToolRegistry.class), null);
+
+        Map<String, Object> listPets = toolConfiguration.compileInputSchema("Test API", pagedOperation());
+        Map<String, Object> listOwners = toolConfiguration.compileInputSchema("Test API", pagedOperation());
+
+        Object petsPageSize = ((Map<?, ?>) listPets.get("properties")).get("pageSize");
+        Object ownersPageSize = ((Map<?, ?>) listOwners.get("properties")).get("pageSize");
+        assertThat(ownersPageSize).isSameAs(petsPageSize);
+        assertThat(listOwners).isSameAs(listPets);
+    }
+
+    private Map<String, Object> pageSizeSchema() {
+        Map<String, Object> schema = new HashMap<>();
+        schema.put("type", "integer");
+        schema.put("description", "Page size");
+        schema.put("enum", List.of(10, 50, 100));
+        return schema;
+    }
+
+    private OpenAPI pagedDocument() {
+        Schema<Integer> schema = new Schema<>();
+        schema.setType("integer");
+        Parameter pageSize = new Parameter();
+        pageSize.setName("pageSize");
+        pageSize.setIn("query");
+        pageSize.setSchema(schema);
+
+        Components components = new Components();
+        components.setParameters(Map.of("PageSize", pageSize));
+        OpenAPI openAPI = new OpenAPI();
+        openAPI.setComponents(components);
+        return openAPI;
+    }
+
+    private Operation pagedOperation() {
+        Parameter ref = new Parameter();
+        ref.set$ref("#/components/parameters/PageSize");
+        Operation operation = new Operation();
+        operation.addParametersItem(ref);
+        return operation;
+    }
+}
@@ -0,0 +1,80 @@
+package com.siri.api.mcp.mcp_openapi_server.config;
+
+import com.siri.api.mcp.mcp_openapi_server.service.ComponentIndex;
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.media.Schema;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaReferenceGraphTest {
+
+    @Test
+    void shouldGroupMutuallyReferencingSchemasIntoOneCyclicComponent() {
+        SchemaReferenceGraph graph = graph(Map.of(
+                "A", object(Map.of("b", ref("B"))),
+                "B", object(Map.of("c", ref("C"))),
+                "C", object(Map.of("a", ref("A"))),
+                "D", object(Map.of("a", ref("A")))));
+
+        int component = graph.component("#/components/schemas/A");
+        assertEquals(component, graph.component("#/components/schemas/B"));
+        assertEquals(component, graph.component("#/components/schemas/C"));
+        assertTrue(graph.isCyclic(component));
+        assertNotEquals(component, graph.component("#/components/schemas/D"));
+        assertFalse(graph.isCyclic(graph.component("#/components/schemas/D")));
+    }
+
+    @Test
+    void shouldTreatSelfReferenceAsCycle() {
+        Schema<Object> items = ref("Node");
+        Schema<Object> children = new Schema<>();
+        children.setType("array");
+        children.setItems(items);
+
+        SchemaReferenceGraph graph = graph(Map.of("Node", object(Map.of("children", children))));
+
+        assertTrue(graph.isCyclic(graph.component("#/components/schemas/Node")));
+    }
+
+    @Test
+    void shouldHandleLongReferenceChainsWithoutCycles() {
+        Map<String, Schema> schemas = new LinkedHashMap<>();
+        int length = 20_000;
+        for (int i = 0; i < length; i++) {
+            schemas.put("S" + i, i + 1 < length ? object(Map.of("next", ref("S" + (i + 1)))) : object(Map.of()));
+        }
+
+        SchemaReferenceGraph graph = graph(schemas);
+
+        for (int i = 0; i < length; i += 1_000) {
+            assertFalse(graph.isCyclic(graph.component("#/components/schemas/S" + i)));
+        }
+        assertEquals(-1, graph.component("#/components/schemas/Missing"));
+    }
+
+    private SchemaReferenceGraph graph(Map<String, Schema> schemas) {
+        Components components = new Components();
+        components.setSchemas(schemas);
+        OpenAPI openAPI = new OpenAPI();
+        openAPI.setComponents(components);
+        return SchemaReferenceGraph.of(ComponentIndex.of(openAPI));
+    }
+
+    private static Schema<Object> object(Map<String, Schema> properties) {
+        Schema<Object> schema = new Schema<>();
+        schema.setType("object");
+        schema.setProperties(new LinkedHashMap<>(properties));
+        return schema;
+    }
+
+    private static Schema<Object> ref(String name) {
+        Schema<Object> schema = new Schema<>();
+        schema.set$ref("#/components/schemas/" + name);
+        return schema;
+    }
+}
@@ -0,0 +1,229 @@
+package com.siri.api.mcp.mcp_openapi_server.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
+import com.siri.api.mcp.mcp_openapi_server.service.ApiClient;
+import com.siri.api.mcp.mcp_openapi_server.service.ComponentIndex;
+import com.siri.api.mcp.mcp_openapi_server.service.OpenApiDefinitionService;
+import io.modelcontextprotocol.server.McpSyncServer;
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.RequestBody;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SchemaReferenceResolutionTest {
+
+    @Mock
+    private OpenApiDefinitionService openApiDefinitionService;
+
+    @Mock
+    private ApiClient apiClient;
+
+    @Mock
+    private ConfigurableBeanFactory beanFactory;
+
+    @Mock
+    private McpSyncServer mcpServer;
+
+    @Mock
+    private McpToolRegistry toolRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ToolConfiguration toolConfiguration;
+
+    @BeforeEach
+    void setUp() {
+        toolConfiguration = new ToolConfiguration(openApiDefinitionService, apiClient, beanFactory, objectMapper, mcpServer, toolRegistry, null);
+    }
+
+    @Test
+    void shouldResolveSameSchemaNameAgainstOwningDocument() throws Exception {
+        when(openApiDefinitionService.getComponentIndex("Store")).thenReturn(
+                ComponentIndex.of(documentWithPet("name", "string")));
+        when(openApiDefinitionService.getComponentIndex("Clinic")).thenReturn(
+                ComponentIndex.of(documentWithPet("weight", "number")));
+
+        JsonNode storeSchema = objectMapper.readTree(
+                toolConfiguration.convertParametersToJsonSchema("Store", createPetOperation()));
+        JsonNode clinicSchema = objectMapper.readTree(
+                toolConfiguration.convertParametersToJsonSchema("Clinic", createPetOperation()));
+
+        JsonNode storeBody = storeSchema.path("properties").path("requestBody").path("properties");
+        JsonNode clinicBody = clinicSchema.path("properties").path("requestBody").path("properties");
+        assertThat(storeBody.has("name")).isTrue();
+        assertThat(storeBody.has("weight")).isFalse();
+        assertThat(clinicBody.has("weight")).isTrue();
+        assertThat(clinicBody.has("name")).isFalse();
+    }
+
+    @Test
+    void shouldForgetConvertedSchemasWhenDocumentIsEvicted() throws Exception {
+        when(openApiDefinitionService.getComponentIndex("Store")).thenReturn(
+                ComponentIndex.of(documentWithPet("name", "string")),
+                ComponentIndex.of(documentWithPet("nickname", "string")));
+
+        toolConfiguration.convertParametersToJsonSchema("Store", createPetOperation());
+        toolConfiguration.evictDocument("Store");
+        JsonNode reloaded = objectMapper.readTree(
+                toolConfiguration.convertParametersToJsonSchema("Store", createPetOperation()));
+
+        assertThat(reloaded.path("properties").path("requestBody").path("properties").has("nickname")).isTrue();
+    }
+
+    @Test
+    void shouldExpandCyclicReferencesIndependentlyOfEntryOrder() throws Exception {
+        ComponentIndex index = ComponentIndex.of(documentWithCycle());
+        when(openApiDefinitionService.getComponentIndex("Family")).thenReturn(index);
+        when(openApiDefinitionService.getComponentIndex("Family Reversed")).thenReturn(index);
+
+        toolConfiguration.convertParametersToJsonSchema("Family", bodyOperation("Parent"));
+        JsonNode childFirst = objectMapper.readTree(
+                toolConfiguration.convertParametersToJsonSchema("Family", bodyOperation("Child")));
+        JsonNode childOnly = objectMapper.readTree(
+                toolConfiguration.convertParametersToJsonSchema("Family Reversed", bodyOperation("Child")));
+
+        assertThat(childFirst).isEqualTo(childOnly);
+        JsonNode parent = childFirst.path("properties").path("requestBody").path("properties").path("parent");
+        assertThat(parent.path("$ref").asText()).isEqualTo("#/components/schemas/Parent");
+        assertThat(parent.path("properties").path("child").path("description").asText())
+                .isEqualTo("Circular reference: #/components/schemas/Child");
+    }
+
+    @Test
+    @Timeout(value = 30, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void shouldExpandEachMemberOfACycleOncePerEntryReference() {
+        // Every schema refers to every other, so expanding each path separately would take 11! paths
+        int size = 12;
+        Map<String, Schema> schemas = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            Map<String, Schema> properties = new LinkedHashMap<>();
+            for (int j = 0; j < size; j++) {
+                Schema<Object> ref = new Schema<>();
+                ref.set$ref("#/components/schemas/S" + j);
+                properties.put("s" + j, ref);
+            }
+            Schema<Object> schema = new Schema<>();
+            schema.setType("object");
+            schema.setProperties(properties);
+            schemas.put("S" + i, schema);
+        }
+        Components components = new Components();
+        components.setSchemas(schemas);
+        OpenAPI openAPI = new OpenAPI();
+        openAPI.setComponents(components);
+        when(openApiDefinitionService.getComponentIndex("Mesh")).thenReturn(ComponentIndex.of(openAPI));
+
+        Map<String, Object> compiled = toolConfiguration.compileInputSchema("Mesh", bodyOperation("S0"));
+
+        Map<?, ?> entry = (Map<?, ?>) ((Map<?, ?>) compiled.get("properties")).get("requestBody");
+        Map<?, ?> properties = (Map<?, ?>) entry.get("properties");
+        Map<?, ?> first = (Map<?, ?>) properties.get("s1");
+        assertThat(((Map<?, ?>) properties.get("s0")).get("description")).isEqualTo("Circular reference: #/components/schemas/S0");
+        // S2 was expanded inside S1 and is reused as is where S0 refers to it
+        assertThat(properties.get("s2")).isSameAs(((Map<?, ?>) first.get("properties")).get("s2"));
+    }
+
+    @Test
+    void shouldExpandDeeplyNestedSchemasWithoutRecursion() throws Exception {
+        int depth = 5_000;
+        Schema<Object> leaf = new Schema<>();
+        leaf.setType("string");
+        Schema<Object> schema = leaf;
+        for (int level = 0; level < depth; level++) {
+            Schema<Object> parent = new Schema<>();
+            parent.setType("object");
+            parent.setProperties(Map.of("nested", schema));
+            schema = parent;
+        }
+
+        Map<String, Object> compiled = toolConfiguration.compileInputSchema("Deep", bodyOperation(schema));
+
+        Object node = compiled.get("properties");
+        node = ((Map<?, ?>) node).get("requestBody");
+        int levels = 0;
+        while (node instanceof Map<?, ?> map && map.get("properties") instanceof Map<?, ?> properties) {
+            node = properties.get("nested");
+            levels++;
+        }
+        assertThat(levels).isEqualTo(depth);
+        assertThat(((Map<?, ?>) node).get("type")).isEqualTo("string");
+    }
+
+    private OpenAPI documentWithCycle() {
+        Schema<Object> childRef = new Schema<>();
+        childRef.set$ref("#/components/schemas/Child");
+        Schema<Object> parentRef = new Schema<>();
+        parentRef.set$ref("#/components/schemas/Parent");
+
+        Schema<Object> parent = new Schema<>();
+        parent.setType("object");
+        parent.setProperties(Map.of("child", childRef));
+        Schema<Object> child = new Schema<>();
+        child.setType("object");
+        child.setProperties(Map.of("parent", parentRef));
+
+        Components components = new Components();
+        components.setSchemas(Map.of("Parent", parent, "Child", child));
+
+        OpenAPI openAPI = new OpenAPI();
+        openAPI.setComponents(components);
+        return openAPI;
+    }
+
+    private Operation bodyOperation(String schemaName) {
+        Schema<Object> ref = new Schema<>();
+        ref.set$ref("#/components/schemas/" + schemaName);
+        return bodyOperation(ref);
+    }
+
+    private OpenAPI documentWithPet(String propertyName, String propertyType) {
+        Schema<Object> property = new Schema<>();
+        property.setType(propertyType);
+
+        Schema<Object> pet = new Schema<>();
+        pet.setType("object");
+        pet.setProperties(Map.of(propertyName, property));
+
+        Components components = new Components();
+        components.setSchemas(Map.of("Pet", pet));
+
+        OpenAPI openAPI = new OpenAPI();
+        openAPI.setComponents(components);
+        return openAPI;
+    }
+
+    private Operation createPetOperation() {
+        return bodyOperation("Pet");
+    }
+
+    private Operation bodyOperation(Schema<?> schema) {
+        MediaType mediaType = new MediaType();
+        mediaType.setSchema(schema);
+        Content content = new Content();
+        content.addMediaType("application/json", mediaType);
+        RequestBody requestBody = new RequestBody();
+        requestBody.setContent(content);
+
+        Operation operation = new Operation();
+        operation.setRequestBody(requestBody);
+        return operation;
+    }
+}
@@ -1,8 +1,11 @@
 package com.siri.api.mcp.mcp_openapi_server.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
 import com.siri.api.mcp.mcp_openapi_server.service.ApiClient;
+import com.siri.api.mcp.mcp_openapi_server.service.ComponentIndex;
 import com.siri.api.mcp.mcp_openapi_server.service.OpenApiDefinitionService;
+import io.modelcontextprotocol.server.McpSyncServer;
 import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.Operation;
@@ -10,6 +13,7 @@ import io.swagger.v3.oas.models.PathItem;
 import io.swagger.v3.oas.models.media.Content;
 import io.swagger.v3.oas.models.media.MediaType;
 import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
 import io.swagger.v3.oas.models.parameters.RequestBody;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -41,6 +45,12 @@ public class ToolConfigurationTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private McpSyncServer mcpServer;
+
+    @Mock
+    private McpToolRegistry toolRegistry;
+
     @InjectMocks
     private ToolConfiguration toolConfiguration;
 
@@ -125,6 +135,48 @@ public class ToolConfigurationTest {
         verify(beanFactory).registerSingleton(eq("testOperationTool"), any(FunctionToolCallback.class));
     }
 
+    @Test
+    void shouldRejectInvalidArgumentsWithoutCallingApi() throws Exception {
+        // Arrange - an operation with a required integer path parameter
+        Map<String, OpenApiDefinitionService.ApiOperation> operationCache = new HashMap<>();
+
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName("Test API");
+
+        Schema<Object> idSchema = new Schema<>();
+        idSchema.setType("integer");
+        Parameter petId = new Parameter();
+        petId.setName("petId");
+        petId.setIn("path");
+        petId.setRequired(true);
+        petId.setSchema(idSchema);
+
+        Operation getPetById = new Operation();
+        getPetById.setSummary("Get pet by ID");
+        getPetById.addParametersItem(petId);
+
+        operationCache.put("getPetById", new OpenApiDefinitionService.ApiOperation(
+            document, new OpenAPI(), "/pet/{petId}", PathItem.HttpMethod.GET, getPetById));
+
+        when(openApiDefinitionService.getOperationCache()).thenReturn(operationCache);
+        when(objectMapper.writeValueAsString(any())).thenReturn("{\"type\":\"object\",\"properties\":{}}");
+
+        toolConfiguration.registerOpenApiFunctions();
+        verify(beanFactory).registerSingleton(eq("getPetByIdTool"), toolCallbackCaptor.capture());
+        @SuppressWarnings("unchecked")
+        FunctionToolCallback<Map<String, Object>, Object> callback = toolCallbackCaptor.getValue();
+
+        // Act & Assert - a non-numeric ID fails before any request is made
+        Exception error = assertThrows(Exception.class, () -> callback.call("{\"petId\":\"abc\"}"));
+        assertTrue(error.getMessage().contains("petId: expected integer"), error.getMessage());
+        verifyNoInteractions(apiClient);
+
+        callback.call("{\"petId\":\"42\"}");
+        verify(apiClient).invoke(eq("getPetById"), any());
+        assertEquals(2, toolConfiguration.validationStats().get(0).getValidated());
+        assertEquals(1, toolConfiguration.validationStats().get(0).getRejected());
+    }
+
     @Test
     void shouldHandleReferencedSchemas() throws Exception {
         // Arrange - create an operation with a referenced schema
@@ -183,6 +235,7 @@ public class ToolConfigurationTest {
             document, openAPI, "/pet", PathItem.HttpMethod.POST, createPetOperation));
 
         when(openApiDefinitionService.getOperationCache()).thenReturn(operationCache);
+        when(openApiDefinitionService.getComponentIndex("Pet API")).thenReturn(ComponentIndex.of(openAPI));
 
         // Simply mock the ObjectMapper to return a fixed JSON string
         when(objectMapper.writeValueAsString(any())).thenReturn(
@@ -244,6 +297,7 @@ public class ToolConfigurationTest {
             document, openAPI, "/pet/{petId}", PathItem.HttpMethod.GET, getPetOperation));
 
         when(openApiDefinitionService.getOperationCache()).thenReturn(operationCache);
+        when(openApiDefinitionService.getComponentIndex("Pet API")).thenReturn(ComponentIndex.of(openAPI));
 
         // Here we're mocking the resolveParameterSchema method indirectly
         // We'll make the objectMapper mock to skip the schema processing step
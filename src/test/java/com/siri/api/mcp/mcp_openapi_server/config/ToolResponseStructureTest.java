@@ -1,9 +1,10 @@
 package com.siri.api.mcp.mcp_openapi_server.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
 import com.siri.api.mcp.mcp_openapi_server.service.ApiClient;
 import com.siri.api.mcp.mcp_openapi_server.service.OpenApiDefinitionService;
-import io.modelcontextprotocol.server.McpServer;
+import io.modelcontextprotocol.server.McpSyncServer;
 import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.Operation;
@@ -39,7 +40,10 @@ class ToolResponseStructureTest {
     private ConfigurableBeanFactory beanFactory;
 
     @Mock
-    private McpServer mcpServer;
+    private McpSyncServer mcpServer;
+
+    @Mock
+    private McpToolRegistry toolRegistry;
     private ObjectMapper objectMapper;
     private ToolConfiguration toolConfiguration;
 
@@ -47,7 +51,7 @@ class ToolResponseStructureTest {
     @BeforeEach
     void setUp() {
         objectMapper = new ObjectMapper();
-        toolConfiguration = new ToolConfiguration(openApiDefinitionService, apiClient, beanFactory, objectMapper, mcpServer);
+        toolConfiguration = new ToolConfiguration(openApiDefinitionService, apiClient, beanFactory, objectMapper, mcpServer, toolRegistry, null);
     }
 
     @Test
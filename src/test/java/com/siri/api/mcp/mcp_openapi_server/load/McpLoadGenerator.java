@@ -0,0 +1,210 @@
+package com.siri.api.mcp.mcp_openapi_server.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.McpOpenapiServerApplication;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.client.transport.HttpClientSseClientTransport;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load generator for the MCP SSE transport.
+ * <p>
+ * Starts a {@link StubUpstreamServer}, writes an OpenAPI spec whose server URL points at it, boots the
+ * application on a random local port and drives a number of concurrent MCP sessions that issue
+ * {@code tools/call} requests in a closed loop. Latencies are recorded in microseconds with HdrHistogram.
+ * Everything runs on localhost.
+ * <p>
+ * Settings are read from system properties ({@code load.sessions}, {@code load.warmup},
+ * {@code load.duration}, {@code load.operations}, {@code load.upstreamLatencyMs}), e.g.
+ * {@code mvn test -Dtest=McpLoadGeneratorTest -Dload.run=true -Dload.sessions=64 -Dload.duration=PT60S}.
+ */
+public class McpLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    public record Settings(int sessions, Duration warmup, Duration duration, int operations, long upstreamLatencyMillis) {
+
+        public static Settings fromSystemProperties() {
+            return new Settings(
+                    Integer.getInteger("load.sessions", 4),
+                    Duration.parse(System.getProperty("load.warmup", "PT1S")),
+                    Duration.parse(System.getProperty("load.duration", "PT3S")),
+                    Integer.getInteger("load.operations", 20),
+                    Long.getLong("load.upstreamLatencyMs", 0L)
+            );
+        }
+    }
+
+    public record Report(long calls, long errors, Duration elapsed, Histogram latencyMicros) {
+
+        public double throughput() {
+            return elapsed.isZero() ? 0 : calls * 1_000_000_000.0 / elapsed.toNanos();
+        }
+
+        public double errorRate() {
+            return calls == 0 ? 0 : (double) errors / calls;
+        }
+
+        public String format() {
+            return String.format(Locale.ROOT,
+                    "calls=%d errors=%d (%.2f%%) elapsed=%.1fs throughput=%.1f calls/s%n"
+                            + "latency us: p50=%d p90=%d p99=%d p99.9=%d max=%d mean=%.1f",
+                    calls, errors, errorRate() * 100, elapsed.toMillis() / 1000.0, throughput(),
+                    latencyMicros.getValueAtPercentile(50), latencyMicros.getValueAtPercentile(90),
+                    latencyMicros.getValueAtPercentile(99), latencyMicros.getValueAtPercentile(99.9),
+                    latencyMicros.getMaxValue(), latencyMicros.getMean());
+        }
+    }
+
+    private record SessionResult(long calls, long errors, Histogram latencyMicros) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println(run(Settings.fromSystemProperties()).format());
+    }
+
+    public static Report run(Settings settings) throws Exception {
+        try (StubUpstreamServer upstream = new StubUpstreamServer(settings.upstreamLatencyMillis()).start()) {
+            Path spec = writeSpec(settings.operations(), upstream.baseUrl());
+            try (ConfigurableApplicationContext context = startServer(spec)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                return drive(settings, "http://127.0.0.1:" + port);
+            } finally {
+                Files.deleteIfExists(spec);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startServer(Path spec) {
+        return new SpringApplicationBuilder(McpOpenapiServerApplication.class).run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.com.siri.api.mcp.mcp_openapi_server.load=INFO",
+                "--openapi.documents[0].name=Load Test",
+                "--openapi.documents[0].location=" + spec.toAbsolutePath()
+        );
+    }
+
+    private static Report drive(Settings settings, String baseUrl) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(settings.sessions());
+        try {
+            long start = System.nanoTime();
+            long measureFrom = start + settings.warmup().toNanos();
+            long deadline = measureFrom + settings.duration().toNanos();
+
+            List<Future<SessionResult>> futures = new ArrayList<>();
+            for (int i = 0; i < settings.sessions(); i++) {
+                int sessionIndex = i;
+                futures.add(executor.submit(() -> runSession(baseUrl, sessionIndex, settings.operations(), measureFrom, deadline)));
+            }
+
+            Histogram latencies = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+            long calls = 0;
+            long errors = 0;
+            for (Future<SessionResult> future : futures) {
+                SessionResult result = future.get();
+                calls += result.calls();
+                errors += result.errors();
+                latencies.add(result.latencyMicros());
+            }
+            return new Report(calls, errors, Duration.ofNanos(deadline - measureFrom), latencies);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static SessionResult runSession(String baseUrl, int sessionIndex, int operations, long measureFrom, long deadline) {
+        Histogram latencies = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long calls = 0;
+        long errors = 0;
+
+        McpSyncClient client = McpClient.sync(HttpClientSseClientTransport.builder(baseUrl).build())
+                .requestTimeout(Duration.ofSeconds(30))
+                .build();
+        try {
+            client.initialize();
+            int advertised = client.listTools().tools().size();
+            if (advertised < operations) {
+                throw new IllegalStateException("Server advertises " + advertised + " tools, expected " + operations);
+            }
+            long sequence = sessionIndex;
+            long now;
+            while ((now = System.nanoTime()) < deadline) {
+                String toolName = "getItem" + (sequence % operations);
+                McpSchema.CallToolRequest request = new McpSchema.CallToolRequest(toolName, Map.of("id", sequence));
+                sequence++;
+
+                boolean failed;
+                try {
+                    McpSchema.CallToolResult result = client.callTool(request);
+                    failed = Boolean.TRUE.equals(result.isError());
+                } catch (Exception e) {
+                    failed = true;
+                }
+                long end = System.nanoTime();
+
+                if (now >= measureFrom && end <= deadline) {
+                    calls++;
+                    if (failed) {
+                        errors++;
+                    }
+                    latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(end - now), HIGHEST_TRACKABLE_MICROS));
+                }
+            }
+        } finally {
+            client.closeGracefully();
+        }
+        return new SessionResult(calls, errors, latencies);
+    }
+
+    /**
+     * Writes an OpenAPI document with {@code operations} GET operations named {@code getItem0..N},
+     * each taking an {@code id} path parameter and served by {@code serverUrl}.
+     */
+    static Path writeSpec(int operations, String serverUrl) throws IOException {
+        Map<String, Object> paths = new LinkedHashMap<>();
+        for (int i = 0; i < operations; i++) {
+            Map<String, Object> idParameter = Map.of(
+                    "name", "id",
+                    "in", "path",
+                    "required", true,
+                    "schema", Map.of("type", "integer", "format", "int64"));
+            Map<String, Object> operation = Map.of(
+                    "operationId", "getItem" + i,
+                    "summary", "Get item from collection " + i,
+                    "parameters", List.of(idParameter),
+                    "responses", Map.of("200", Map.of("description", "OK")));
+            paths.put("/items" + i + "/{id}", Map.of("get", operation));
+        }
+
+        Map<String, Object> spec = new LinkedHashMap<>();
+        spec.put("openapi", "3.0.3");
+        spec.put("info", Map.of("title", "Load Test API", "version", "1.0.0"));
+        spec.put("servers", List.of(Map.of("url", serverUrl)));
+        spec.put("paths", paths);
+
+        Path file = Files.createTempFile("mcp-load-spec", ".json");
+        new ObjectMapper().writeValue(file.toFile(), spec);
+        return file;
+    }
+}
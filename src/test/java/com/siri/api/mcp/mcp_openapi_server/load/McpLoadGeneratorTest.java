@@ -0,0 +1,28 @@
+package com.siri.api.mcp.mcp_openapi_server.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the load generator with the settings from system properties. It boots the whole application, so it
+ * only runs when asked for with {@code -Dload.run=true}. The defaults are a short smoke run; pass e.g.
+ * {@code -Dload.sessions=64 -Dload.duration=PT60S} for a real measurement.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "load.run", matches = "true")
+class McpLoadGeneratorTest {
+
+    @Test
+    void shouldDriveToolCallsOverSseTransport() throws Exception {
+        McpLoadGenerator.Report report = McpLoadGenerator.run(McpLoadGenerator.Settings.fromSystemProperties());
+
+        log.info("Load run finished: {}", report.format());
+
+        assertTrue(report.calls() > 0, "Load run should complete tool calls");
+        assertEquals(0, report.errors(), "Tool calls against the stub upstream should not fail");
+    }
+}
@@ -0,0 +1,213 @@
+package com.siri.api.mcp.mcp_openapi_server.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class McpToolRegistryTest {
+
+    private static final String SCHEMA = "{\"type\":\"object\",\"properties\":{\"id\":{\"type\":\"string\"}}}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private OpenApiProperties properties;
+    private McpToolRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OpenApiProperties();
+        registry = new McpToolRegistry(objectMapper, properties);
+    }
+
+    @Test
+    void shouldReuseSnapshotUntilToolsChange() {
+        registry.apply(new ToolBatch().register(tool("getPet")));
+        ToolListSnapshot first = registry.snapshot();
+
+        assertSame(first, registry.snapshot());
+
+        registry.apply(new ToolBatch().register(tool("addPet")));
+        ToolListSnapshot second = registry.snapshot();
+
+        assertNotSame(first, second);
+        assertTrue(second.version() > first.version());
+        assertEquals(List.of("addPet", "getPet"), second.toolNames());
+    }
+
+    @Test
+    void shouldSerializeSameResultAsListToolsResult() throws Exception {
+        registry.apply(new ToolBatch().register(tool("getPet")).register(tool("addPet")));
+
+        String expected = objectMapper.writeValueAsString(new McpSchema.ListToolsResult(
+            List.of(tool("addPet").tool(), tool("getPet").tool()), null));
+
+        assertEquals(objectMapper.readTree(expected),
+            objectMapper.readTree(objectMapper.writeValueAsString(registry.snapshot().listResult())));
+    }
+
+    @Test
+    void shouldRejectDuplicateToolNames() {
+        registry.apply(new ToolBatch().register(tool("getPet")));
+
+        assertThrows(IllegalArgumentException.class, () -> registry.apply(new ToolBatch().register(tool("getPet"))));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void shouldDropRemovedToolsFromSnapshot() {
+        registry.apply(new ToolBatch().register(tool("getPet")).register(tool("addPet")));
+        registry.snapshot();
+
+        assertTrue(registry.apply(new ToolBatch().remove("getPet")));
+        assertFalse(registry.apply(new ToolBatch().remove("getPet")));
+
+        assertEquals(List.of("addPet"), registry.snapshot().toolNames());
+        assertTrue(registry.find("getPet").isEmpty());
+        assertTrue(registry.find("addPet").isPresent());
+    }
+
+    @Test
+    void shouldApplyBatchesAsOneChange() {
+        registry.apply(new ToolBatch().register(tool("getPet")).register(tool("deletePet")));
+        SyncToolSpecification replacement = tool("getPet");
+        long version = registry.version();
+
+        boolean listChanged = registry.apply(new ToolBatch()
+            .remove("getPet")
+            .remove("deletePet")
+            .register(replacement)
+            .register(tool("addPet")));
+
+        assertTrue(listChanged);
+        assertEquals(version + 1, registry.version());
+        assertSame(replacement, registry.find("getPet").orElseThrow());
+        assertEquals(List.of("addPet", "getPet"), registry.snapshot().toolNames());
+    }
+
+    @Test
+    void shouldRejectBatchesWithoutApplyingAnyOfThem() {
+        registry.apply(new ToolBatch().register(tool("getPet")));
+        long version = registry.version();
+
+        assertThrows(IllegalArgumentException.class, () ->
+            registry.apply(new ToolBatch().remove("getPet").register(tool("addPet")).register(tool("addPet"))));
+        assertThrows(IllegalArgumentException.class, () ->
+            registry.apply(new ToolBatch().register(tool("addPet")).register(tool("getPet"))));
+
+        assertEquals(version, registry.version());
+        assertEquals(List.of("getPet"), registry.snapshot().toolNames());
+        assertFalse(registry.apply(new ToolBatch()
+            .registerLazy(new LazyToolSpecification("search", "Search", () -> tool("search")), false)));
+    }
+
+    @Test
+    void shouldBuildPageChunksWhenPageSizeConfigured() throws Exception {
+        properties.getTools().setListPageSize(2);
+        registry = new McpToolRegistry(objectMapper, properties);
+        for (String name : List.of("a", "b", "c", "d", "e")) {
+            registry.apply(new ToolBatch().register(tool(name)));
+        }
+
+        ToolListSnapshot snapshot = registry.snapshot();
+
+        assertEquals(3, snapshot.pageCount());
+        assertEquals(2, objectMapper.readTree(snapshot.page(0).json()).get("tools").size());
+        assertEquals("e", objectMapper.readTree(snapshot.page(2).json()).get("tools").get(0).get("name").asText());
+        assertEquals(5, objectMapper.readTree(snapshot.listResult().json()).get("tools").size());
+    }
+
+    @Test
+    void shouldCompileLazyToolsOnceOnFirstUse() {
+        properties.getTools().setListPageSize(2);
+        registry = new McpToolRegistry(objectMapper, properties);
+        AtomicInteger compilations = new AtomicInteger();
+        ToolBatch batch = new ToolBatch();
+        for (String name : List.of("a", "b", "c")) {
+            batch.registerLazy(new LazyToolSpecification(name, "Operation " + name, () -> {
+                compilations.incrementAndGet();
+                return tool(name);
+            }), true);
+        }
+        registry.apply(batch);
+
+        ToolListSnapshot snapshot = registry.snapshot();
+        assertEquals(List.of("a", "b", "c"), snapshot.toolNames());
+        assertEquals(0, compilations.get());
+
+        snapshot.page(1);
+        assertEquals(1, compilations.get());
+        assertTrue(registry.isMaterialized("c"));
+        assertFalse(registry.isMaterialized("a"));
+
+        assertTrue(registry.find("a").isPresent());
+        registry.find("a");
+        snapshot.listResult();
+        assertEquals(3, compilations.get());
+    }
+
+    @Test
+    void shouldWalkPagesWithCursors() throws Exception {
+        properties.getTools().setListPageSize(2);
+        registry = new McpToolRegistry(objectMapper, properties);
+        for (String name : List.of("a", "b", "c", "d", "e")) {
+            registry.apply(new ToolBatch().register(tool(name)));
+        }
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            JsonNode page = objectMapper.readTree(registry.snapshot().listResult(cursor).json());
+            page.get("tools").forEach(tool -> names.add(tool.get("name").asText()));
+            cursor = page.has("nextCursor") ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(List.of("a", "b", "c", "d", "e"), names);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void shouldResumeAfterToolsChangeBetweenPages() throws Exception {
+        properties.getTools().setListPageSize(2);
+        registry = new McpToolRegistry(objectMapper, properties);
+        for (String name : List.of("a", "b", "c", "d", "e")) {
+            registry.apply(new ToolBatch().register(tool(name)));
+        }
+        String cursor = objectMapper.readTree(registry.snapshot().listResult(null).json()).get("nextCursor").asText();
+
+        registry.apply(new ToolBatch().remove("a").remove("c").register(tool("aa")));
+        JsonNode page = objectMapper.readTree(registry.snapshot().listResult(cursor).json());
+
+        assertEquals("d", page.get("tools").get(0).get("name").asText());
+        assertEquals("e", page.get("tools").get(1).get("name").asText());
+        assertFalse(page.has("nextCursor"));
+    }
+
+    @Test
+    void shouldIgnoreCursorWhenPagingDisabledAndRejectInvalidCursors() throws Exception {
+        registry.apply(new ToolBatch().register(tool("a")).register(tool("b")));
+
+        assertEquals(2, objectMapper.readTree(registry.snapshot().listResult(ToolCursor.encode("b")).json())
+            .get("tools").size());
+
+        properties.getTools().setListPageSize(1);
+        McpToolRegistry paged = new McpToolRegistry(objectMapper, properties);
+        paged.apply(new ToolBatch().register(tool("a")));
+        assertThrows(IllegalArgumentException.class, () -> paged.snapshot().listResult("not a cursor"));
+    }
+
+    private static SyncToolSpecification tool(String name) {
+        return new SyncToolSpecification(new McpSchema.Tool(name, "Operation " + name, SCHEMA),
+            (exchange, arguments) -> new McpSchema.CallToolResult(List.of(), false));
+    }
+}
@@ -0,0 +1,114 @@
+package com.siri.api.mcp.mcp_openapi_server.mcp;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpServerSession;
+import io.modelcontextprotocol.spec.McpServerTransport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ToolRoutingSessionTest {
+
+    private static final String SCHEMA = "{\"type\":\"object\",\"properties\":{\"level\":{\"type\":\"string\"}}}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<McpSchema.JSONRPCMessage> sent = new ArrayList<>();
+    private final AtomicReference<McpSyncServerExchange> toolExchange = new AtomicReference<>();
+    private McpServerSession delegate;
+    private ToolRoutingSession session;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(McpServerSession.class);
+        when(delegate.handle(any())).thenReturn(Mono.empty());
+        when(delegate.sendNotification(any(), any())).thenReturn(Mono.empty());
+
+        McpServerTransport transport = mock(McpServerTransport.class);
+        when(transport.unmarshalFrom(any(), any())).thenAnswer(invocation ->
+            objectMapper.convertValue(invocation.getArgument(0), invocation.<TypeReference<?>>getArgument(1)));
+        when(transport.sendMessage(any())).thenAnswer(invocation -> {
+            sent.add(invocation.getArgument(0));
+            return Mono.empty();
+        });
+
+        McpToolRegistry registry = new McpToolRegistry(objectMapper, new OpenApiProperties());
+        registry.apply(new ToolBatch().register(new SyncToolSpecification(
+            new McpSchema.Tool("log", "Log a message", SCHEMA),
+            (exchange, arguments) -> {
+                toolExchange.set(exchange);
+                exchange.loggingNotification(new McpSchema.LoggingMessageNotification(
+                    McpSchema.LoggingLevel.valueOf((String) arguments.get("level")), "tool", "called"));
+                return new McpSchema.CallToolResult(List.of(), false);
+            })));
+        session = new ToolRoutingSession(delegate, transport, registry);
+    }
+
+    @Test
+    void shouldRejectToolRequestsBeforeInitialization() {
+        session.handle(request(1, McpSchema.METHOD_TOOLS_LIST, null)).block();
+        session.handle(request(2, McpSchema.METHOD_TOOLS_CALL, Map.of("name", "log", "arguments", Map.of("level", "INFO")))).block();
+
+        assertEquals(2, sent.size());
+        for (McpSchema.JSONRPCMessage message : sent) {
+            McpSchema.JSONRPCResponse response = (McpSchema.JSONRPCResponse) message;
+            assertNull(response.result());
+            assertEquals(McpSchema.ErrorCodes.INVALID_REQUEST, response.error().code());
+        }
+        assertNull(toolExchange.get());
+        verify(delegate, never()).handle(any());
+    }
+
+    @Test
+    void shouldGiveToolsTheClientFromTheInitializeRequest() {
+        initialize();
+
+        session.handle(request(2, McpSchema.METHOD_TOOLS_CALL, Map.of("name", "log", "arguments", Map.of("level", "INFO")))).block();
+
+        McpSchema.JSONRPCResponse response = (McpSchema.JSONRPCResponse) sent.get(0);
+        assertNull(response.error());
+        assertEquals(new McpSchema.Implementation("test-client", "1.0"), toolExchange.get().getClientInfo());
+        assertNotNull(toolExchange.get().getClientCapabilities().sampling());
+        verify(delegate, times(2)).handle(any());
+    }
+
+    @Test
+    void shouldSendToolLogsFromTheLevelTheClientSet() {
+        initialize();
+        session.handle(request(2, McpSchema.METHOD_LOGGING_SET_LEVEL, Map.of("level", "error"))).block();
+
+        session.handle(request(3, McpSchema.METHOD_TOOLS_CALL, Map.of("name", "log", "arguments", Map.of("level", "WARNING")))).block();
+        verify(delegate, never()).sendNotification(eq(McpSchema.METHOD_NOTIFICATION_MESSAGE), any());
+
+        session.handle(request(4, McpSchema.METHOD_TOOLS_CALL, Map.of("name", "log", "arguments", Map.of("level", "CRITICAL")))).block();
+        verify(delegate).sendNotification(eq(McpSchema.METHOD_NOTIFICATION_MESSAGE), any());
+    }
+
+    private void initialize() {
+        McpSchema.InitializeRequest initializeRequest = new McpSchema.InitializeRequest(McpSchema.LATEST_PROTOCOL_VERSION,
+            McpSchema.ClientCapabilities.builder().sampling().build(), new McpSchema.Implementation("test-client", "1.0"));
+        Map<String, Object> params = objectMapper.convertValue(initializeRequest, new TypeReference<>() {
+        });
+        session.handle(request(1, McpSchema.METHOD_INITIALIZE, params)).block();
+        session.handle(new McpSchema.JSONRPCNotification(McpSchema.JSONRPC_VERSION,
+            McpSchema.METHOD_NOTIFICATION_INITIALIZED, null)).block();
+    }
+
+    private static McpSchema.JSONRPCRequest request(int id, String method, Object params) {
+        return new McpSchema.JSONRPCRequest(McpSchema.JSONRPC_VERSION, method, id, params);
+    }
+}
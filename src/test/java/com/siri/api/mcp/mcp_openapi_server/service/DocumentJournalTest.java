@@ -0,0 +1,138 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<DocumentJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    void closeJournals() throws Exception {
+        for (DocumentJournal journal : journals) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void shouldReplayTheLiveDocumentsInTheOrderTheyWereAdded() throws Exception {
+        DocumentJournal journal = journal(100);
+        assertEquals(List.of(), journal.open());
+        journal.recordAdded(document("Pets", "pets.json", Duration.ofMinutes(15)));
+        journal.recordAdded(document("Orders", "orders.json", null));
+        journal.recordAdded(document("Users", "users.json", null));
+        journal.recordRemoved("Orders");
+        journal.recordRemoved("Pets");
+        journal.recordAdded(document("Pets", "pets-v2.json", Duration.ofMinutes(15)));
+        journal.close();
+
+        List<OpenApiProperties.Document> documents = journal(100).open();
+
+        assertEquals(List.of("Users", "Pets"), documents.stream().map(OpenApiProperties.Document::getName).toList());
+        assertEquals("pets-v2.json", documents.get(1).getLocation());
+        assertEquals(Duration.ofMinutes(15), documents.get(1).getRefreshInterval());
+        assertNull(documents.get(0).getRefreshInterval());
+    }
+
+    @Test
+    void shouldForceEntriesWrittenTogetherToDiskOnce() throws Exception {
+        DocumentJournal journal = journal(1_000);
+        journal.open();
+        List<Thread> threads = new ArrayList<>();
+        // While the test holds the journal, the writer cannot write, so every entry queues up
+        synchronized (journal) {
+            for (int i = 0; i < 20; i++) {
+                OpenApiProperties.Document document = document("Doc " + i, "doc" + i + ".json", null);
+                Thread thread = new Thread(() -> {
+                    try {
+                        journal.recordAdded(document);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (!threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING)) {
+                assertTrue(System.nanoTime() < deadline, "Timed out waiting for the appends to queue");
+                Thread.sleep(10);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(20, journal.entries());
+        // The first entry may have been taken before the rest queued
+        assertTrue(journal.syncs() <= 2, "Forced " + journal.syncs() + " times");
+        assertEquals(20, journal(1_000).open().size());
+    }
+
+    @Test
+    void shouldCompactOnceEnoughEntriesAreSuperseded() throws Exception {
+        DocumentJournal journal = journal(10);
+        journal.open();
+        journal.recordAdded(document("Users", "users.json", null));
+        for (int i = 0; i < 30; i++) {
+            journal.recordAdded(document("Pets", "pets.json", null));
+            journal.recordRemoved("Pets");
+        }
+        journal.recordAdded(document("Pets", "pets.json", null));
+
+        assertTrue(journal.entries() < 12, journal.entries() + " entries");
+        assertEquals(journal.entries(), Files.readAllLines(path()).size());
+        journal.close();
+        assertEquals(List.of("Users", "Pets"),
+            journal(10).open().stream().map(OpenApiProperties.Document::getName).toList());
+    }
+
+    @Test
+    void shouldIgnoreALineCutShortByACrash() throws Exception {
+        Files.writeString(path(), "{\"op\":\"add\",\"name\":\"Pets\",\"location\":\"pets.json\"}\n{\"op\":\"add\",\"na");
+
+        DocumentJournal journal = journal(100);
+        assertEquals(List.of("Pets"), journal.open().stream().map(OpenApiProperties.Document::getName).toList());
+        assertTrue(Files.readString(path(), StandardCharsets.UTF_8).endsWith("\n"));
+        journal.recordAdded(document("Orders", "orders.json", null));
+        journal.close();
+
+        assertEquals(List.of("Pets", "Orders"),
+            journal(100).open().stream().map(OpenApiProperties.Document::getName).toList());
+    }
+
+    private DocumentJournal journal(int compactionThreshold) {
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.getJournal().setPath(path().toString());
+        properties.getJournal().setCompactionThreshold(compactionThreshold);
+        DocumentJournal journal = new DocumentJournal(properties);
+        journals.add(journal);
+        return journal;
+    }
+
+    private Path path() {
+        return tempDir.resolve("documents.journal");
+    }
+
+    private static OpenApiProperties.Document document(String name, String location, Duration refreshInterval) {
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName(name);
+        document.setLocation(location);
+        document.setRefreshInterval(refreshInterval);
+        return document;
+    }
+}
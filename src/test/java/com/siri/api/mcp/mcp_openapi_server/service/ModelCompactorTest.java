@@ -0,0 +1,145 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import com.siri.api.mcp.mcp_openapi_server.support.SyntheticSpecGenerator;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.media.ObjectSchema;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class ModelCompactorTest {
+
+    private static final int OPERATIONS = 2000;
+    private static final int COPIES = 4;
+
+    private static Path spec;
+
+    @BeforeAll
+    static void writeSpec(@TempDir Path tempDir) throws Exception {
+        spec = SyntheticSpecGenerator.builder()
+                .operations(OPERATIONS)
+                .schemas(40)
+                .examples(true)
+                .build()
+                .writeTo(tempDir.resolve("synthetic.json"));
+    }
+
+    @Test
+    void shouldKeepOnlyWhatInvocationAndSchemaGenerationUse() {
+        OpenApiDefinitionService service = load();
+
+        OpenApiDefinitionService.ApiOperation get = service.getOperation("getResource0").orElseThrow();
+        assertEquals("http://localhost:8080", get.serverUrl());
+        assertEquals("/resources0/{id}", get.path());
+        Operation operation = get.operation();
+        assertEquals("Get resource 0", operation.getSummary());
+        assertNull(operation.getDescription());
+        assertNull(operation.getResponses());
+        assertEquals(3, operation.getParameters().size());
+        assertEquals("int64", operation.getParameters().get(0).getSchema().getFormat());
+        assertThrows(UnsupportedOperationException.class, () -> operation.getParameters().clear());
+
+        Operation create = service.getOperation("createResource1").orElseThrow().operation();
+        assertTrue(create.getRequestBody().getRequired());
+        assertNotNull(create.getRequestBody().getContent().get("application/json").getSchema().get$ref());
+        assertNull(create.getRequestBody().getContent().get("application/json").getExamples());
+
+        ComponentIndex components = service.getComponentIndex("Synthetic");
+        assertFalse(components.schemaNames().isEmpty());
+        components.schemaNames().forEach(name -> assertNull(components.schema(name).getExample(), name));
+        assertThrows(UnsupportedOperationException.class, () -> operation.setDescription("Changed"));
+    }
+
+    @Test
+    void shouldCacheCopiesWithoutChangingTheParsedModel() throws Exception {
+        OpenAPI openAPI = new OpenAPIV3Parser().read(spec.toString());
+        openAPI.getComponents().addSchemas("Unused", new ObjectSchema().example(Map.of("id", 1)));
+        String parsedJson = Json.mapper().writeValueAsString(openAPI);
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName("Synthetic");
+        OpenApiDefinitionService service = new OpenApiDefinitionService(new OpenApiProperties());
+
+        service.indexComponents("Synthetic", openAPI);
+        assertEquals(OPERATIONS, service.addOperations(document, openAPI));
+
+        assertEquals(parsedJson, Json.mapper().writeValueAsString(openAPI));
+        ComponentIndex components = service.getComponentIndex("Synthetic");
+        assertNull(components.schema("Unused"));
+        assertNotNull(components.schema("Model0"));
+        assertNotSame(openAPI.getComponents().getSchemas().get("Model0"), components.schema("Model0"));
+        components.schemaNames().forEach(name -> assertNull(components.schema(name).getExample(), name));
+    }
+
+    @Test
+    // Heap measurements depend on the collector and on what else the test JVM runs: mvn test -Dperf.run=true
+    @EnabledIfSystemProperty(named = "perf.run", matches = "true")
+    void shouldRetainLessHeapPerThousandOperationsThanTheParsedModel() {
+        // Several copies of each form are kept so background allocation in the shared test JVM is negligible
+        long before = usedHeap();
+        List<OpenAPI> parsed = new ArrayList<>();
+        for (int i = 0; i < COPIES; i++) {
+            parsed.add(new OpenAPIV3Parser().read(spec.toString()));
+        }
+        long parsedBytes = usedHeap() - before;
+        assertEquals(OPERATIONS, parsed.get(0).getPaths().size());
+        Reference.reachabilityFence(parsed);
+        parsed = null;
+
+        before = usedHeap();
+        List<OpenApiDefinitionService> services = new ArrayList<>();
+        for (int i = 0; i < COPIES; i++) {
+            services.add(load());
+        }
+        long compactBytes = usedHeap() - before;
+        assertEquals(OPERATIONS, services.get(0).getOperationCache().size());
+        Reference.reachabilityFence(services);
+
+        long parsedPerThousand = parsedBytes * 1000 / ((long) OPERATIONS * COPIES);
+        long compactPerThousand = compactBytes * 1000 / ((long) OPERATIONS * COPIES);
+        log.info("Retained heap per 1000 operations: parsed model {} KB, compact descriptors {} KB",
+                parsedPerThousand / 1024, compactPerThousand / 1024);
+        assertTrue(compactPerThousand * 2 < parsedPerThousand,
+                "compact " + compactPerThousand + " bytes, parsed " + parsedPerThousand + " bytes per 1000 operations");
+    }
+
+    private static OpenApiDefinitionService load() {
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName("Synthetic");
+        document.setLocation(spec.toString());
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.setDocuments(List.of(document));
+        OpenApiDefinitionService service = new OpenApiDefinitionService(properties);
+        service.init();
+        return service;
+    }
+
+    private static long usedHeap() {
+        long used = Long.MAX_VALUE;
+        // Repeat until a collection no longer frees memory, so only reachable objects are counted
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long current = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            if (current >= used) {
+                return current;
+            }
+            used = current;
+        }
+        return used;
+    }
+}
@@ -4,16 +4,32 @@ import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.Operation;
 import io.swagger.v3.oas.models.PathItem;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -75,4 +91,137 @@ public class OpenApiDefinitionServiceTest {
         assertTrue(operation.isPresent());
         assertEquals("http://test-override-url.com", operation.get().document().getOverrideUrl());
     }
+
+    @Test
+    void shouldLoadDocumentsConcurrently() throws Exception {
+        try (SlowSpecServer server = new SlowSpecServer(1000)) {
+            List<OpenApiProperties.Document> documents = List.of(
+                document("A", server.url("a")), document("B", server.url("b")),
+                document("C", server.url("c")), document("D", server.url("d")));
+
+            long start = System.nanoTime();
+            OpenApiDefinitionService service = load(documents, Duration.ofSeconds(30));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue(service.getLoadErrors().isEmpty(), service.getLoadErrors().toString());
+            assertTrue(service.getOperation("getPetById").isPresent());
+            // Loading one after the other would take at least four seconds
+            assertTrue(elapsedMillis < 3000, "Loading took " + elapsedMillis + " ms");
+        }
+    }
+
+    @Test
+    void shouldIsolateFailingAndTimedOutDocuments(@TempDir Path tempDir) throws Exception {
+        Path invalid = Files.writeString(tempDir.resolve("invalid.json"), "{\"info\": 1}");
+        try (SlowSpecServer server = new SlowSpecServer(10_000)) {
+            List<OpenApiProperties.Document> documents = List.of(
+                document("Pet Store", "src/test/resources/openapi/petstore.json"),
+                document("Missing", tempDir.resolve("missing.json").toString()),
+                document("Invalid", invalid.toString()),
+                document("Hanging", server.url("hanging")));
+
+            long start = System.nanoTime();
+            OpenApiDefinitionService service = load(documents, Duration.ofMillis(500));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue(service.getOperation("getPetById").isPresent());
+            assertEquals(Set.of("Missing", "Invalid", "Hanging"), service.getLoadErrors().keySet());
+            assertTrue(service.getLoadErrors().get("Hanging").contains("timed out"), service.getLoadErrors().get("Hanging"));
+            assertTrue(service.getLoadErrors().get("Invalid").startsWith("Failed to parse OpenAPI"),
+                service.getLoadErrors().get("Invalid"));
+            assertTrue(elapsedMillis < 5000, "Loading took " + elapsedMillis + " ms");
+        }
+    }
+
+    @Test
+    void shouldNotStartMoreLoadsThanTheParallelismWhenTimedOutLoadsKeepRunning() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        SpecSource source = mock(SpecSource.class);
+        when(source.read(anyString())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            // A load that ignores the interrupt sent when it times out
+            long deadline = System.nanoTime() + Duration.ofMillis(600).toNanos();
+            while (System.nanoTime() < deadline) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException ignored) {
+                    // Keep going
+                }
+            }
+            running.decrementAndGet();
+            throw new IOException("Too slow");
+        });
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.setDocuments(List.of(document("A", "a.json"), document("B", "b.json"), document("C", "c.json")));
+        properties.getLoading().setParallelism(1);
+        properties.getLoading().setTimeout(Duration.ofMillis(100));
+        OpenApiDefinitionService service = new OpenApiDefinitionService(properties);
+        ReflectionTestUtils.setField(service, "specSource", source);
+
+        service.init();
+
+        assertEquals(Set.of("A", "B", "C"), service.getLoadErrors().keySet());
+        service.getLoadErrors().values().forEach(error -> assertTrue(error.contains("timed out"), error));
+        assertEquals(1, maxRunning.get());
+    }
+
+    private static OpenApiDefinitionService load(List<OpenApiProperties.Document> documents, Duration timeout) {
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.setDocuments(documents);
+        properties.getLoading().setTimeout(timeout);
+        OpenApiDefinitionService service = new OpenApiDefinitionService(properties);
+        service.init();
+        return service;
+    }
+
+    private static OpenApiProperties.Document document(String name, String location) {
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName(name);
+        document.setLocation(location);
+        return document;
+    }
+
+    /**
+     * Serves the pet store document after a fixed delay
+     */
+    private static class SlowSpecServer implements AutoCloseable {
+        private final HttpServer server;
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final byte[] spec;
+        private final long delayMillis;
+
+        SlowSpecServer(long delayMillis) throws IOException {
+            this.delayMillis = delayMillis;
+            this.spec = Files.readAllBytes(Path.of("src/test/resources/openapi/petstore.json"));
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.createContext("/", this::handle);
+            server.setExecutor(executor);
+            server.start();
+        }
+
+        String url(String name) {
+            return "http://127.0.0.1:" + server.getAddress().getPort() + "/" + name + ".json";
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.close();
+                return;
+            }
+            exchange.sendResponseHeaders(200, spec.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(spec);
+            }
+        }
+
+        @Override
+        public void close() {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
 }
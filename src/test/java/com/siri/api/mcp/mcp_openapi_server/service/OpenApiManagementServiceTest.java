@@ -0,0 +1,210 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import com.siri.api.mcp.mcp_openapi_server.config.ToolConfiguration;
+import com.siri.api.mcp.mcp_openapi_server.dto.ToolInfo;
+import com.siri.api.mcp.mcp_openapi_server.dto.ToolPage;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import io.modelcontextprotocol.server.McpSyncServer;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OpenApiManagementServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private OpenApiDefinitionService definitionService;
+    private OpenApiManagementService managementService;
+
+    @BeforeEach
+    void setUp() {
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName("Pet Store");
+        document.setLocation("src/test/resources/openapi/petstore.json");
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.setDocuments(List.of(document));
+        definitionService = new OpenApiDefinitionService(properties);
+        definitionService.init();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        managementService = new OpenApiManagementService(definitionService, mock(ToolConfiguration.class),
+            new McpToolRegistry(objectMapper, properties), new UploadStore(properties));
+    }
+
+    @Test
+    void shouldPageThroughToolsInOperationIdOrder() {
+        List<String> operationIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            ToolPage page = managementService.listTools(cursor, 5);
+            assertTrue(page.getTools().size() <= 5);
+            page.getTools().forEach(tool -> operationIds.add(tool.getOperationId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<String> expected = managementService.listTools().stream().map(ToolInfo::getOperationId).sorted().toList();
+        assertEquals(expected, operationIds);
+        assertEquals(19, operationIds.size());
+    }
+
+    @Test
+    void shouldKeepCursorsValidWhenOperationsChange() {
+        ToolPage first = managementService.listTools(null, 3);
+        assertEquals(List.of("addPet", "createUser", "createUsersWithListInput"),
+            first.getTools().stream().map(ToolInfo::getOperationId).toList());
+
+        definitionService.removeOperations(List.of("deleteOrder"));
+        ToolPage second = managementService.listTools(first.getNextCursor(), 3);
+
+        assertEquals(List.of("deletePet", "deleteUser", "findPetsByStatus"),
+            second.getTools().stream().map(ToolInfo::getOperationId).toList());
+    }
+
+    @Test
+    void shouldCapPageSizeAndRejectInvalidCursors() {
+        assertEquals(19, managementService.listTools(null, 10_000).getTools().size());
+        assertNull(managementService.listTools(null, 10_000).getNextCursor());
+        assertThrows(IllegalArgumentException.class, () -> managementService.listTools("%%%", 5));
+    }
+
+    @Test
+    void shouldRegisterAndRemoveADocumentWithOneNotificationEach() throws Exception {
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.getTools().setCompileParallelism(1);
+        OpenApiDefinitionService service = new OpenApiDefinitionService(properties);
+        service.init();
+        ObjectMapper objectMapper = new ObjectMapper();
+        McpToolRegistry registry = new McpToolRegistry(objectMapper, properties);
+        McpSyncServer mcpServer = mock(McpSyncServer.class);
+        ToolConfiguration toolConfiguration = new ToolConfiguration(service, mock(ApiClient.class),
+            mock(ConfigurableBeanFactory.class), objectMapper, mcpServer, registry, properties);
+        OpenApiManagementService management = new OpenApiManagementService(service, toolConfiguration,
+            registry, new UploadStore(properties));
+
+        management.addOpenApiFromUri("Pet Store", "src/test/resources/openapi/petstore.json", null);
+
+        assertEquals(19, registry.size());
+        verify(mcpServer, times(1)).notifyToolsListChanged();
+
+        management.removeOpenApi("Pet Store");
+
+        assertEquals(0, registry.size());
+        assertTrue(service.getOperationCache().isEmpty());
+        verify(mcpServer, times(2)).notifyToolsListChanged();
+    }
+
+    @Test
+    void shouldRestoreTheDocumentsAddedAtRuntimeAfterARestart() throws Exception {
+        Instance first = start();
+        assertEquals(0, first.management().restore());
+        first.management().addOpenApiFromUri("Pets", "src/test/resources/openapi/petstore.json", null,
+            Duration.ofHours(1));
+        first.management().addOpenApiFromUpload("Uploaded", petStore("up_"), null, "petstore.json");
+        first.management().addOpenApiFromUpload("Removed", petStore("rm_"), null, "petstore.json");
+        first.management().removeOpenApi("Removed");
+        first.journal().close();
+
+        Instance second = start();
+        assertEquals(2, second.management().restore());
+
+        assertEquals(38, second.registry().size());
+        assertTrue(second.registry().contains("getPetById"));
+        assertTrue(second.registry().contains("up_getPetById"));
+        assertFalse(second.registry().contains("rm_getPetById"));
+        // All restored tools are registered as one batch
+        verify(second.mcpServer(), times(1)).notifyToolsListChanged();
+        assertEquals(Duration.ofHours(1), second.definitionService().getOperation("getPetById").orElseThrow()
+            .document().getRefreshInterval());
+
+        second.management().removeOpenApi("Uploaded");
+        second.journal().close();
+        Instance third = start();
+        assertEquals(1, third.management().restore());
+        assertEquals(19, third.registry().size());
+        try (Stream<Path> files = Files.list(tempDir.resolve("uploads"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void shouldStoreIdenticalUploadsOnceAndDeleteThemWhenUnreferenced() throws Exception {
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.getUploads().setDirectory(tempDir.toString());
+        OpenApiDefinitionService service = new OpenApiDefinitionService(properties);
+        service.init();
+        ObjectMapper objectMapper = new ObjectMapper();
+        McpToolRegistry registry = new McpToolRegistry(objectMapper, properties);
+        OpenApiManagementService management = new OpenApiManagementService(service, mock(ToolConfiguration.class),
+            registry, new UploadStore(properties));
+        byte[] spec = Files.readAllBytes(Path.of("src/test/resources/openapi/petstore.json"));
+
+        management.addOpenApiFromUpload("Pets", new ByteArrayInputStream(spec), null, "petstore.json");
+        management.addOpenApiFromUpload("More Pets", new ByteArrayInputStream(spec), null, "copy.json");
+        assertThrows(IllegalArgumentException.class, () -> management.addOpenApiFromUpload("Broken",
+            new ByteArrayInputStream("{ not json".getBytes(StandardCharsets.UTF_8)), null, "broken.json"));
+
+        Path stored = tempDir.resolve(RegistrySnapshot.sha256(spec) + ".json");
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(stored), files.toList());
+        }
+        assertEquals(19, service.getOperationCache().size());
+
+        management.removeOpenApi("Pets");
+        assertTrue(Files.exists(stored));
+        management.removeOpenApi("More Pets");
+        assertFalse(Files.exists(stored));
+    }
+
+    private record Instance(OpenApiManagementService management, OpenApiDefinitionService definitionService,
+                            McpToolRegistry registry, McpSyncServer mcpServer, DocumentJournal journal) {
+    }
+
+    /**
+     * Start a server without configured documents, journaling to and uploading into the temporary directory
+     */
+    private Instance start() {
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.getTools().setCompileParallelism(1);
+        properties.getUploads().setDirectory(tempDir.resolve("uploads").toString());
+        properties.getJournal().setPath(tempDir.resolve("documents.journal").toString());
+        OpenApiDefinitionService service = new OpenApiDefinitionService(properties);
+        service.init();
+        ObjectMapper objectMapper = new ObjectMapper();
+        McpToolRegistry registry = new McpToolRegistry(objectMapper, properties);
+        McpSyncServer mcpServer = mock(McpSyncServer.class);
+        ToolConfiguration toolConfiguration = new ToolConfiguration(service, mock(ApiClient.class),
+            mock(ConfigurableBeanFactory.class), objectMapper, mcpServer, registry, properties);
+        OpenApiManagementService management = new OpenApiManagementService(service, toolConfiguration,
+            registry, new UploadStore(properties));
+        DocumentJournal journal = new DocumentJournal(properties);
+        ReflectionTestUtils.setField(management, "documentJournal", journal);
+        return new Instance(management, service, registry, mcpServer, journal);
+    }
+
+    /**
+     * @return The pet store document with a prefix on every operation ID
+     */
+    private static InputStream petStore(String prefix) throws Exception {
+        String spec = Files.readString(Path.of("src/test/resources/openapi/petstore.json"));
+        return new ByteArrayInputStream(spec.replace("\"operationId\":\"", "\"operationId\":\"" + prefix)
+            .getBytes(StandardCharsets.UTF_8));
+    }
+}
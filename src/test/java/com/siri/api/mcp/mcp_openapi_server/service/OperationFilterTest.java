@@ -0,0 +1,81 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationFilterTest {
+
+    @Test
+    void shouldKeepEveryOperationWithoutRules() {
+        assertEquals(19, load(document(null, null)).getOperationCache().size());
+    }
+
+    @Test
+    void shouldIncludeOperationsMatchingEveryCriterion() {
+        OpenApiProperties.OperationRules include = new OpenApiProperties.OperationRules();
+        include.setTags(List.of("pet", "store"));
+        include.setMethods(List.of("get"));
+
+        assertEquals(Set.of("findPetsByStatus", "findPetsByTags", "getPetById", "getInventory", "getOrderById"),
+            operationIds(load(document(include, null))));
+    }
+
+    @Test
+    void shouldExcludeOperationsMatchingAnyCriterion() {
+        OpenApiProperties.OperationRules include = new OpenApiProperties.OperationRules();
+        include.setPaths(List.of("/pet/**"));
+        OpenApiProperties.OperationRules exclude = new OpenApiProperties.OperationRules();
+        exclude.setMethods(List.of("DELETE"));
+        exclude.setOperationIds(List.of("update.*", "upload.*"));
+
+        assertEquals(Set.of("addPet", "findPetsByStatus", "findPetsByTags", "getPetById"),
+            operationIds(load(document(include, exclude))));
+    }
+
+    @Test
+    void shouldReleaseComponentsOnlyUsedByFilteredOperations() {
+        OpenApiProperties.OperationRules include = new OpenApiProperties.OperationRules();
+        include.setPaths(List.of("/store/*"));
+
+        OpenApiDefinitionService service = load(document(include, null));
+
+        assertEquals(Set.of("getInventory", "placeOrder"), operationIds(service));
+        assertEquals(Set.of("Order"), service.getComponentIndex("Pet Store").schemaNames());
+    }
+
+    @Test
+    void shouldRejectInvalidOperationIdPattern() {
+        OpenApiProperties.OperationRules exclude = new OpenApiProperties.OperationRules();
+        exclude.setOperationIds(List.of("get("));
+
+        assertThrows(IllegalArgumentException.class, () -> OperationFilter.of(document(null, exclude)));
+    }
+
+    private static OpenApiProperties.Document document(OpenApiProperties.OperationRules include,
+                                                       OpenApiProperties.OperationRules exclude) {
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName("Pet Store");
+        document.setLocation("src/test/resources/openapi/petstore.json");
+        document.setInclude(include);
+        document.setExclude(exclude);
+        return document;
+    }
+
+    private static OpenApiDefinitionService load(OpenApiProperties.Document document) {
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.setDocuments(List.of(document));
+        OpenApiDefinitionService service = new OpenApiDefinitionService(properties);
+        service.init();
+        return service;
+    }
+
+    private static Set<String> operationIds(OpenApiDefinitionService service) {
+        return new TreeSet<>(service.getOperationCache().keySet());
+    }
+}
@@ -0,0 +1,171 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import com.siri.api.mcp.mcp_openapi_server.service.OpenApiDefinitionService.ApiOperation;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OperationRegistryTest {
+
+    private final OpenApiProperties.Document document = document("Pet Store");
+
+    @Test
+    void shouldPublishEachChangeAsANewVersion() {
+        OperationRegistry registry = new OperationRegistry();
+        Map<String, ApiOperation> empty = registry.operations();
+
+        OperationRegistry.Version first = registry.update(Map.of("getPet", operation("getPet"),
+            "addPet", operation("addPet")), List.of());
+        OperationRegistry.Version second = registry.update(Map.of("updatePet", operation("updatePet")), List.of("addPet"));
+
+        assertTrue(empty.isEmpty());
+        assertEquals(2, first.operations().size());
+        assertTrue(first.operations().containsKey("addPet"));
+        assertEquals(first.number() + 1, second.number());
+        assertEquals(List.of("getPet", "updatePet"), second.operations().keySet().stream().sorted().toList());
+        assertSame(second, registry.current());
+        assertSame(second, registry.update(Map.of(), List.of()));
+        assertThrows(UnsupportedOperationException.class, () -> registry.operations().remove("getPet"));
+    }
+
+    @Test
+    void shouldLetReadersIterateWhileWritersChangeTheOperations() throws Exception {
+        OperationRegistry registry = new OperationRegistry();
+        registry.update(Map.of("getPet", operation("getPet")), List.of());
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int writer = 0; writer < 2; writer++) {
+                String prefix = "op" + writer + "-";
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        registry.update(Map.of(prefix + i, operation(prefix + i)), List.of(prefix + (i - 1)));
+                    }
+                }));
+            }
+            for (int reader = 0; reader < 2; reader++) {
+                tasks.add(executor.submit(() -> {
+                    while (writing.get()) {
+                        OperationRegistry.Version version = registry.current();
+                        int size = 0;
+                        for (String operationId : version.operations().keySet()) {
+                            assertNotNull(version.operations().get(operationId));
+                            size++;
+                        }
+                        assertEquals(version.operations().size(), size);
+                        assertNotNull(registry.get("getPet"));
+                    }
+                }));
+            }
+            tasks.get(0).get(30, TimeUnit.SECONDS);
+            tasks.get(1).get(30, TimeUnit.SECONDS);
+            writing.set(false);
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Every update of both writers is in the history, none was lost to the other
+        assertEquals(1 + 4_000, registry.current().number());
+        assertEquals(List.of("getPet", "op0-1999", "op1-1999"),
+            registry.operations().keySet().stream().sorted().toList());
+    }
+
+    @Test
+    void shouldIndexOperationsByDocument() {
+        OperationRegistry registry = new OperationRegistry();
+        OpenApiProperties.Document pets = document("Pets");
+        OpenApiProperties.Document orders = document("Orders");
+        registry.update(Map.of("getPet", operation(pets, "getPet"), "addPet", operation(pets, "addPet"),
+            "getOrder", operation(orders, "getOrder")), List.of());
+
+        assertEquals(List.of("addPet", "getPet"), List.copyOf(registry.documentOperations("Pets").keySet()));
+        assertEquals(List.of("getOrder"), List.copyOf(registry.documentOperations("Orders").keySet()));
+
+        // An operation taken over by another document moves between index entries
+        registry.update(Map.of("getPet", operation(orders, "getPet")), List.of("getOrder"));
+        assertEquals(List.of("addPet"), List.copyOf(registry.documentOperations("Pets").keySet()));
+        assertEquals(List.of("getPet"), List.copyOf(registry.documentOperations("Orders").keySet()));
+
+        registry.update(Map.of(), List.of("getPet"));
+        assertTrue(registry.documentOperations("Orders").isEmpty());
+        assertFalse(registry.current().documents().containsKey("Orders"));
+        assertTrue(registry.documentOperations("Unknown").isEmpty());
+    }
+
+    @Test
+    void shouldOnlyLookAtTheOperationsOfTheDocumentBeingAddedOrRemoved() {
+        OperationRegistry registry = new OperationRegistry();
+        List<OpenApiProperties.Document> documents = new ArrayList<>();
+        for (int d = 0; d < 200; d++) {
+            OpenApiProperties.Document document = spy(document("doc-" + d));
+            documents.add(document);
+            registry.update(operations(document, 25), List.of());
+        }
+        assertEquals(5_000, registry.operations().size());
+        OperationRegistry.Version before = registry.current();
+        clearInvocations(documents.toArray());
+
+        OpenApiProperties.Document added = spy(document("added"));
+        registry.update(operations(added, 25), List.of());
+        assertEquals(25, registry.documentOperations("added").size());
+        OpenApiProperties.Document removed = documents.get(7);
+        registry.update(Map.of(), List.copyOf(registry.documentOperations("doc-7").keySet()));
+        assertTrue(registry.documentOperations("doc-7").isEmpty());
+        assertEquals(5_000, registry.operations().size());
+
+        // Only the 25 operations of each changed document were looked at, and the index entries of the
+        // other documents are shared with the previous version rather than rebuilt
+        verify(removed, times(25)).getName();
+        // Operations by ID only copy the trie paths of the 50 changed operations, at most one node per level
+        int copied = registry.current().operations().nodesNotIn(before.operations());
+        assertTrue(copied <= 50 * 8, copied + " new nodes");
+        for (OpenApiProperties.Document document : documents) {
+            if (document != removed) {
+                verify(document, never()).getName();
+                assertSame(before.documents().get(document.getName()), registry.documentOperations(document.getName()));
+            }
+        }
+    }
+
+    private static Map<String, ApiOperation> operations(OpenApiProperties.Document document, int count) {
+        Map<String, ApiOperation> operations = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String operationId = document.getName() + "-op" + i;
+            operations.put(operationId, operation(document, operationId));
+        }
+        return operations;
+    }
+
+    private static OpenApiProperties.Document document(String name) {
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName(name);
+        return document;
+    }
+
+    private ApiOperation operation(String operationId) {
+        return operation(document, operationId);
+    }
+
+    private static ApiOperation operation(OpenApiProperties.Document document, String operationId) {
+        return new ApiOperation(document, (String) null, "/" + operationId, PathItem.HttpMethod.GET,
+            new Operation().operationId(operationId));
+    }
+}
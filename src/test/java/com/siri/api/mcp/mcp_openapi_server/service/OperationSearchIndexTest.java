@@ -0,0 +1,113 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationSearchIndexTest {
+
+    private OperationSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName("Pet Store");
+        document.setLocation("src/test/resources/openapi/petstore.json");
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.setDocuments(List.of(document));
+        properties.getTools().setDiscovery(true);
+
+        OpenApiDefinitionService service = new OpenApiDefinitionService(properties);
+        service.init();
+        index = service.getSearchIndex();
+    }
+
+    @Test
+    void shouldIndexOperationsInDiscoveryMode() {
+        assertEquals(19, index.size());
+    }
+
+    @Test
+    void shouldRankBestMatchFirst() {
+        assertEquals("findPetsByStatus", index.search("find pets by status", 5).get(0).operationId());
+        assertEquals("getOrderById", index.search("order id", 5).get(0).operationId());
+        assertEquals("loginUser", index.search("login", 5).get(0).operationId());
+    }
+
+    @Test
+    void shouldMatchParameterNamesAndTags() {
+        List<String> hits = index.search("username", 10).stream().map(OperationSearchIndex.Hit::operationId).toList();
+
+        assertTrue(hits.containsAll(List.of("getUserByName", "updateUser", "deleteUser", "loginUser")), hits.toString());
+    }
+
+    @Test
+    void shouldFallBackToSimilarTermsForUnknownWords() {
+        assertEquals("getInventory", index.search("inventroy", 5).get(0).operationId());
+        assertEquals("uploadFile", index.search("uplod image", 5).get(0).operationId());
+    }
+
+    @Test
+    void shouldUpdateIncrementally() {
+        assertTrue(index.remove("getInventory"));
+        assertFalse(index.remove("getInventory"));
+        assertTrue(index.search("inventory", 5).isEmpty());
+
+        Operation operation = new Operation().operationId("listInvoices").summary("List invoices")
+            .addParametersItem(new Parameter().name("customerId"));
+        index.add("listInvoices", operation);
+        assertEquals("listInvoices", index.search("invoices for customer", 5).get(0).operationId());
+
+        index.add("listInvoices", new Operation().operationId("listInvoices").summary("List receipts"));
+        assertTrue(index.search("customer", 5).isEmpty());
+        assertEquals(19, index.size());
+    }
+
+    @Test
+    void shouldSplitIdentifiersIntoTerms() {
+        assertEquals(List.of("get", "pet", "by", "id"), OperationSearchIndex.tokenize("getPetById"));
+        assertEquals(List.of("list", "http", "routes", "2"), OperationSearchIndex.tokenize("listHTTPRoutes2"));
+        assertEquals(List.of("pet", "id"), OperationSearchIndex.tokenize("pet_id"));
+    }
+
+    @Test
+    // Wall-clock bound, so only run on request: mvn test -Dperf.run=true
+    @EnabledIfSystemProperty(named = "perf.run", matches = "true")
+    void shouldAnswerQueriesOnLargeRegistriesWithinAMillisecond() {
+        OperationSearchIndex large = new OperationSearchIndex();
+        String[] verbs = {"get", "list", "create", "update", "delete", "search", "archive", "restore"};
+        String[] resources = {"customer", "invoice", "order", "shipment", "product", "payment", "refund",
+            "subscription", "account", "address", "warehouse", "coupon", "review", "ticket", "report"};
+        for (int i = 0; i < 6000; i++) {
+            String verb = verbs[i % verbs.length];
+            String resource = resources[(i / verbs.length) % resources.length];
+            String operationId = verb + Character.toUpperCase(resource.charAt(0)) + resource.substring(1) + "V" + i;
+            large.add(operationId, new Operation().operationId(operationId)
+                .summary(verb + " a " + resource + " in region " + (i % 40))
+                .description("Operation " + i + " of the " + resource + " service")
+                .tags(List.of(resource))
+                .addParametersItem(new Parameter().name(resource + "Id")));
+        }
+
+        List<String> queries = List.of("create invoice", "refund payment", "list shipments in region 7",
+            "archive subscription", "warehuose", "delete customer address", "report 4711");
+        for (int i = 0; i < 200; i++) {
+            large.search(queries.get(i % queries.size()), 10);
+        }
+
+        int iterations = 2000;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            assertFalse(large.search(queries.get(i % queries.size()), 10).isEmpty());
+        }
+        long averageMicros = (System.nanoTime() - start) / iterations / 1000;
+        assertTrue(averageMicros < 1000, "average query took " + averageMicros + " µs");
+    }
+}
@@ -0,0 +1,80 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentMapTest {
+
+    @Test
+    void shouldBehaveLikeAHashMap() {
+        Random random = new Random(42);
+        Map<String, Integer> expected = new HashMap<>();
+        PersistentMap<Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 20_000; i++) {
+            String key = "op" + random.nextInt(3_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                expected.put(key, i);
+                map = map.plus(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected, map);
+        assertEquals(expected.size(), map.entrySet().stream().count());
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertNull(map.get("missing"));
+        assertFalse(map.containsKey("missing"));
+    }
+
+    @Test
+    void shouldKeepKeysWithEqualHashesApart() {
+        // "Aa" and "BB" have the same hash code, and so do strings built from them
+        List<String> keys = List.of("AaAa", "AaBB", "BBAa", "BBBB");
+        PersistentMap<String> map = PersistentMap.empty();
+        for (String key : keys) {
+            map = map.plus(key, key.toLowerCase());
+        }
+
+        assertEquals(4, map.size());
+        for (String key : keys) {
+            assertEquals(key.toLowerCase(), map.get(key));
+        }
+        map = map.minus("AaBB").minus("BBAa").minus("BBBB");
+        assertEquals(Map.of("AaAa", "aaaa"), map);
+        assertEquals(0, map.minus("AaAa").size());
+    }
+
+    @Test
+    void shouldLeaveEarlierVersionsUnchangedAndShareTheirNodes() {
+        PersistentMap<Integer> before = PersistentMap.empty();
+        for (int i = 0; i < 5_000; i++) {
+            before = before.plus("op" + i, i);
+        }
+
+        PersistentMap<Integer> added = before.plus("added", -1);
+        PersistentMap<Integer> removed = before.minus("op7");
+
+        assertEquals(5_000, before.size());
+        assertNull(before.get("added"));
+        assertEquals(7, before.get("op7"));
+        assertEquals(5_001, added.size());
+        assertNull(removed.get("op7"));
+        // Only the path to the changed entry is new, at most one node per level of the trie
+        assertTrue(added.nodesNotIn(before) <= 8, added.nodesNotIn(before) + " new nodes");
+        assertTrue(removed.nodesNotIn(before) <= 8, removed.nodesNotIn(before) + " new nodes");
+        assertSame(before, before.plus("op7", before.get("op7")));
+        assertSame(before, before.minus("missing"));
+        assertThrows(UnsupportedOperationException.class, () -> added.put("op1", 1));
+    }
+}
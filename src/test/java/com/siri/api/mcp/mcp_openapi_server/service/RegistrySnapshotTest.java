@@ -0,0 +1,121 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import com.siri.api.mcp.mcp_openapi_server.config.ToolConfiguration;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
+import com.siri.api.mcp.mcp_openapi_server.support.SyntheticSpecGenerator;
+import io.modelcontextprotocol.server.McpSyncServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class RegistrySnapshotTest {
+
+    private static final int OPERATIONS = 200;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldRestoreTheSameToolsWithoutRecompiling() throws Exception {
+        Path spec = writeSpec(OPERATIONS);
+        Startup first = start(spec);
+        assertTrue(Files.exists(snapshotPath()));
+        assertNull(first.definitionService().snapshotSchema("getResource0"));
+
+        Startup second = start(spec);
+
+        assertEquals(OPERATIONS, second.definitionService().getOperationCache().size());
+        assertNotNull(second.definitionService().snapshotSchema("getResource0"));
+        assertEquals(first.registry().snapshot().listResult().json(), second.registry().snapshot().listResult().json());
+    }
+
+    @Test
+    void shouldServeTheSnapshotWhenTheSourceIsUnreachable() throws Exception {
+        Path spec = writeSpec(OPERATIONS);
+        Startup first = start(spec);
+        Files.delete(spec);
+
+        Startup second = start(spec);
+
+        assertEquals(OPERATIONS, second.definitionService().getOperationCache().size());
+        assertEquals(first.registry().snapshot().listResult().json(), second.registry().snapshot().listResult().json());
+        assertEquals("http://localhost:8080", second.definitionService().getOperation("getResource0").orElseThrow().serverUrl());
+    }
+
+    @Test
+    void shouldReloadADocumentWhoseContentChanged() throws Exception {
+        Path spec = writeSpec(OPERATIONS);
+        start(spec);
+        writeSpec(OPERATIONS + 10);
+
+        Startup second = start(spec);
+
+        assertEquals(OPERATIONS + 10, second.definitionService().getOperationCache().size());
+        assertNull(second.definitionService().snapshotSchema("getResource0"));
+        assertEquals(OPERATIONS + 10, RegistrySnapshot.read(snapshotPath()).document("Synthetic").schemaCount());
+    }
+
+    @Test
+    void shouldIgnoreACorruptSnapshot() throws Exception {
+        Path spec = writeSpec(OPERATIONS);
+        Files.write(snapshotPath(), new byte[]{1, 2, 3});
+
+        Startup startup = start(spec);
+
+        assertEquals(OPERATIONS, startup.definitionService().getOperationCache().size());
+        assertEquals(OPERATIONS, RegistrySnapshot.read(snapshotPath()).document("Synthetic").schemaCount());
+    }
+
+    @Test
+    void shouldWriteNoSnapshotWithoutConfiguredDocuments() {
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.getSnapshot().setPath(snapshotPath().toString());
+        OpenApiDefinitionService definitionService = new OpenApiDefinitionService(properties);
+        definitionService.init();
+
+        assertDoesNotThrow(() -> definitionService.writeSnapshot(operationId -> null));
+        assertFalse(Files.exists(snapshotPath()));
+    }
+
+    private Path writeSpec(int operations) throws Exception {
+        return SyntheticSpecGenerator.builder()
+                .operations(operations)
+                .schemas(20)
+                .build()
+                .writeTo(tempDir.resolve("synthetic.json"));
+    }
+
+    private Path snapshotPath() {
+        return tempDir.resolve("registry.snapshot");
+    }
+
+    private Startup start(Path spec) {
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName("Synthetic");
+        document.setLocation(spec.toString());
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.setDocuments(List.of(document));
+        properties.getTools().setCompileParallelism(1);
+        properties.getSnapshot().setPath(snapshotPath().toString());
+
+        OpenApiDefinitionService definitionService = new OpenApiDefinitionService(properties);
+        definitionService.init();
+        ObjectMapper objectMapper = new ObjectMapper();
+        McpToolRegistry registry = new McpToolRegistry(objectMapper, properties);
+        new ToolConfiguration(definitionService, mock(ApiClient.class), mock(ConfigurableBeanFactory.class),
+            objectMapper, mock(McpSyncServer.class), registry, properties).registerOpenApiFunctions();
+        return new Startup(definitionService, registry);
+    }
+
+    private record Startup(OpenApiDefinitionService definitionService, McpToolRegistry registry) {
+    }
+}
@@ -0,0 +1,172 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import com.siri.api.mcp.mcp_openapi_server.config.ToolConfiguration;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
+import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
+import io.modelcontextprotocol.server.McpSyncServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SpecFileWatcherTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    private final McpSyncServer mcpServer = mock(McpSyncServer.class);
+    private OpenApiProperties.Document document;
+    private OpenApiDefinitionService definitionService;
+    private ToolConfiguration toolConfiguration;
+    private McpToolRegistry registry;
+    private SpecFileWatcher watcher;
+
+    @AfterEach
+    void stopWatcher() throws Exception {
+        if (watcher != null) {
+            watcher.stop();
+        }
+    }
+
+    @Test
+    void shouldReplaceOnlyTheToolsOfChangedOperations() throws Exception {
+        Path spec = writeSpec(tempDir.resolve("pets.json"), "Get a pet", false, false);
+        start(spec, false);
+        SyncToolSpecification listPets = registry.find("listPets").orElseThrow();
+        SyncToolSpecification getPet = registry.find("getPet").orElseThrow();
+
+        writeSpec(spec, "Get one pet", true, true);
+        OpenApiDefinitionService.OperationChanges changes = definitionService.reload(document);
+        toolConfiguration.applyChanges(document, changes);
+
+        assertEquals(List.of("updatePet"), changes.added());
+        assertEquals(List.of("deletePet"), changes.removed());
+        assertEquals(List.of("createPet", "getPet"), changes.changed());
+        assertEquals(1, changes.unchanged());
+        assertTrue(changes.componentsChanged());
+
+        assertSame(listPets, registry.find("listPets").orElseThrow());
+        assertNotSame(getPet, registry.find("getPet").orElseThrow());
+        assertEquals("Get one pet", registry.find("getPet").orElseThrow().tool().description());
+        assertTrue(registry.find("createPet").orElseThrow().tool().inputSchema().toString().contains("nickname"));
+        assertFalse(registry.contains("deletePet"));
+        assertTrue(registry.contains("updatePet"));
+        assertFalse(definitionService.getOperation("deletePet").isPresent());
+        verify(mcpServer, times(2)).notifyToolsListChanged();
+
+        assertTrue(definitionService.reload(document).isEmpty());
+    }
+
+    @Test
+    void shouldReloadOnceAfterABurstOfWrites() throws Exception {
+        Path spec = writeSpec(tempDir.resolve("pets.json"), "Get a pet", false, false);
+        start(spec, true);
+        SyncToolSpecification listPets = registry.find("listPets").orElseThrow();
+
+        for (int i = 0; i < 5; i++) {
+            writeSpec(spec, "Get pet, draft " + i, false, false);
+            Thread.sleep(20);
+        }
+        writeSpec(spec, "Get one pet", true, true);
+
+        await(() -> registry.contains("updatePet"));
+        Thread.sleep(500);
+        assertEquals("Get one pet", registry.find("getPet").orElseThrow().tool().description());
+        assertSame(listPets, registry.find("listPets").orElseThrow());
+        verify(mcpServer, times(2)).notifyToolsListChanged();
+    }
+
+    @Test
+    void shouldKeepTheToolsWhenTheChangedFileIsInvalid() throws Exception {
+        Path spec = writeSpec(tempDir.resolve("pets.json"), "Get a pet", false, false);
+        start(spec, true);
+        int tools = registry.size();
+
+        Files.writeString(spec, "{ not json");
+        Thread.sleep(800);
+        writeSpec(spec, "Get one pet", false, false);
+        await(() -> registry.find("getPet").filter(tool -> "Get one pet".equals(tool.tool().description())).isPresent());
+
+        assertEquals(tools, registry.size());
+        verify(mcpServer, times(2)).notifyToolsListChanged();
+    }
+
+    private void start(Path spec, boolean watch) throws Exception {
+        document = new OpenApiProperties.Document();
+        document.setName("Pets");
+        document.setLocation(spec.toString());
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.setDocuments(List.of(document));
+        properties.getTools().setCompileParallelism(1);
+        properties.getWatch().setEnabled(watch);
+        properties.getWatch().setDebounce(Duration.ofMillis(200));
+
+        definitionService = new OpenApiDefinitionService(properties);
+        definitionService.init();
+        registry = new McpToolRegistry(MAPPER, properties);
+        toolConfiguration = new ToolConfiguration(definitionService, mock(ApiClient.class),
+            mock(ConfigurableBeanFactory.class), MAPPER, mcpServer, registry, properties);
+        toolConfiguration.registerOpenApiFunctions();
+        watcher = new SpecFileWatcher(definitionService, toolConfiguration, properties);
+        watcher.start();
+    }
+
+    /**
+     * A pet API with list, get and create operations, then either delete or update, where the Pet schema
+     * used by create optionally gains a property
+     */
+    private static Path writeSpec(Path file, String getSummary, boolean nickname, boolean update) throws Exception {
+        Map<String, Object> petProperties = new LinkedHashMap<>();
+        petProperties.put("name", Map.of("type", "string"));
+        if (nickname) {
+            petProperties.put("nickname", Map.of("type", "string"));
+        }
+        Map<String, Object> idParameter = Map.of("name", "id", "in", "path", "required", true,
+            "schema", Map.of("type", "integer"));
+        Map<String, Object> ok = Map.of("200", Map.of("description", "OK"));
+
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("get", Map.of("operationId", "getPet", "summary", getSummary,
+            "parameters", List.of(idParameter), "responses", ok));
+        item.put(update ? "put" : "delete", Map.of("operationId", update ? "updatePet" : "deletePet",
+            "summary", update ? "Update a pet" : "Delete a pet", "parameters", List.of(idParameter), "responses", ok));
+
+        Map<String, Object> spec = new LinkedHashMap<>();
+        spec.put("openapi", "3.0.3");
+        spec.put("info", Map.of("title", "Pets", "version", "1.0.0"));
+        spec.put("servers", List.of(Map.of("url", "http://localhost:8080")));
+        spec.put("paths", Map.of(
+            "/pets", Map.of(
+                "get", Map.of("operationId", "listPets", "summary", "List pets", "responses", ok),
+                "post", Map.of("operationId", "createPet", "summary", "Create a pet", "responses", ok,
+                    "requestBody", Map.of("content", Map.of("application/json",
+                        Map.of("schema", Map.of("$ref", "#/components/schemas/Pet")))))),
+            "/pets/{id}", item));
+        spec.put("components", Map.of("schemas", Map.of("Pet", Map.of("type", "object", "properties", petProperties))));
+        Files.writeString(file, MAPPER.writeValueAsString(spec));
+        return file;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the reload");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import com.siri.api.mcp.mcp_openapi_server.config.ToolConfiguration;
+import com.siri.api.mcp.mcp_openapi_server.mcp.McpToolRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
+import io.modelcontextprotocol.server.McpSyncServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SpecRefresherTest {
+
+    private HttpServer server;
+    private volatile String spec;
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    private final McpSyncServer mcpServer = mock(McpSyncServer.class);
+    private McpToolRegistry registry;
+    private SpecRefresher refresher;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        spec = Files.readString(Path.of("src/test/resources/openapi/petstore.json"));
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/openapi.json", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        if (refresher != null) {
+            refresher.stop();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void shouldRevalidateUnchangedDocumentsWithoutReapplyingThem() throws Exception {
+        start(Duration.ofMillis(100));
+
+        await(() -> notModified.get() >= 3);
+
+        assertEquals(1, fullResponses.get());
+        verify(mcpServer, times(1)).notifyToolsListChanged();
+    }
+
+    @Test
+    void shouldApplyOnlyTheChangedOperations() throws Exception {
+        start(Duration.ofMillis(100));
+        SyncToolSpecification addPet = registry.find("addPet").orElseThrow();
+        int tools = registry.size();
+
+        spec = spec.replace("\"Find pet by ID.\"", "\"Find a pet by its ID.\"");
+        await(() -> registry.find("getPetById")
+            .filter(tool -> "Find a pet by its ID.".equals(tool.tool().description())).isPresent());
+
+        assertSame(addPet, registry.find("addPet").orElseThrow());
+        assertEquals(tools, registry.size());
+        verify(mcpServer, times(2)).notifyToolsListChanged();
+    }
+
+    private void start(Duration refreshInterval) {
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName("Pet Store");
+        document.setLocation("http://127.0.0.1:" + server.getAddress().getPort() + "/openapi.json");
+        document.setRefreshInterval(refreshInterval);
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.setDocuments(List.of(document));
+        properties.getTools().setCompileParallelism(1);
+        properties.getRefresh().setJitter(0);
+
+        OpenApiDefinitionService definitionService = new OpenApiDefinitionService(properties);
+        definitionService.init();
+        ObjectMapper objectMapper = new ObjectMapper();
+        registry = new McpToolRegistry(objectMapper, properties);
+        ToolConfiguration toolConfiguration = new ToolConfiguration(definitionService, mock(ApiClient.class),
+            mock(ConfigurableBeanFactory.class), objectMapper, mcpServer, registry, properties);
+        toolConfiguration.registerOpenApiFunctions();
+        refresher = new SpecRefresher(definitionService, toolConfiguration, properties);
+        refresher.start();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body = spec.getBytes(StandardCharsets.UTF_8);
+        String etag = "\"" + RegistrySnapshot.sha256(body) + "\"";
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        fullResponses.incrementAndGet();
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("ETag", etag);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for a refresh");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.swagger.v3.oas.models.OpenAPI;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpecSourceTest {
+
+    private static final String ETAG = "\"v1\"";
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private byte[] spec;
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        spec = Files.readAllBytes(Path.of("src/test/resources/openapi/petstore.json"));
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/openapi.json", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldRevalidateTheCachedCopyWithAConditionalRequest() throws Exception {
+        SpecSource source = new SpecSource(tempDir.resolve("cache"));
+
+        SpecSource.Content first = source.read(url());
+        SpecSource.Content second = source.read(url());
+
+        assertEquals(SpecSource.Origin.SOURCE, first.origin());
+        assertEquals(SpecSource.Origin.NOT_MODIFIED, second.origin());
+        assertArrayEquals(spec, second.bytes());
+        assertEquals(first.hash(), second.hash());
+        assertEquals(1, fullResponses.get());
+        assertEquals(1, notModified.get());
+    }
+
+    @Test
+    void shouldRevalidateKnownContentWithoutACacheDirectory() throws Exception {
+        SpecSource source = new SpecSource(null);
+
+        SpecSource.Content first = source.read(url());
+        SpecSource.Content unchanged = source.readIfChanged(url(), first.hash());
+        SpecSource.Content unknown = source.readIfChanged(url(), "another hash");
+
+        assertNull(unchanged);
+        assertArrayEquals(spec, unknown.bytes());
+        assertEquals(2, fullResponses.get());
+        assertEquals(1, notModified.get());
+    }
+
+    @Test
+    void shouldFallBackToTheCachedCopyWhenTheSourceIsUnreachable() throws Exception {
+        SpecSource source = new SpecSource(tempDir.resolve("cache"));
+        String url = url();
+        source.read(url);
+        server.stop(0);
+
+        SpecSource.Content content = source.read(url);
+
+        assertEquals(SpecSource.Origin.STALE_CACHE, content.origin());
+        assertArrayEquals(spec, content.bytes());
+    }
+
+    @Test
+    void shouldFailWithoutACachedCopy() {
+        String url = url();
+        server.stop(0);
+
+        assertThrows(IOException.class, () -> new SpecSource(tempDir.resolve("cache")).read(url));
+        assertThrows(IOException.class, () -> new SpecSource(null).read(url));
+    }
+
+    @Test
+    void shouldLoadRemoteDocumentsThroughTheCache() throws Exception {
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName("Pet Store");
+        document.setLocation(url());
+        OpenApiProperties properties = new OpenApiProperties();
+        properties.setDocuments(List.of(document));
+        properties.getSpecCache().setDirectory(tempDir.resolve("cache").toString());
+
+        OpenApiDefinitionService first = new OpenApiDefinitionService(properties);
+        first.init();
+        server.stop(0);
+        OpenApiDefinitionService offline = new OpenApiDefinitionService(properties);
+        offline.init();
+        OpenAPI parsed = offline.parse(document);
+
+        assertFalse(first.getOperationCache().isEmpty());
+        assertEquals(first.getOperationCache().keySet(), offline.getOperationCache().keySet());
+        assertNotNull(parsed);
+    }
+
+    private String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/openapi.json";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        fullResponses.incrementAndGet();
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        exchange.sendResponseHeaders(200, spec.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(spec);
+        }
+    }
+}
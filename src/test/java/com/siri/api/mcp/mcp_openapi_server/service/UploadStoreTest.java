@@ -0,0 +1,113 @@
+package com.siri.api.mcp.mcp_openapi_server.service;
+
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadStoreTest {
+
+    private static final String JSON = "{\"openapi\": \"3.0.3\"}";
+    private static final String YAML = "openapi: 3.0.3\n";
+
+    @TempDir
+    Path tempDir;
+
+    private OpenApiProperties properties;
+    private UploadStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OpenApiProperties();
+        properties.getUploads().setDirectory(tempDir.toString());
+        store = new UploadStore(properties);
+    }
+
+    @Test
+    void shouldStoreUploadsByTheHashOfTheirContent() throws Exception {
+        try (UploadStore.Upload first = store.store(stream(JSON));
+             UploadStore.Upload second = store.store(stream(JSON));
+             UploadStore.Upload yaml = store.store(stream("\n" + YAML))) {
+            String hash = RegistrySnapshot.sha256(JSON.getBytes(StandardCharsets.UTF_8));
+            assertEquals(tempDir.resolve(hash + ".json").toAbsolutePath(), first.file());
+            assertEquals(hash, first.content().hash());
+            assertEquals(JSON, new String(first.content().bytes(), StandardCharsets.UTF_8));
+            assertFalse(first.deduplicated());
+
+            assertEquals(first.file(), second.file());
+            assertTrue(second.deduplicated());
+            assertTrue(yaml.file().getFileName().toString().endsWith(".yaml"));
+            assertEquals(2, files().size());
+        }
+    }
+
+    @Test
+    void shouldRejectEmptyAndOversizedUploadsWithoutLeavingFiles() {
+        properties.getUploads().setMaxSize(DataSize.ofBytes(10));
+
+        assertThrows(IllegalArgumentException.class, () -> store.store(stream("")));
+        assertThrows(IllegalArgumentException.class, () -> store.store(stream(JSON)));
+        assertEquals(List.of(), files());
+    }
+
+    @Test
+    void shouldDeleteOnlyUnreferencedUnpinnedUploads() throws Exception {
+        UploadStore.Upload referenced = store.store(stream(JSON));
+        referenced.close();
+        UploadStore.Upload pinned = store.store(stream(YAML));
+        Path orphan;
+        try (UploadStore.Upload upload = store.store(stream("{}"))) {
+            orphan = upload.file();
+        }
+        Path timestamped = Files.writeString(tempDir.resolve("1752629840060_simple-api.json"), JSON);
+        Path interrupted = Files.writeString(tempDir.resolve(".upload-123.tmp"), JSON);
+        Path unrelated = Files.writeString(tempDir.resolve("notes.txt"), "keep");
+        Path configuredFile = Files.writeString(tempDir.resolve("1752630037893_configured.json"), JSON);
+        properties.setDocuments(List.of(document(configuredFile)));
+
+        assertEquals(3, store.collectGarbage(List.of(document(referenced.file()))));
+
+        assertTrue(Files.exists(referenced.file()));
+        assertTrue(Files.exists(pinned.file()));
+        assertTrue(Files.exists(unrelated));
+        assertTrue(Files.exists(configuredFile));
+        assertFalse(Files.exists(orphan));
+        assertFalse(Files.exists(timestamped));
+        assertFalse(Files.exists(interrupted));
+
+        pinned.close();
+        assertEquals(1, store.collectGarbage(List.of(document(referenced.file()))));
+        assertFalse(Files.exists(pinned.file()));
+    }
+
+    private static OpenApiProperties.Document document(Path file) {
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName(file.getFileName().toString());
+        document.setLocation(file.toString());
+        return document;
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<Path> files() {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.toList();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
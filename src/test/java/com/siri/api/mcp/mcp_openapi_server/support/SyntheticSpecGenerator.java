@@ -0,0 +1,316 @@
+package com.siri.api.mcp.mcp_openapi_server.support;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates reproducible OpenAPI 3 documents for scale testing.
+ * <p>
+ * Component schemas {@code Model0..ModelN} are arranged in {@code depth} layers. Every schema carries
+ * {@code propertiesPerSchema} primitive properties and {@code refFanOut} {@code $ref} properties pointing
+ * into the next layer, so reference chains are exactly {@code depth} long. With {@code cycles} enabled the
+ * last layer points back to the first one. Operations alternate between
+ * {@code GET /resources{i}/{id}} ({@code getResource{i}}) using the shared {@code PageSize}/{@code PageToken}
+ * parameters and {@code POST /resources{i}} ({@code createResource{i}}) with a referenced request body.
+ * With {@code examples} enabled, operations also carry a description, an error response and response examples,
+ * and component schemas an example, as vendor specifications typically do.
+ * <p>
+ * The same settings and seed always produce the same document.
+ */
+public final class SyntheticSpecGenerator {
+
+    private static final String SCHEMA_REF_PREFIX = "#/components/schemas/";
+    private static final String PARAMETER_REF_PREFIX = "#/components/parameters/";
+
+    private final int operations;
+    private final int schemas;
+    private final int propertiesPerSchema;
+    private final int depth;
+    private final int refFanOut;
+    private final boolean cycles;
+    private final boolean examples;
+    private final long seed;
+    private final String serverUrl;
+
+    private SyntheticSpecGenerator(Builder builder) {
+        this.operations = builder.operations;
+        this.schemas = Math.max(builder.schemas, builder.depth);
+        this.propertiesPerSchema = builder.propertiesPerSchema;
+        this.depth = builder.depth;
+        this.refFanOut = builder.refFanOut;
+        this.cycles = builder.cycles;
+        this.examples = builder.examples;
+        this.seed = builder.seed;
+        this.serverUrl = builder.serverUrl;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Build the document as a tree of maps and lists, in a stable key order.
+     */
+    public Map<String, Object> generate() {
+        Random random = new Random(seed);
+
+        Map<String, Object> spec = new LinkedHashMap<>();
+        spec.put("openapi", "3.0.3");
+        spec.put("info", Map.of("title", "Synthetic API", "version", "1.0.0"));
+        spec.put("servers", List.of(Map.of("url", serverUrl)));
+        spec.put("paths", paths(random));
+
+        Map<String, Object> components = new LinkedHashMap<>();
+        components.put("schemas", componentSchemas(random));
+        components.put("parameters", componentParameters());
+        spec.put("components", components);
+        return spec;
+    }
+
+    public String toJson() {
+        try {
+            return new ObjectMapper().writeValueAsString(generate());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize synthetic spec", e);
+        }
+    }
+
+    public Path writeTo(Path file) throws IOException {
+        Files.writeString(file, toJson());
+        return file;
+    }
+
+    /**
+     * Name of the component schema with the given index.
+     */
+    public static String schemaName(int index) {
+        return "Model" + index;
+    }
+
+    private Map<String, Object> paths(Random random) {
+        Map<String, Object> paths = new LinkedHashMap<>();
+        for (int i = 0; i < operations; i++) {
+            String responseRef = SCHEMA_REF_PREFIX + schemaName(random.nextInt(schemas));
+            Map<String, Object> responses = examples ? documentedResponses(i, responseRef) : Map.of("200", Map.of(
+                    "description", "OK",
+                    "content", Map.of("application/json", Map.of("schema", Map.of("$ref", responseRef)))));
+
+            Map<String, Object> operation = new LinkedHashMap<>();
+            if (examples) {
+                operation.put("description", "Operation " + i + " of the synthetic API. " +
+                        "It works on a single resource and returns the stored representation. ".repeat(4));
+            }
+            if (i % 2 == 0) {
+                operation.put("operationId", "getResource" + i);
+                operation.put("summary", "Get resource " + i);
+                operation.put("tags", List.of("tag" + (i % 10)));
+                operation.put("parameters", List.of(
+                        Map.of("name", "id", "in", "path", "required", true,
+                                "schema", Map.of("type", "integer", "format", "int64")),
+                        Map.of("$ref", PARAMETER_REF_PREFIX + "PageSize"),
+                        Map.of("$ref", PARAMETER_REF_PREFIX + "PageToken")));
+                operation.put("responses", responses);
+                paths.put("/resources" + i + "/{id}", Map.of("get", operation));
+            } else {
+                String bodyRef = SCHEMA_REF_PREFIX + schemaName(random.nextInt(schemas));
+                operation.put("operationId", "createResource" + i);
+                operation.put("summary", "Create resource " + i);
+                operation.put("tags", List.of("tag" + (i % 10)));
+                operation.put("requestBody", Map.of(
+                        "required", true,
+                        "content", Map.of("application/json", Map.of("schema", Map.of("$ref", bodyRef)))));
+                operation.put("responses", responses);
+                paths.put("/resources" + i, Map.of("post", operation));
+            }
+        }
+        return paths;
+    }
+
+    private Map<String, Object> documentedResponses(int i, String responseRef) {
+        Map<String, Object> example = new LinkedHashMap<>();
+        for (int p = 0; p < 8; p++) {
+            example.put("field" + p, "Example value " + p + " of resource " + i);
+        }
+        return Map.of(
+                "200", Map.of(
+                        "description", "The resource " + i + " as stored",
+                        "content", Map.of("application/json", Map.of(
+                                "schema", Map.of("$ref", responseRef),
+                                "examples", Map.of("default", Map.of("summary", "A typical resource", "value", example))))),
+                "404", Map.of(
+                        "description", "No resource " + i + " exists with the given identifier",
+                        "content", Map.of("application/json", Map.of(
+                                "schema", Map.of("type", "object", "properties", Map.of(
+                                        "code", Map.of("type", "integer"),
+                                        "message", Map.of("type", "string"))),
+                                "example", Map.of("code", 404, "message", "Resource " + i + " not found")))));
+    }
+
+    /**
+     * @return The index of the first schema in a layer, or the number of schemas past the last layer
+     */
+    private int layerStart(int layer) {
+        return (int) (((long) layer * schemas + depth - 1) / depth);
+    }
+
+    private Map<String, Object> componentSchemas(Random random) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < schemas; i++) {
+            // Spreads the schemas evenly, so each of the depth layers has at least one
+            int layer = (int) ((long) i * depth / schemas);
+            Map<String, Object> properties = new LinkedHashMap<>();
+            List<String> required = new ArrayList<>();
+
+            for (int p = 0; p < propertiesPerSchema; p++) {
+                String name = "field" + p;
+                properties.put(name, primitiveProperty(random, p));
+                if (p % 3 == 0) {
+                    required.add(name);
+                }
+            }
+
+            if (layer < depth - 1) {
+                int nextLayerStart = layerStart(layer + 1);
+                int nextLayerSize = layerStart(layer + 2) - nextLayerStart;
+                for (int r = 0; r < refFanOut; r++) {
+                    int target = nextLayerStart + random.nextInt(nextLayerSize);
+                    properties.put("child" + r, Map.of("$ref", SCHEMA_REF_PREFIX + schemaName(target)));
+                }
+            } else if (cycles) {
+                int target = random.nextInt(layerStart(1));
+                properties.put("parent", Map.of("$ref", SCHEMA_REF_PREFIX + schemaName(target)));
+            }
+
+            Map<String, Object> schema = new LinkedHashMap<>();
+            schema.put("type", "object");
+            schema.put("description", "Synthetic model " + i + " in layer " + layer);
+            if (!required.isEmpty()) {
+                schema.put("required", required);
+            }
+            schema.put("properties", properties);
+            if (examples) {
+                schema.put("example", Map.of("field0", "example of model " + i));
+            }
+            result.put(schemaName(i), schema);
+        }
+        return result;
+    }
+
+    private Map<String, Object> primitiveProperty(Random random, int index) {
+        Map<String, Object> property = new LinkedHashMap<>();
+        switch (random.nextInt(6)) {
+            case 0 -> {
+                property.put("type", "string");
+                property.put("maxLength", 64);
+            }
+            case 1 -> {
+                property.put("type", "string");
+                property.put("enum", List.of("active", "inactive", "pending"));
+            }
+            case 2 -> {
+                property.put("type", "integer");
+                property.put("format", "int32");
+                property.put("minimum", 0);
+                property.put("maximum", 1000);
+            }
+            case 3 -> {
+                property.put("type", "number");
+                property.put("format", "double");
+            }
+            case 4 -> property.put("type", "boolean");
+            default -> {
+                property.put("type", "array");
+                property.put("items", Map.of("type", "string"));
+            }
+        }
+        property.put("description", "Field " + index);
+        return property;
+    }
+
+    private Map<String, Object> componentParameters() {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("PageSize", Map.of(
+                "name", "pageSize", "in", "query", "description", "Maximum number of results",
+                "schema", Map.of("type", "integer", "minimum", 1, "maximum", 500)));
+        parameters.put("PageToken", Map.of(
+                "name", "pageToken", "in", "query", "description", "Continuation token",
+                "schema", Map.of("type", "string")));
+        return parameters;
+    }
+
+    public static final class Builder {
+        private int operations = 100;
+        private int schemas = 50;
+        private int propertiesPerSchema = 10;
+        private int depth = 3;
+        private int refFanOut = 2;
+        private boolean cycles = false;
+        private boolean examples = false;
+        private long seed = 42L;
+        private String serverUrl = "http://localhost:8080";
+
+        private Builder() {
+        }
+
+        public Builder operations(int operations) {
+            this.operations = operations;
+            return this;
+        }
+
+        public Builder schemas(int schemas) {
+            this.schemas = schemas;
+            return this;
+        }
+
+        public Builder propertiesPerSchema(int propertiesPerSchema) {
+            this.propertiesPerSchema = propertiesPerSchema;
+            return this;
+        }
+
+        public Builder depth(int depth) {
+            if (depth < 1) {
+                throw new IllegalArgumentException("depth must be at least 1");
+            }
+            this.depth = depth;
+            return this;
+        }
+
+        public Builder refFanOut(int refFanOut) {
+            this.refFanOut = refFanOut;
+            return this;
+        }
+
+        public Builder cycles(boolean cycles) {
+            this.cycles = cycles;
+            return this;
+        }
+
+        public Builder examples(boolean examples) {
+            this.examples = examples;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder serverUrl(String serverUrl) {
+            this.serverUrl = serverUrl;
+            return this;
+        }
+
+        public SyntheticSpecGenerator build() {
+            return new SyntheticSpecGenerator(this);
+        }
+    }
+}
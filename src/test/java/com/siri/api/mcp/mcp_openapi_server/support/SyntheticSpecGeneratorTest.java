@@ -0,0 +1,140 @@
+package com.siri.api.mcp.mcp_openapi_server.support;
+
+import com.siri.api.mcp.mcp_openapi_server.config.OpenApiProperties;
+import com.siri.api.mcp.mcp_openapi_server.service.OpenApiDefinitionService;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SyntheticSpecGeneratorTest {
+
+    @Test
+    void shouldBeReproducibleForTheSameSeed() {
+        SyntheticSpecGenerator first = SyntheticSpecGenerator.builder().operations(50).seed(7).build();
+        SyntheticSpecGenerator second = SyntheticSpecGenerator.builder().operations(50).seed(7).build();
+        SyntheticSpecGenerator other = SyntheticSpecGenerator.builder().operations(50).seed(8).build();
+
+        assertEquals(first.toJson(), second.toJson());
+        assertNotEquals(first.toJson(), other.toJson());
+    }
+
+    @Test
+    void shouldProduceRequestedShape() {
+        String json = SyntheticSpecGenerator.builder()
+                .operations(40)
+                .schemas(30)
+                .propertiesPerSchema(12)
+                .depth(3)
+                .refFanOut(2)
+                .build()
+                .toJson();
+
+        OpenAPI openAPI = new OpenAPIV3Parser().readContents(json).getOpenAPI();
+
+        assertNotNull(openAPI);
+        long operationCount = openAPI.getPaths().values().stream()
+                .mapToLong(pathItem -> pathItem.readOperations().size())
+                .sum();
+        assertEquals(40, operationCount);
+        assertEquals(30, openAPI.getComponents().getSchemas().size());
+
+        Schema<?> root = openAPI.getComponents().getSchemas().get(SyntheticSpecGenerator.schemaName(0));
+        assertEquals(12 + 2, root.getProperties().size(), "Primitive fields plus one $ref per fan-out");
+        assertEquals(3, refChainLength(openAPI, SyntheticSpecGenerator.schemaName(0)));
+    }
+
+    @Test
+    void shouldMakeReferenceChainsAsLongAsTheDepthWhateverTheSchemaCount() {
+        for (int schemas : new int[]{6, 10, 11, 17}) {
+            OpenAPI openAPI = new OpenAPIV3Parser().readContents(SyntheticSpecGenerator.builder()
+                    .schemas(schemas)
+                    .depth(6)
+                    .build()
+                    .toJson()).getOpenAPI();
+
+            assertEquals(6, refChainLength(openAPI, SyntheticSpecGenerator.schemaName(0)), schemas + " schemas");
+        }
+    }
+
+    @Test
+    void shouldCloseReferenceCyclesWhenRequested() {
+        OpenAPI acyclic = new OpenAPIV3Parser().readContents(
+                SyntheticSpecGenerator.builder().depth(4).cycles(false).build().toJson()).getOpenAPI();
+        OpenAPI cyclic = new OpenAPIV3Parser().readContents(
+                SyntheticSpecGenerator.builder().depth(4).cycles(true).build().toJson()).getOpenAPI();
+
+        assertFalse(hasCycle(acyclic));
+        assertTrue(hasCycle(cyclic));
+    }
+
+    @Test
+    void shouldLoadLargeSpecThroughDefinitionService(@TempDir Path tempDir) throws Exception {
+        Path spec = SyntheticSpecGenerator.builder()
+                .operations(2_000)
+                .schemas(200)
+                .build()
+                .writeTo(tempDir.resolve("large.json"));
+
+        OpenApiProperties.Document document = new OpenApiProperties.Document();
+        document.setName("Synthetic");
+        document.setLocation(spec.toString());
+        OpenApiProperties properties = mock(OpenApiProperties.class);
+        when(properties.getDocuments()).thenReturn(List.of(document));
+
+        OpenApiDefinitionService service = new OpenApiDefinitionService(properties);
+        service.init();
+
+        assertEquals(2_000, service.getOperationCache().size());
+        assertTrue(service.getOperation("getResource0").isPresent());
+        assertTrue(service.getOperation("createResource1999").isPresent());
+    }
+
+    private int refChainLength(OpenAPI openAPI, String schemaName) {
+        Schema<?> schema = openAPI.getComponents().getSchemas().get(schemaName);
+        Schema<?> child = (Schema<?>) schema.getProperties().get("child0");
+        if (child == null) {
+            return 1;
+        }
+        return 1 + refChainLength(openAPI, child.get$ref().substring("#/components/schemas/".length()));
+    }
+
+    private boolean hasCycle(OpenAPI openAPI) {
+        Set<String> done = new HashSet<>();
+        for (String name : openAPI.getComponents().getSchemas().keySet()) {
+            if (visit(openAPI, name, new HashSet<>(), done)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean visit(OpenAPI openAPI, String name, Set<String> path, Set<String> done) {
+        if (path.contains(name)) {
+            return true;
+        }
+        if (!done.add(name)) {
+            return false;
+        }
+        path.add(name);
+        for (Object value : openAPI.getComponents().getSchemas().get(name).getProperties().values()) {
+            Schema<?> property = (Schema<?>) value;
+            if (property.get$ref() != null
+                    && visit(openAPI, property.get$ref().substring("#/components/schemas/".length()), path, done)) {
+                return true;
+            }
+        }
+        path.remove(name);
+        return false;
+    }
+}